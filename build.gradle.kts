@@ -58,3 +58,21 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Timing tests are opt-in: ./gradlew benchmark
+tasks.named<Test>("test") {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the tests tagged benchmark."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+}
@@ -0,0 +1,29 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.security.IdentityNotFoundException;
+import com.smarthireflow.hrbackend.service.NothingToClockOutException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Maps exceptions that any controller may see to responses.  Errors
+ * are sent through {@code sendError}, like ResponseStatusException, so
+ * the body has the usual error format.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(IdentityNotFoundException.class)
+    public void identityNotFound(IdentityNotFoundException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+    }
+
+    @ExceptionHandler(NothingToClockOutException.class)
+    public void nothingToClockOut(NothingToClockOutException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+    }
+}
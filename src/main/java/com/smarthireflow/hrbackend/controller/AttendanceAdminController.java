@@ -0,0 +1,67 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.dto.AttendanceMonthSummary;
+import com.smarthireflow.hrbackend.dto.PresenceEntry;
+import com.smarthireflow.hrbackend.service.AttendanceRollupService;
+import com.smarthireflow.hrbackend.service.PresenceBroadcaster;
+import com.smarthireflow.hrbackend.service.PresenceIndex;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Team-wide attendance views for managers and system engineers.
+ */
+@RestController
+@RequestMapping("/admin/attendance")
+public class AttendanceAdminController {
+
+    private final AttendanceRollupService rollupService;
+    private final PresenceIndex presenceIndex;
+    private final PresenceBroadcaster presenceBroadcaster;
+
+    public AttendanceAdminController(AttendanceRollupService rollupService,
+                                     PresenceIndex presenceIndex,
+                                     PresenceBroadcaster presenceBroadcaster) {
+        this.rollupService = rollupService;
+        this.presenceIndex = presenceIndex;
+        this.presenceBroadcaster = presenceBroadcaster;
+    }
+
+    /**
+     * Monthly totals of every employee for one month (YYYY-MM, default
+     * the current month), optionally limited to a department.  Read from
+     * the attendance rollup.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<AttendanceMonthSummary> monthSummary(@RequestParam(required = false) YearMonth month,
+                                                     @RequestParam(required = false) String department) {
+        return rollupService.forMonth(month != null ? month : YearMonth.now(), department);
+    }
+
+    /**
+     * Everyone currently clocked in, served from the in-memory presence
+     * index rather than the database.
+     */
+    @GetMapping("/presence")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<PresenceEntry> presence() {
+        return presenceIndex.snapshot();
+    }
+
+    /**
+     * Server-Sent Events feed of presence: a {@code snapshot} event on
+     * connect followed by a {@code presence} event for every clock-in or
+     * clock-out.  Dashboards should use this instead of polling.
+     */
+    @GetMapping(value = "/presence/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public SseEmitter presenceStream() {
+        return presenceBroadcaster.subscribe(presenceIndex::snapshot);
+    }
+}
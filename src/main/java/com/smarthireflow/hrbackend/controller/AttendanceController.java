@@ -1,18 +1,31 @@
 package com.smarthireflow.hrbackend.controller;
 
-import com.smarthireflow.hrbackend.model.AttendanceRecord;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthireflow.hrbackend.dto.AttendanceMonthSummary;
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.KioskClockEvent;
+import com.smarthireflow.hrbackend.dto.SyncEventResult;
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
+import com.smarthireflow.hrbackend.service.AttendanceRollupService;
 import com.smarthireflow.hrbackend.service.AttendanceService;
-import com.smarthireflow.hrbackend.user.service.UserService;
-import com.smarthireflow.hrbackend.user.entity.UserEntity;
-import com.smarthireflow.hrbackend.model.Employee;
-import com.smarthireflow.hrbackend.repository.EmployeeRepository;
-import org.springframework.web.server.ResponseStatusException;
+import com.smarthireflow.hrbackend.service.AttendanceSyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,13 +37,21 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
-    private final UserService userService;
-    private final EmployeeRepository employeeRepository;
+    private final AttendanceRollupService rollupService;
+    private final AttendanceSyncService syncService;
+    private final ObjectMapper objectMapper;
+    private final int maxSyncEvents;
 
-    public AttendanceController(AttendanceService attendanceService, UserService userService, EmployeeRepository employeeRepository) {
+    public AttendanceController(AttendanceService attendanceService,
+                                AttendanceRollupService rollupService,
+                                AttendanceSyncService syncService,
+                                ObjectMapper objectMapper,
+                                @Value("${attendance.sync.max-events:10000}") int maxSyncEvents) {
         this.attendanceService = attendanceService;
-        this.userService = userService;
-        this.employeeRepository = employeeRepository;
+        this.rollupService = rollupService;
+        this.syncService = syncService;
+        this.objectMapper = objectMapper;
+        this.maxSyncEvents = maxSyncEvents;
     }
 
     /**
@@ -40,19 +61,15 @@ public class AttendanceController {
      * a request parameter.
      */
     /**
-     * Clock the authenticated employee in.  The employee id is derived
-     * from the authenticated principal rather than being passed in
-     * explicitly.  A manager may still use the variant with an
+     * Clock the authenticated employee in.  The employee id is taken
+     * from the resolved principal (embedded in the token at login)
+     * rather than being passed in explicitly.  A manager may still use the variant with an
      * explicit id via {@link #clockInForEmployee(Long)}.
      */
     @PostMapping("/clock-in")
     @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<AttendanceRecord> clockIn(Authentication auth) {
-        UserEntity user = userService.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        Employee employee = employeeRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-        AttendanceRecord record = attendanceService.clockIn(employee.getId());
+    public ResponseEntity<AttendanceRecordView> clockIn(@AuthenticationPrincipal AuthenticatedUser me) {
+        AttendanceRecordView record = attendanceService.clockIn(me.requireEmployeeId());
         return ResponseEntity.ok(record);
     }
 
@@ -61,7 +78,7 @@ public class AttendanceController {
      */
     @PostMapping("/clock-in/{employeeId}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<AttendanceRecord> clockInForEmployee(@PathVariable Long employeeId) {
+    public ResponseEntity<AttendanceRecordView> clockInForEmployee(@PathVariable Long employeeId) {
         return ResponseEntity.ok(attendanceService.clockIn(employeeId));
     }
 
@@ -71,16 +88,12 @@ public class AttendanceController {
      */
     /**
      * Clock the authenticated employee out.  See notes on
-     * {@link #clockIn(Authentication)} for deriving the employee id.
+     * {@link #clockIn(AuthenticatedUser)} for deriving the employee id.
      */
     @PostMapping("/clock-out")
     @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<AttendanceRecord> clockOut(Authentication auth) {
-        UserEntity user = userService.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        Employee employee = employeeRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-        AttendanceRecord record = attendanceService.clockOut(employee.getId());
+    public ResponseEntity<AttendanceRecordView> clockOut(@AuthenticationPrincipal AuthenticatedUser me) {
+        AttendanceRecordView record = attendanceService.clockOut(me.requireEmployeeId());
         return ResponseEntity.ok(record);
     }
 
@@ -89,10 +102,46 @@ public class AttendanceController {
      */
     @PostMapping("/clock-out/{employeeId}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<AttendanceRecord> clockOutForEmployee(@PathVariable Long employeeId) {
+    public ResponseEntity<AttendanceRecordView> clockOutForEmployee(@PathVariable Long employeeId) {
         return ResponseEntity.ok(attendanceService.clockOut(employeeId));
     }
 
+    /**
+     * Upload clock events buffered by an offline kiosk, as a JSON array.
+     * Each event carries a kiosk-chosen {@code clientEventId}; uploading
+     * the same event again is harmless and reported as DUPLICATE.  The
+     * response lists one result per event, in request order.
+     */
+    @PostMapping(value = "/sync", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<SyncEventResult> sync(@RequestBody List<KioskClockEvent> events) {
+        if (events.size() > maxSyncEvents) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxSyncEvents + " events per upload");
+        }
+        return syncService.sync(events);
+    }
+
+    /**
+     * Same as {@link #sync(List)} for kiosks that stream newline-delimited
+     * JSON, one event per line.
+     */
+    @PostMapping(value = "/sync", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<SyncEventResult> syncNdjson(InputStream body) throws IOException {
+        List<KioskClockEvent> events = new ArrayList<>();
+        try (MappingIterator<KioskClockEvent> it = objectMapper.readerFor(KioskClockEvent.class).readValues(body)) {
+            while (it.hasNextValue()) {
+                if (events.size() == maxSyncEvents) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "At most " + maxSyncEvents + " events per upload");
+                }
+                events.add(it.nextValue());
+            }
+        }
+        return syncService.sync(events);
+    }
+
     /**
      * Retrieve attendance history for a specific employee.  Managers
      * may view records for any employee while employees can only
@@ -100,26 +149,81 @@ public class AttendanceController {
      * method security annotations if required.
      */
     /**
-     * Retrieve attendance records for the authenticated employee.
+     * Retrieve attendance records for the authenticated employee, newest
+     * first.  Results can be bounded with {@code from}/{@code to} (ISO
+     * dates, inclusive) and are paginated: when more rows exist the
+     * response carries an {@code X-Next-Cursor} header whose value is
+     * passed back as {@code cursor} to fetch the next page.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<List<AttendanceRecord>> getMyRecords(Authentication auth) {
-        UserEntity user = userService.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        Employee employee = employeeRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-        return ResponseEntity.ok(attendanceService.getAttendanceForEmployee(employee.getId()));
+    public ResponseEntity<List<AttendanceRecordView>> getMyRecords(@AuthenticationPrincipal AuthenticatedUser me,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit) {
+        return history(me.requireEmployeeId(), from, to, cursor, limit);
     }
 
     /**
      * Retrieve attendance records for a specific employee id.  Managers
      * and system engineers may view any employee's records, while
-     * employees should use {@link #getMyRecords(Authentication)}.
+     * employees should use {@link #getMyRecords}.  Accepts the same
+     * date bounds and cursor parameters.
      */
     @GetMapping("/{employeeId}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<List<AttendanceRecord>> getRecordsForEmployee(@PathVariable Long employeeId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceForEmployee(employeeId));
+    public ResponseEntity<List<AttendanceRecordView>> getRecordsForEmployee(@PathVariable Long employeeId,
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer limit) {
+        return history(employeeId, from, to, cursor, limit);
+    }
+
+    private ResponseEntity<List<AttendanceRecordView>> history(Long employeeId, LocalDate from, LocalDate to,
+                                                               String cursor, Integer limit) {
+        try {
+            return attendanceService.getAttendanceForEmployee(employeeId, from, to, cursor,
+                    CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Monthly totals (worked minutes, days present, late arrivals, and
+     * the month's working days) for the authenticated employee, read from the attendance rollup.
+     * {@code from}/{@code to} are inclusive months (YYYY-MM); the default
+     * is the last twelve months including the current one.  Months with
+     * no completed records are omitted.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public List<AttendanceMonthSummary> getMySummary(@AuthenticationPrincipal AuthenticatedUser me,
+                                                     @RequestParam(required = false) YearMonth from,
+                                                     @RequestParam(required = false) YearMonth to) {
+        return summary(me.requireEmployeeId(), from, to);
+    }
+
+    /**
+     * Monthly totals for a specific employee (manager/admin use only).
+     */
+    @GetMapping("/summary/{employeeId}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<AttendanceMonthSummary> getSummaryForEmployee(@PathVariable Long employeeId,
+                                                              @RequestParam(required = false) YearMonth from,
+                                                              @RequestParam(required = false) YearMonth to) {
+        return summary(employeeId, from, to);
+    }
+
+    private List<AttendanceMonthSummary> summary(Long employeeId, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        try {
+            return rollupService.forEmployee(employeeId, start, end);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
 package com.smarthireflow.hrbackend.controller;
 
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
 import com.smarthireflow.hrbackend.security.JwtService;
+import com.smarthireflow.hrbackend.service.IdentityCache;
 import com.smarthireflow.hrbackend.user.entity.UserEntity;
 import com.smarthireflow.hrbackend.user.service.UserService;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,11 +18,13 @@ public class AuthController {
   private final UserService userService;
   private final PasswordEncoder encoder;
   private final JwtService jwt;
+  private final IdentityCache identities;
 
-  public AuthController(UserService userService, PasswordEncoder encoder, JwtService jwt) {
+  public AuthController(UserService userService, PasswordEncoder encoder, JwtService jwt, IdentityCache identities) {
     this.userService = userService;
     this.encoder = encoder;
     this.jwt = jwt;
+    this.identities = identities;
   }
 
   @PostMapping("/login")
@@ -29,14 +33,15 @@ public class AuthController {
     if (user == null || !encoder.matches(req.password(), user.getPasswordHash())) {
       return ResponseEntity.status(401).body(new Msg("Invalid credentials"));
     }
-    String token = jwt.generate(user.getEmail(), user.getRole());
+    Long employeeId = identities.employeeId(user.getEmail()).orElse(null);
+    String token = jwt.generate(user.getEmail(), user.getRole(), user.getId(), employeeId);
     return ResponseEntity.ok(new LoginRes(token, user.getFullName(), user.getRole().name()));
   }
 
   @GetMapping("/me")
-  public ResponseEntity<?> me(Authentication auth) {
-    if (auth == null) return ResponseEntity.ok(new Me(false, null, null));
-    UserEntity user = userService.findByEmail(auth.getName()).orElse(null);
+  public ResponseEntity<?> me(@AuthenticationPrincipal AuthenticatedUser me) {
+    if (me == null || me.userId() == null) return ResponseEntity.ok(new Me(false, null, null));
+    UserEntity user = userService.findOne(me.userId()).orElse(null);
     if (user == null) return ResponseEntity.ok(new Me(false, null, null));
     return ResponseEntity.ok(new Me(true, user.getFullName(), user.getRole().name()));
   }
@@ -0,0 +1,145 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
+import com.smarthireflow.hrbackend.service.AvatarService;
+import com.smarthireflow.hrbackend.user.entity.AvatarUrls;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Avatar upload and download.  Images are served with a strong ETag (the
+ * image's SHA-256) and Last-Modified, so a revalidation costs a 304.
+ * The versioned URL {@code /users/{userId}/avatar/{hash}} returned on
+ * upload and as {@code avatarUrl} never changes content, so it is served
+ * as immutable for {@code avatars.cache.max-age}; it is cacheable by
+ * shared caches such as a CDN only when {@code avatars.cache.public} is
+ * set.  Unversioned URLs must be revalidated on every use.
+ */
+@RestController
+public class AvatarController {
+
+    private static final long MAX_SIZE = 2 * 1024 * 1024;
+
+    private final AvatarService avatars;
+    private final CacheControl versionedCache;
+
+    public AvatarController(AvatarService avatars,
+                            @Value("${avatars.cache.max-age:365d}") Duration maxAge,
+                            @Value("${avatars.cache.public:false}") boolean shared) {
+        this.avatars = avatars;
+        CacheControl cache = CacheControl.maxAge(maxAge).immutable();
+        this.versionedCache = shared ? cache.cachePublic() : cache.cachePrivate();
+    }
+
+    @PostMapping(value = "/employee/profile/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<?> upload(@RequestPart("avatar") MultipartFile file, @AuthenticationPrincipal AuthenticatedUser me) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "No file uploaded"));
+        }
+        if (file.getSize() > MAX_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("message", "Avatar too large (max 2MB)"));
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Only image uploads are allowed"));
+        }
+        long userId = me.requireUserId();
+        String hash;
+        try (InputStream in = file.getInputStream()) {
+            hash = avatars.replace(userId, in, contentType);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        String url = AvatarUrls.versioned(userId, hash);
+        return ResponseEntity.ok(Map.of("photoUrl", url, "avatarUrl", url));
+    }
+
+    @GetMapping("/employee/profile/avatar")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public void get(@AuthenticationPrincipal AuthenticatedUser me,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(find(me.requireUserId()), CacheControl.noCache().cachePrivate(), request, response);
+    }
+
+    @DeleteMapping("/employee/profile/avatar")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<Void> delete(@AuthenticationPrincipal AuthenticatedUser me) {
+        avatars.clear(me.requireUserId());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * A user's current avatar, for directory pages that only know the
+     * user id.  Employees may fetch only their own.
+     */
+    @GetMapping("/users/{userId}/avatar")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public void getForUser(@PathVariable long userId, @AuthenticationPrincipal AuthenticatedUser me,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requireVisible(userId, me);
+        serve(find(userId), CacheControl.noCache().cachePrivate(), request, response);
+    }
+
+    /**
+     * One version of a user's avatar, served as immutable.  If the user
+     * has changed their avatar since the URL was issued, redirects to
+     * the current version.
+     */
+    @GetMapping("/users/{userId}/avatar/{hash}")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public void getVersion(@PathVariable long userId, @PathVariable String hash, @AuthenticationPrincipal AuthenticatedUser me,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requireVisible(userId, me);
+        AvatarService.Avatar avatar = find(userId);
+        if (!avatar.hash().equals(hash)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.sendRedirect(AvatarUrls.versioned(userId, avatar.hash()));
+            return;
+        }
+        serve(avatar, versionedCache, request, response);
+    }
+
+    private AvatarService.Avatar find(long userId) {
+        return avatars.find(userId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private static void requireVisible(long userId, AuthenticatedUser me) {
+        boolean admin = "MANAGER".equals(me.role()) || "SYSTEM_ENGINEER".equals(me.role());
+        if (!admin && userId != me.requireUserId()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    /**
+     * Answer a conditional request with 304, otherwise write the image
+     * without copying it; see {@link FileResponses}.
+     */
+    private static void serve(AvatarService.Avatar avatar, CacheControl cache,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cache.getHeaderValue());
+        long lastModified = avatar.updatedAt() != null ? avatar.updatedAt().toEpochMilli() : -1;
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + avatar.hash() + "\"", lastModified)) {
+            return;
+        }
+        response.setContentType(avatar.contentType());
+        FileResponses.sendResource(request, response, avatar.image());
+    }
+}
@@ -0,0 +1,32 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.dto.DashboardSummary;
+import com.smarthireflow.hrbackend.service.DashboardService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin dashboard figures.
+ */
+@RestController
+@RequestMapping("/admin/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * Headcount, attendance, leave and inventory totals for today in one
+     * response.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public DashboardSummary summary() {
+        return dashboardService.summary();
+    }
+}
@@ -0,0 +1,110 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.dto.ExportJobView;
+import com.smarthireflow.hrbackend.model.ExportFormat;
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
+import com.smarthireflow.hrbackend.service.ExportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Org-wide export jobs for audits.  Submitting returns at once with the
+ * job; its progress can be polled or followed over Server-Sent Events,
+ * and the finished file is fetched from the job's {@code downloadUrl}.
+ */
+@RestController
+public class ExportController {
+
+    private final ExportJobService exportJobs;
+
+    public ExportController(ExportJobService exportJobs) {
+        this.exportJobs = exportJobs;
+    }
+
+    /**
+     * Start an export of all employees, attendance, leaves and inventory
+     * in the given format (JSON, NDJSON or CSV).  Responds 202 with the
+     * queued job, or 503 when the export queue is full.
+     */
+    @PostMapping("/admin/exports")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<ExportJobView> submit(@RequestParam(defaultValue = "JSON") ExportFormat format,
+                                                @AuthenticationPrincipal AuthenticatedUser me) {
+        ExportJobView job = exportJobs.submit(format, me.email());
+        return ResponseEntity.accepted().location(URI.create("/admin/exports/" + job.id())).body(job);
+    }
+
+    /**
+     * Jobs still retained by this instance, newest first.
+     */
+    @GetMapping("/admin/exports")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<ExportJobView> list() {
+        return exportJobs.list();
+    }
+
+    @GetMapping("/admin/exports/{id}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ExportJobView get(@PathVariable String id) {
+        return exportJobs.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Export job not found"));
+    }
+
+    /**
+     * Follow a job: a {@code progress} event with the job at least every
+     * {@code export.jobs.progress-interval-ms} while it runs, then a
+     * {@code done} event with the final state.
+     */
+    @GetMapping(value = "/admin/exports/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public SseEmitter events(@PathVariable String id) {
+        try {
+            return exportJobs.subscribe(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Cancel a queued or running job.
+     */
+    @DeleteMapping("/admin/exports/{id}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ExportJobView cancel(@PathVariable String id) {
+        try {
+            return exportJobs.cancel(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Download a finished export.  The token in the path is the only
+     * credential, so the link can be opened directly by a browser.  The
+     * file is written without copying; see {@link FileResponses}.
+     */
+    @GetMapping("/exports/download/{token}")
+    public void download(@PathVariable String token, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportJobService.Download download = exportJobs.download(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired download"));
+        response.setContentType(download.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(download.fileName()).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        FileResponses.sendFile(request, response, download.file(), download.size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.smarthireflow.hrbackend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files as response bodies without copying them through the
+ * heap.  On Tomcat the file is handed to the connector's sendfile
+ * support, which writes it once the handler returns; otherwise it is
+ * copied with {@link FileChannel#transferTo}.  Headers other than
+ * Content-Length must be set before calling.
+ */
+final class FileResponses {
+
+    private FileResponses() {
+    }
+
+    static void sendFile(HttpServletRequest request, HttpServletResponse response, Path file, long size) throws IOException {
+        response.setContentLengthLong(size);
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Send a resource: file-backed ones as in {@link #sendFile}, others
+     * (e.g. from an object store) streamed from their input stream.
+     */
+    static void sendResource(HttpServletRequest request, HttpServletResponse response, Resource resource) throws IOException {
+        if (resource.isFile()) {
+            Path file = resource.getFile().toPath();
+            sendFile(request, response, file, Files.size(file));
+            return;
+        }
+        long length = resource.contentLength();
+        if (length >= 0) response.setContentLengthLong(length);
+        try (InputStream in = resource.getInputStream()) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+}
@@ -1,11 +1,32 @@
 package com.smarthireflow.hrbackend.controller;
 
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.InventoryAssignmentEntry;
+import com.smarthireflow.hrbackend.dto.InventoryImportResult;
+import com.smarthireflow.hrbackend.dto.InventoryItemView;
+import com.smarthireflow.hrbackend.dto.InventorySearchHit;
+import com.smarthireflow.hrbackend.dto.SerialLookupResult;
 import com.smarthireflow.hrbackend.model.InventoryItem;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
+import com.smarthireflow.hrbackend.service.InventoryImportService;
+import com.smarthireflow.hrbackend.service.InventorySerialLookup;
 import com.smarthireflow.hrbackend.service.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -18,9 +39,18 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventorySerialLookup serialLookup;
+    private final InventoryImportService importService;
+    private final int maxLookupBatch;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService,
+                               InventorySerialLookup serialLookup,
+                               InventoryImportService importService,
+                               @Value("${inventory.serial-lookup.max-batch:1000}") int maxLookupBatch) {
         this.inventoryService = inventoryService;
+        this.serialLookup = serialLookup;
+        this.importService = importService;
+        this.maxLookupBatch = maxLookupBatch;
     }
 
     /**
@@ -32,6 +62,55 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.findAll());
     }
 
+    /**
+     * Search the inventory by name, serial number or category (prefix or
+     * substring, case-insensitive) and by words in the notes, best
+     * matches first.  Optionally limited to one status.  Paginated with
+     * the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/employee/inventory/search")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<InventorySearchHit>> search(@RequestParam String q,
+                                                           @RequestParam(required = false) InventoryStatus status,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limit) {
+        try {
+            return inventoryService.search(q, status, cursor, CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Look up an item by serial number, ignoring case and surrounding
+     * whitespace.  Meant for barcode scanners at the asset desk.
+     */
+    @GetMapping("/admin/inventory/by-serial/{serial}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<InventoryItemView> bySerial(@PathVariable String serial) {
+        return serialLookup.bySerial(serial)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No item with this serial number"));
+    }
+
+    /**
+     * Look up many serial numbers at once, e.g. a stocktake scan.  One
+     * result per input serial in the same order, with a null item for
+     * serials that match nothing.
+     */
+    @PostMapping("/admin/inventory/by-serial")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<SerialLookupResult>> bySerials(@RequestBody List<String> serials) {
+        if (serials == null || serials.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No serial numbers given");
+        }
+        if (serials.size() > maxLookupBatch) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxLookupBatch + " serial numbers per request");
+        }
+        return ResponseEntity.ok(serialLookup.bySerials(serials));
+    }
+
     /**
      * Create a new inventory item.  Only managers or system
      * engineers can perform this action.
@@ -39,7 +118,30 @@ public class InventoryController {
     @PostMapping("/admin/inventory")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
     public ResponseEntity<InventoryItem> create(@RequestBody InventoryItem item) {
-        return ResponseEntity.ok(inventoryService.createItem(item));
+        try {
+            return ResponseEntity.ok(inventoryService.createItem(item));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Create or update items from an uploaded CSV file (multipart part
+     * {@code file}, UTF-8).  Rows are matched to existing items by serial
+     * number; see {@link InventoryImportService} for the columns.
+     * Responds with counts and the rows that were rejected, or 400 if
+     * the header is invalid.
+     */
+    @PostMapping(value = "/admin/inventory/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<InventoryImportResult> importCsv(@RequestParam("file") MultipartFile file) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(importService.importCsv(reader));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read the uploaded file");
+        }
     }
 
     /**
@@ -48,8 +150,13 @@ public class InventoryController {
      */
     @PutMapping("/admin/inventory/{id}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<InventoryItem> update(@PathVariable Long id, @RequestBody InventoryItem updated) {
-        return ResponseEntity.ok(inventoryService.updateItem(id, updated));
+    public ResponseEntity<InventoryItem> update(@PathVariable Long id, @RequestBody InventoryItem updated,
+                                                @AuthenticationPrincipal AuthenticatedUser me) {
+        try {
+            return ResponseEntity.ok(inventoryService.updateItem(id, updated, me.userId()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     /**
@@ -58,8 +165,8 @@ public class InventoryController {
      */
     @DeleteMapping("/admin/inventory/{id}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        inventoryService.deleteItem(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser me) {
+        inventoryService.deleteItem(id, me.userId());
         return ResponseEntity.noContent().build();
     }
 
@@ -69,8 +176,9 @@ public class InventoryController {
      */
     @PatchMapping("/admin/inventory/{itemId}/assign/{employeeId}")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<InventoryItem> assign(@PathVariable Long itemId, @PathVariable Long employeeId) {
-        return ResponseEntity.ok(inventoryService.assignItem(itemId, employeeId));
+    public ResponseEntity<InventoryItem> assign(@PathVariable Long itemId, @PathVariable Long employeeId,
+                                                @AuthenticationPrincipal AuthenticatedUser me) {
+        return ResponseEntity.ok(inventoryService.assignItem(itemId, employeeId, me.userId()));
     }
 
     /**
@@ -80,7 +188,55 @@ public class InventoryController {
      */
     @PatchMapping("/admin/inventory/{itemId}/return")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<InventoryItem> returnItem(@PathVariable Long itemId) {
-        return ResponseEntity.ok(inventoryService.returnItem(itemId));
+    public ResponseEntity<InventoryItem> returnItem(@PathVariable Long itemId,
+                                                    @AuthenticationPrincipal AuthenticatedUser me) {
+        return ResponseEntity.ok(inventoryService.returnItem(itemId, me.userId()));
+    }
+
+    /**
+     * Custody chain of an item: every assignment and return, newest
+     * first.  Paginated with the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/admin/inventory/{itemId}/assignments")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<InventoryAssignmentEntry>> itemHistory(@PathVariable Long itemId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        try {
+            return inventoryService.itemHistory(itemId, cursor, CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Asset history of any employee; same parameters as
+     * {@link #itemHistory}.
+     */
+    @GetMapping("/admin/inventory/assignments/employee/{employeeId}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<InventoryAssignmentEntry>> employeeHistory(@PathVariable Long employeeId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer limit) {
+        try {
+            return inventoryService.employeeHistory(employeeId, cursor, CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Asset history of the authenticated employee.
+     */
+    @GetMapping("/employee/inventory/history")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<InventoryAssignmentEntry>> myHistory(@AuthenticationPrincipal AuthenticatedUser me,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return inventoryService.employeeHistory(me.requireEmployeeId(), cursor, CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -1,22 +1,32 @@
 package com.smarthireflow.hrbackend.controller;
 
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.LeaveBulkDecision;
+import com.smarthireflow.hrbackend.dto.LeaveBalanceView;
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.dto.LeaveDecisionResult;
+import com.smarthireflow.hrbackend.dto.LeaveLedgerEntry;
+import com.smarthireflow.hrbackend.dto.LeaveRequestView;
 import com.smarthireflow.hrbackend.model.LeaveRequest;
 import com.smarthireflow.hrbackend.model.LeaveStatus;
 import com.smarthireflow.hrbackend.model.LeaveType;
+import com.smarthireflow.hrbackend.security.AuthenticatedUser;
+import com.smarthireflow.hrbackend.service.LeaveCalendarIndex;
+import com.smarthireflow.hrbackend.service.LeaveLedgerService;
+import com.smarthireflow.hrbackend.service.LeavePendingCounts;
 import com.smarthireflow.hrbackend.service.LeaveService;
-import com.smarthireflow.hrbackend.user.service.UserService;
-import com.smarthireflow.hrbackend.user.entity.UserEntity;
-import com.smarthireflow.hrbackend.model.Employee;
-import com.smarthireflow.hrbackend.repository.EmployeeRepository;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing leave requests.  Employees can
@@ -28,13 +38,19 @@ import java.util.List;
 public class LeaveController {
 
     private final LeaveService leaveService;
-    private final UserService userService;
-    private final EmployeeRepository employeeRepository;
+    private final LeaveCalendarIndex leaveCalendar;
+    private final LeaveLedgerService ledgerService;
+    private final LeavePendingCounts pendingCounts;
+    private final int maxBulkIds;
 
-    public LeaveController(LeaveService leaveService, UserService userService, EmployeeRepository employeeRepository) {
+    public LeaveController(LeaveService leaveService, LeaveCalendarIndex leaveCalendar, LeaveLedgerService ledgerService,
+                           LeavePendingCounts pendingCounts,
+                           @Value("${leave.bulk.max-ids:500}") int maxBulkIds) {
         this.leaveService = leaveService;
-        this.userService = userService;
-        this.employeeRepository = employeeRepository;
+        this.leaveCalendar = leaveCalendar;
+        this.ledgerService = ledgerService;
+        this.pendingCounts = pendingCounts;
+        this.maxBulkIds = maxBulkIds;
     }
 
     /**
@@ -44,26 +60,27 @@ public class LeaveController {
      * start and end dates should be provided in ISO format (yyyy-MM-dd).
      */
     /**
-     * Submit a new leave request.  This endpoint derives the current
-     * employee from the authenticated user's email rather than requiring
-     * the employeeId in the request.  The start and end dates should be
-     * provided in ISO format (yyyy-MM-dd).
+     * Submit a new leave request.  This endpoint takes the current
+     * employee from the resolved principal rather than requiring the
+     * employeeId in the request.  The start and end dates should be
+     * provided in ISO format (yyyy-MM-dd).  Responds 409 if the range
+     * overlaps one of the employee's pending or approved requests.
      */
     @PostMapping("/employee/leaves")
     @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<LeaveRequest> createLeave(Authentication auth,
+    public ResponseEntity<LeaveRequest> createLeave(@AuthenticationPrincipal AuthenticatedUser me,
                                                     @RequestParam LeaveType type,
                                                     @RequestParam LocalDate startDate,
                                                     @RequestParam LocalDate endDate,
                                                     @RequestParam(required = false) String reason) {
-        // Resolve the current user from authentication
-        UserEntity user = userService.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        // Look up the Employee record by email
-        Employee employee = employeeRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-        LeaveRequest req = leaveService.createLeaveRequest(employee.getId(), type, startDate, endDate, reason);
-        return ResponseEntity.ok(req);
+        try {
+            LeaveRequest req = leaveService.createLeaveRequest(me.requireEmployeeId(), type, startDate, endDate, reason);
+            return ResponseEntity.ok(req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     /**
@@ -81,31 +98,139 @@ public class LeaveController {
      */
     @GetMapping("/employee/leaves")
     @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<List<LeaveRequest>> getMyLeaves(Authentication auth) {
-        UserEntity user = userService.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        Employee employee = employeeRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-        return ResponseEntity.ok(leaveService.findByEmployee(employee.getId()));
+    public ResponseEntity<List<LeaveRequest>> getMyLeaves(@AuthenticationPrincipal AuthenticatedUser me) {
+        return ResponseEntity.ok(leaveService.findByEmployee(me.requireEmployeeId()));
+    }
+
+    /**
+     * Current leave balances of the authenticated employee, one entry per
+     * leave type.
+     */
+    @GetMapping("/employee/leaves/balance")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public List<LeaveBalanceView> getMyBalances(@AuthenticationPrincipal AuthenticatedUser me) {
+        return ledgerService.balances(me.requireEmployeeId());
+    }
+
+    /**
+     * Ledger entries behind the authenticated employee's balances, newest
+     * first, optionally for one leave type.  Paginated with the
+     * {@code X-Next-Cursor} header like the attendance history.
+     */
+    @GetMapping("/employee/leaves/ledger")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<LeaveLedgerEntry>> getMyLedger(@AuthenticationPrincipal AuthenticatedUser me,
+                                                              @RequestParam(required = false) LeaveType type,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        return ledgerService.entries(me.requireEmployeeId(), type, cursor, CursorPage.clampLimit(limit)).toResponse();
+    }
+
+    /**
+     * Leave balances of any employee.
+     */
+    @GetMapping("/admin/leaves/balance/{employeeId}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<LeaveBalanceView> getBalances(@PathVariable Long employeeId) {
+        return ledgerService.balances(employeeId);
+    }
+
+    /**
+     * Ledger entries of any employee; same parameters as
+     * {@link #getMyLedger}.
+     */
+    @GetMapping("/admin/leaves/ledger/{employeeId}")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public ResponseEntity<List<LeaveLedgerEntry>> getLedger(@PathVariable Long employeeId,
+                                                            @RequestParam(required = false) LeaveType type,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        return ledgerService.entries(employeeId, type, cursor, CursorPage.clampLimit(limit)).toResponse();
+    }
+
+    /**
+     * Post a manual balance adjustment; {@code days} may be negative.
+     * Returns the resulting balance.
+     */
+    @PostMapping("/admin/leaves/balance/{employeeId}/adjust")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public LeaveBalanceView adjustBalance(@PathVariable Long employeeId,
+                                          @RequestParam LeaveType type,
+                                          @RequestParam BigDecimal days,
+                                          @RequestParam(required = false) String note) {
+        try {
+            return ledgerService.adjust(employeeId, type, days, note);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     /**
-     * Managers and system engineers can view all leave requests.
+     * Managers and system engineers can list leave requests, newest start
+     * date first.  Optional filters: status, type, from/to (requests
+     * overlapping that range) and department.  Paginated with the
+     * {@code X-Next-Cursor} header; the default page size is 100.
      */
     @GetMapping("/admin/leaves")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
-    public ResponseEntity<List<LeaveRequest>> getAllLeaves() {
-        return ResponseEntity.ok(leaveService.findAll());
+    public ResponseEntity<List<LeaveRequestView>> getAllLeaves(@RequestParam(required = false) LeaveStatus status,
+                                                               @RequestParam(required = false) LeaveType type,
+                                                               @RequestParam(required = false) LocalDate from,
+                                                               @RequestParam(required = false) LocalDate to,
+                                                               @RequestParam(required = false) String department,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        try {
+            return leaveService.list(status, type, from, to, department, cursor, CursorPage.clampLimit(limit)).toResponse();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Number of pending leave requests, per department or for one
+     * department, from a short-lived cache.
+     */
+    @GetMapping("/admin/leaves/pending-count")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public Map<String, Long> pendingCount(@RequestParam(required = false) String department) {
+        if (department != null) return Map.of(department, pendingCounts.forDepartment(department));
+        return pendingCounts.byDepartment();
+    }
+
+    /**
+     * Who is off during [from, to], answered from the in-memory leave
+     * calendar.  Approved leave only unless includePending is set.
+     */
+    @GetMapping("/admin/leaves/off")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<LeaveCalendarEntry> whoIsOff(@RequestParam LocalDate from,
+                                             @RequestParam LocalDate to,
+                                             @RequestParam(required = false) String department,
+                                             @RequestParam(defaultValue = "false") boolean includePending) {
+        try {
+            return leaveCalendar.whoIsOff(from, to, department, includePending);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     /**
      * Approve a leave request.  Only managers or system engineers
-     * should be allowed to invoke this.
+     * should be allowed to invoke this.  Approving a previously
+     * rejected request that now overlaps another responds 409; a request
+     * without a leave type responds 400.
      */
     @PatchMapping("/admin/leaves/{id}/approve")
     @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
     public ResponseEntity<LeaveRequest> approve(@PathVariable Long id) {
-        return ResponseEntity.ok(leaveService.approveRequest(id));
+        try {
+            return ResponseEntity.ok(leaveService.approveRequest(id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     /**
@@ -116,4 +241,27 @@ public class LeaveController {
     public ResponseEntity<LeaveRequest> reject(@PathVariable Long id) {
         return ResponseEntity.ok(leaveService.rejectRequest(id));
     }
-}
\ No newline at end of file
+
+    /**
+     * Approve or reject many pending requests in one transaction.  The
+     * body names the target status, the ids and optionally the version
+     * of each request as last seen by the caller; the response lists an
+     * outcome per id (see {@link com.smarthireflow.hrbackend.model.LeaveDecisionOutcome}).
+     */
+    @PatchMapping("/admin/leaves/bulk")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public List<LeaveDecisionResult> decideBulk(@RequestBody LeaveBulkDecision decision) {
+        if (decision.ids() == null || decision.ids().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not be empty");
+        }
+        if (decision.ids().size() > maxBulkIds) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxBulkIds + " requests per bulk decision");
+        }
+        try {
+            return leaveService.decideAll(decision.ids(), decision.versions(), decision.status());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
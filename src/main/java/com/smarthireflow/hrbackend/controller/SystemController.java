@@ -1,14 +1,161 @@
 package com.smarthireflow.hrbackend.controller;
 
+import com.smarthireflow.hrbackend.security.VerifiedTokenCache;
+import com.smarthireflow.hrbackend.service.AttendancePartitionMaintenance;
+import com.smarthireflow.hrbackend.service.AttendanceRollupService;
+import com.smarthireflow.hrbackend.service.AutoClockOutService;
+import com.smarthireflow.hrbackend.service.AvatarMigrationJob;
+import com.smarthireflow.hrbackend.service.ClockEventBuffer;
+import com.smarthireflow.hrbackend.service.LeaveLedgerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/system")
 public class SystemController {
+
+    private final VerifiedTokenCache tokenCache;
+    private final ClockEventBuffer clockEventBuffer;
+    private final AttendanceRollupService rollupService;
+    private final AttendancePartitionMaintenance partitionMaintenance;
+    private final AutoClockOutService autoClockOut;
+    private final LeaveLedgerService leaveLedger;
+    private final AvatarMigrationJob avatarMigration;
+
+    public SystemController(VerifiedTokenCache tokenCache, ClockEventBuffer clockEventBuffer,
+                            AttendanceRollupService rollupService,
+                            AttendancePartitionMaintenance partitionMaintenance,
+                            AutoClockOutService autoClockOut,
+                            LeaveLedgerService leaveLedger,
+                            AvatarMigrationJob avatarMigration) {
+        this.tokenCache = tokenCache;
+        this.clockEventBuffer = clockEventBuffer;
+        this.rollupService = rollupService;
+        this.partitionMaintenance = partitionMaintenance;
+        this.autoClockOut = autoClockOut;
+        this.leaveLedger = leaveLedger;
+        this.avatarMigration = avatarMigration;
+    }
+
     @GetMapping("/status")
     @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
     public String status() {
         return "Access granted: System Engineer (Super Admin) can view system metrics.";
     }
+
+    /**
+     * Hit/miss counters for the verified-token cache used by the JWT
+     * request filter.
+     */
+    @GetMapping("/metrics/token-cache")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public VerifiedTokenCache.Stats tokenCache() {
+        return tokenCache.stats();
+    }
+
+    /**
+     * Queue depth, rejections and flush latency of the buffered clock
+     * event ingestion path.
+     */
+    @GetMapping("/metrics/clock-buffer")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public ClockEventBuffer.Stats clockBuffer() {
+        return clockEventBuffer.stats();
+    }
+
+    /**
+     * Recompute the monthly attendance rollup from raw records.  Runs
+     * synchronously and returns the number of rollup rows written; 409
+     * if a rebuild is already in progress.
+     */
+    @PostMapping("/attendance/rollup/rebuild")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public Map<String, Integer> rebuildAttendanceRollup() {
+        try {
+            return Map.of("rows", rollupService.rebuild());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Run attendance partition maintenance now: create upcoming monthly
+     * partitions, move default-partition rows into partitions of their
+     * own and archive months past the retention window.
+     */
+    @PostMapping("/attendance/partitions/maintain")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public AttendancePartitionMaintenance.Result maintainAttendancePartitions() {
+        return partitionMaintenance.maintain();
+    }
+
+    /**
+     * Close stale IN_PROGRESS attendance records from previous days now
+     * and report how many were closed.
+     */
+    @PostMapping("/attendance/auto-clock-out")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public AutoClockOutService.Result runAutoClockOut() {
+        return autoClockOut.run();
+    }
+
+    /**
+     * Outcome of the last auto clock-out run on this instance, or 204 if
+     * it has not run since startup.
+     */
+    @GetMapping("/attendance/auto-clock-out")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public ResponseEntity<AutoClockOutService.Result> lastAutoClockOut() {
+        AutoClockOutService.Result last = autoClockOut.lastRun();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Run the monthly leave accrual now for {@code month} (YYYY-MM,
+     * default the current month).  Employees already credited for the
+     * month are skipped, so repeating a run is safe.
+     */
+    @PostMapping("/leaves/accrual")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public LeaveLedgerService.AccrualResult runLeaveAccrual(@RequestParam(required = false) YearMonth month) {
+        return leaveLedger.accrue(month != null ? month : YearMonth.now());
+    }
+
+    /**
+     * Outcome of the last leave accrual on this instance, or 204 if it
+     * has not run since startup.
+     */
+    @GetMapping("/leaves/accrual")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public ResponseEntity<LeaveLedgerService.AccrualResult> lastLeaveAccrual() {
+        LeaveLedgerService.AccrualResult last = leaveLedger.lastAccrual();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Move avatars still stored in the users table to the file store and
+     * remove orphaned images now.
+     */
+    @PostMapping("/avatars/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public AvatarMigrationJob.Result runAvatarMigration() {
+        return avatarMigration.run();
+    }
+
+    /**
+     * Outcome of the last avatar migration on this instance, or 204 if it
+     * has not run since startup.
+     */
+    @GetMapping("/avatars/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ENGINEER')")
+    public ResponseEntity<AvatarMigrationJob.Result> lastAvatarMigration() {
+        AvatarMigrationJob.Result last = avatarMigration.lastRun();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,41 @@
+package com.smarthireflow.hrbackend.controller;
+
+import com.smarthireflow.hrbackend.dto.TeamCalendar;
+import com.smarthireflow.hrbackend.service.TeamCalendarService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * Team availability calendar for managers and system engineers.
+ */
+@RestController
+@RequestMapping("/admin/calendar")
+public class TeamCalendarController {
+
+    private final TeamCalendarService calendarService;
+
+    public TeamCalendarController(TeamCalendarService calendarService) {
+        this.calendarService = calendarService;
+    }
+
+    /**
+     * Leave, attendance and availability of every member of a department
+     * for {@code days} days (default 90) from {@code from} (default
+     * today).  See {@link TeamCalendar} for how the day grid is encoded.
+     */
+    @GetMapping("/team")
+    @PreAuthorize("hasAnyRole('MANAGER','SYSTEM_ENGINEER')")
+    public TeamCalendar team(@RequestParam String department,
+                             @RequestParam(required = false) LocalDate from,
+                             @RequestParam(defaultValue = "90") int days) {
+        try {
+            return calendarService.calendar(department, from != null ? from : LocalDate.now(), days);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.smarthireflow.hrbackend.dto;
+
+import java.time.YearMonth;
+
+/**
+ * Attendance totals for one employee and month, read from the
+ * attendance_monthly_rollup table.  Only completed days are counted.
+ * {@code workingDays} is the number of scheduled working days in the
+ * month for the employee's holiday region.
+ */
+public record AttendanceMonthSummary(
+        Long employeeId,
+        YearMonth month,
+        long workedMinutes,
+        int daysPresent,
+        int lateArrivals,
+        int workingDays) {
+
+    public AttendanceMonthSummary withWorkingDays(int workingDays) {
+        return new AttendanceMonthSummary(employeeId, month, workedMinutes, daysPresent, lateArrivals, workingDays);
+    }
+}
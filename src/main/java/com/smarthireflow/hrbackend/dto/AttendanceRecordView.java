@@ -0,0 +1,24 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.AttendanceStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read model of an attendance record.  Unlike the
+ * {@link com.smarthireflow.hrbackend.model.AttendanceRecord} entity it
+ * carries only the employee id, so it can be produced straight from a
+ * SQL row without loading the associated Employee.  {@code autoClosed}
+ * is true when the record was completed by the auto clock-out job
+ * rather than by the employee.
+ */
+public record AttendanceRecordView(
+        Long id,
+        Long employeeId,
+        LocalDate date,
+        LocalDateTime clockInTime,
+        LocalDateTime clockOutTime,
+        AttendanceStatus status,
+        boolean autoClosed) {
+}
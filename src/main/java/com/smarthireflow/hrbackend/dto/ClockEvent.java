@@ -0,0 +1,12 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.ClockEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A clock-in or clock-out for an employee at a point in time.  The
+ * attendance day is the date of {@code at}.
+ */
+public record ClockEvent(Long employeeId, ClockEventType type, LocalDateTime at) {
+}
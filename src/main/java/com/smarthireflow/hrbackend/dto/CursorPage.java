@@ -0,0 +1,41 @@
+package com.smarthireflow.hrbackend.dto;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.  {@code nextCursor} is null on
+ * the last page.  Endpoints return the items as the JSON body and the
+ * cursor in the {@value #NEXT_CURSOR_HEADER} header, so existing clients
+ * that expect a plain array keep working.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Build a page from rows fetched with {@code limit + 1}: the extra row
+     * only signals that another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (nextCursor != null) ok.header(NEXT_CURSOR_HEADER, nextCursor);
+        return ok.body(items);
+    }
+}
@@ -0,0 +1,22 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Headline numbers for the admin dashboard.  {@code presentNow} counts
+ * employees currently clocked in, {@code clockedInToday} everyone who
+ * clocked in at some point on {@code date}.  Department maps use "" for
+ * employees without a department.
+ */
+public record DashboardSummary(LocalDate date,
+                               long headcount,
+                               Map<String, Long> headcountByDepartment,
+                               int presentNow,
+                               long clockedInToday,
+                               int onLeaveToday,
+                               long pendingLeaves,
+                               Map<String, Long> pendingLeavesByDepartment,
+                               Map<InventoryStatus, Long> inventoryByStatus) {}
@@ -0,0 +1,29 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.ExportFormat;
+import com.smarthireflow.hrbackend.model.ExportJobStatus;
+
+import java.time.Instant;
+
+/**
+ * State of an export job.  {@code rowsEstimated} comes from planner
+ * statistics, so {@code percent} is approximate and only reaches 100
+ * when the job completes.  {@code downloadUrl} is set once the file is
+ * ready; it needs no Authorization header and stops working at
+ * {@code expiresAt}.
+ */
+public record ExportJobView(String id,
+                            ExportFormat format,
+                            ExportJobStatus status,
+                            String requestedBy,
+                            String currentTable,
+                            long rowsWritten,
+                            long rowsEstimated,
+                            int percent,
+                            Long sizeBytes,
+                            String downloadUrl,
+                            Instant expiresAt,
+                            String error,
+                            Instant createdAt,
+                            Instant startedAt,
+                            Instant finishedAt) {}
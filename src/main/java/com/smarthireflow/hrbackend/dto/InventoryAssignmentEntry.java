@@ -0,0 +1,20 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.InventoryAssignmentEventType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One custody event of an inventory item.  The item, or the employee,
+ * is null if its record has since been deleted; {@code recordedBy} is
+ * the user who made the change, when known.
+ */
+public record InventoryAssignmentEntry(Long id,
+                                       Long itemId,
+                                       String itemName,
+                                       String serialNumber,
+                                       Long employeeId,
+                                       String employeeName,
+                                       InventoryAssignmentEventType eventType,
+                                       Long recordedBy,
+                                       OffsetDateTime occurredAt) {}
@@ -0,0 +1,23 @@
+package com.smarthireflow.hrbackend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an inventory CSV import.  {@code rows} counts data rows
+ * read; each is either inserted, updated or failed.  Only the first
+ * errors are listed ({@code errorsTruncated} is set when more were
+ * dropped).  Rows of batches saved before a failure stay saved.
+ */
+public record InventoryImportResult(long rows,
+                                    long inserted,
+                                    long updated,
+                                    long failed,
+                                    List<RowError> errors,
+                                    boolean errorsTruncated) {
+
+    /**
+     * Why one row was rejected.  {@code line} is the CSV line the row
+     * starts on, counting the header as line 1.
+     */
+    public record RowError(long line, String serialNumber, String message) {}
+}
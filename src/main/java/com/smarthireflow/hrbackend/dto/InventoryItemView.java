@@ -0,0 +1,23 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.InventoryCondition;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Flat read model of an inventory item: the assignee is reduced to id
+ * and name instead of the whole Employee entity.
+ */
+public record InventoryItemView(Long id,
+                                String itemName,
+                                String category,
+                                String serialNumber,
+                                InventoryStatus status,
+                                InventoryCondition condition,
+                                Long assignedToId,
+                                String assignedToName,
+                                LocalDate assignedDate,
+                                LocalDate returnDate,
+                                LocalDate purchaseDate,
+                                String notes) {}
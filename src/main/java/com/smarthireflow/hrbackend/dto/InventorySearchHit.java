@@ -0,0 +1,20 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.InventoryCondition;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+
+/**
+ * One inventory search result.  {@code score} orders the results: exact
+ * serial matches first, then prefix over substring matches on name,
+ * serial and category, plus the full-text rank of the notes.
+ */
+public record InventorySearchHit(Long id,
+                                 String itemName,
+                                 String category,
+                                 String serialNumber,
+                                 InventoryStatus status,
+                                 InventoryCondition condition,
+                                 Long assignedToId,
+                                 String assignedToName,
+                                 String notes,
+                                 double score) {}
@@ -0,0 +1,12 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.ClockEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A clock event buffered by a kiosk while offline.  {@code clientEventId}
+ * is chosen by the kiosk and must be unique across all its uploads;
+ * {@code at} is the local time the employee tapped.
+ */
+public record KioskClockEvent(String clientEventId, Long employeeId, ClockEventType type, LocalDateTime at) {}
@@ -0,0 +1,17 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveType;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Current balance of one leave type for an employee, with the totals
+ * accrued and used that make it up (adjustments account for the rest).
+ */
+public record LeaveBalanceView(Long employeeId,
+                               LeaveType type,
+                               BigDecimal balance,
+                               BigDecimal accrued,
+                               BigDecimal used,
+                               OffsetDateTime updatedAt) {}
@@ -0,0 +1,14 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of a bulk approve/reject: the target status (APPROVED or
+ * REJECTED), the request ids and, optionally, the version each request
+ * had when the caller read it.  Ids without a version are decided
+ * whatever their version, as long as they are still pending.
+ */
+public record LeaveBulkDecision(LeaveStatus status, List<Long> ids, Map<Long, Long> versions) {}
@@ -0,0 +1,19 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.model.LeaveType;
+
+import java.time.LocalDate;
+
+/**
+ * A leave request as seen by the leave calendar: who is off, from
+ * which department, and over which inclusive date range.
+ */
+public record LeaveCalendarEntry(Long requestId,
+                                 Long employeeId,
+                                 String employeeName,
+                                 String department,
+                                 LeaveType type,
+                                 LeaveStatus status,
+                                 LocalDate startDate,
+                                 LocalDate endDate) {}
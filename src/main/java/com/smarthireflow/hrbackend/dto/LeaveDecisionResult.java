@@ -0,0 +1,11 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveDecisionOutcome;
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+
+/**
+ * Per-id outcome of a bulk approve/reject, in the order the ids were
+ * sent.  {@code status} and {@code version} are the request's current
+ * values (after the update when it was UPDATED), null if not found.
+ */
+public record LeaveDecisionResult(Long id, LeaveDecisionOutcome outcome, LeaveStatus status, Long version) {}
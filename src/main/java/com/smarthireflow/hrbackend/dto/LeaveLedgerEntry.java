@@ -0,0 +1,22 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveLedgerEntryType;
+import com.smarthireflow.hrbackend.model.LeaveType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * One row of the leave ledger.  {@code days} is signed; the request id
+ * is set for debits and reversals, the period for accruals.
+ */
+public record LeaveLedgerEntry(Long id,
+                               Long employeeId,
+                               LeaveType type,
+                               LeaveLedgerEntryType entryType,
+                               BigDecimal days,
+                               Long leaveRequestId,
+                               LocalDate accrualPeriod,
+                               String note,
+                               OffsetDateTime createdAt) {}
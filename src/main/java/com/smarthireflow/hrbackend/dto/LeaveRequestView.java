@@ -0,0 +1,23 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.model.LeaveType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a leave request for listings: the employee is
+ * reduced to id, name and department instead of the whole entity.
+ */
+public record LeaveRequestView(Long id,
+                               Long employeeId,
+                               String employeeName,
+                               String department,
+                               LeaveType type,
+                               LeaveStatus status,
+                               LocalDate startDate,
+                               LocalDate endDate,
+                               String reason,
+                               LocalDateTime createdAt,
+                               Long version) {}
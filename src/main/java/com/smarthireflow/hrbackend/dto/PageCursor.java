@@ -0,0 +1,35 @@
+package com.smarthireflow.hrbackend.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort key and id of the last row
+ * of a page.  Encoded as URL-safe base64 so clients treat it as a token
+ * rather than something to construct.
+ */
+public record PageCursor(String key, long id) {
+
+    public String encode() {
+        byte[] raw = (key + "|" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.  Returns
+     * null for a missing cursor and rejects malformed ones with 400.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new PageCursor(raw.substring(0, sep), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.smarthireflow.hrbackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One employee's presence: in snapshots every entry is present, in the
+ * SSE feed each entry is a change.  {@code clockInTime} is set while
+ * the employee is present.
+ */
+public record PresenceEntry(Long employeeId, boolean present, LocalDateTime clockInTime) {}
@@ -0,0 +1,7 @@
+package com.smarthireflow.hrbackend.dto;
+
+/**
+ * Result for one scanned serial in a batch lookup, in the order the
+ * serials were sent; {@code item} is null when no item has the serial.
+ */
+public record SerialLookupResult(String serial, InventoryItemView item) {}
@@ -0,0 +1,27 @@
+package com.smarthireflow.hrbackend.dto;
+
+import com.smarthireflow.hrbackend.model.SyncEventStatus;
+
+/**
+ * Per-event outcome of a kiosk sync, in the order the events were sent.
+ * {@code recordId} is the attendance record the event was applied to,
+ * if any; {@code message} explains rejections.  A DUPLICATE repeats the
+ * outcome of the first time the event was received, with that outcome's
+ * status as {@code originalStatus}; it is null for other results.
+ */
+public record SyncEventResult(String clientEventId, SyncEventStatus status, Long recordId, String message,
+                              SyncEventStatus originalStatus) {
+
+    public SyncEventResult(String clientEventId, SyncEventStatus status, Long recordId, String message) {
+        this(clientEventId, status, recordId, message, null);
+    }
+
+    /**
+     * The answer for a repeat of an event whose first outcome was
+     * {@code original}.
+     */
+    public static SyncEventResult duplicateOf(String clientEventId, SyncEventResult original) {
+        return new SyncEventResult(clientEventId, SyncEventStatus.DUPLICATE, original.recordId(), original.message(),
+                original.status());
+    }
+}
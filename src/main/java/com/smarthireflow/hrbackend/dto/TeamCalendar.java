@@ -0,0 +1,23 @@
+package com.smarthireflow.hrbackend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Day grid of a department over {@code days} days starting at
+ * {@code from}.  Each row carries one bitset per kind of day, encoded
+ * as unpadded URL-safe base64 of the little-endian bit array: bit i
+ * (byte i / 8, bit i % 8) is day {@code from + i}.
+ *
+ * <ul>
+ *   <li>{@code leave}: approved leave</li>
+ *   <li>{@code pendingLeave}: leave awaiting a decision</li>
+ *   <li>{@code present}: an attendance record exists for the day</li>
+ *   <li>{@code available}: a working day (weekdays minus the employee's
+ *   regional holidays) without approved leave</li>
+ * </ul>
+ */
+public record TeamCalendar(String department, LocalDate from, int days, List<Row> rows) {
+
+    public record Row(Long employeeId, String name, String leave, String pendingLeave, String present, String available) {}
+}
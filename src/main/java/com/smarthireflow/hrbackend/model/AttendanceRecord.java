@@ -13,10 +13,15 @@ import lombok.Setter;
  * the record is still in progress or completed.  The association
  * with Employee allows queries such as "all attendance records
  * for a given employee" and leverages the relationship when
- * generating reports.
+ * generating reports.  There is at most one record per employee
+ * and day.
+ *
+ * <p>The table is range-partitioned by month of {@code date}, so
+ * queries that bound the date only touch the matching partitions.
  */
 @Entity
-@Table(name = "attendance_records")
+@Table(name = "attendance_records",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "date"}))
 public class AttendanceRecord {
 
     @Id
@@ -26,6 +31,7 @@ public class AttendanceRecord {
     @ManyToOne(optional = false)
     private Employee employee;
 
+    @Column(nullable = false)
     private LocalDate date;
 
     private LocalDateTime clockInTime;
@@ -35,6 +41,13 @@ public class AttendanceRecord {
     @Enumerated(EnumType.STRING)
     private AttendanceStatus status;
 
+    /**
+     * Set when the record was completed by the auto clock-out job
+     * because the employee never clocked out.
+     */
+    @Column(nullable = false)
+    private boolean autoClosed;
+
     public AttendanceRecord() {
     }
 
@@ -88,4 +101,12 @@ public class AttendanceRecord {
     public void setStatus(AttendanceStatus status) {
         this.status = status;
     }
-}
\ No newline at end of file
+
+    public boolean isAutoClosed() {
+        return autoClosed;
+    }
+
+    public void setAutoClosed(boolean autoClosed) {
+        this.autoClosed = autoClosed;
+    }
+}
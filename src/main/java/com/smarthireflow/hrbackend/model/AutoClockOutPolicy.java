@@ -0,0 +1,12 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * How the auto clock-out job picks the clock-out time of a record the
+ * employee never closed: SHIFT_END uses the configured shift end on the
+ * record's day, FIXED_DURATION the clock-in time plus a maximum shift
+ * length.
+ */
+public enum AutoClockOutPolicy {
+    SHIFT_END,
+    FIXED_DURATION
+}
@@ -0,0 +1,10 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Kind of clock event recorded against an attendance record: IN
+ * opens the day's record and OUT completes it.
+ */
+public enum ClockEventType {
+    IN,
+    OUT
+}
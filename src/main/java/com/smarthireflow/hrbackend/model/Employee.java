@@ -33,6 +33,12 @@ public class Employee {
      */
     private String department;
 
+    /**
+     * Holiday region the employee follows for working-day counts; null
+     * means the configured default region.
+     */
+    private String region;
+
     @Enumerated(EnumType.STRING)
     private Role role;
 
@@ -78,6 +84,14 @@ public class Employee {
         this.department = department;
     }
 
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
     public Role getRole() {
         return role;
     }
@@ -0,0 +1,28 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * File formats of org-wide exports.  JSON is one document with an array
+ * per table, NDJSON one line per row tagged with its table, and CSV a
+ * zip archive holding one CSV file per table.
+ */
+public enum ExportFormat {
+    JSON("json", "application/json"),
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("zip", "application/zip");
+
+    private final String fileExtension;
+    private final String contentType;
+
+    ExportFormat(String fileExtension, String contentType) {
+        this.fileExtension = fileExtension;
+        this.contentType = contentType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,17 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Lifecycle of an export job.  QUEUED jobs wait for a free export
+ * worker; COMPLETED, FAILED and CANCELLED are final.
+ */
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
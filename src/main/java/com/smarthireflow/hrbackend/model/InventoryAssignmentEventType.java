@@ -0,0 +1,12 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Kinds of inventory custody events.  ASSIGNED is written when an item
+ * is handed to an employee and RETURNED when that employee gives it
+ * back, including implicitly when the item is reassigned to someone
+ * else.
+ */
+public enum InventoryAssignmentEventType {
+    ASSIGNED,
+    RETURNED
+}
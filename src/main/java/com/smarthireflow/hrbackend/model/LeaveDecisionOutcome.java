@@ -0,0 +1,16 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Outcome for one request in a bulk approve/reject.  Only PENDING
+ * requests are decided: NOT_PENDING means someone else already decided
+ * it, VERSION_CONFLICT that it changed since the caller read it, and
+ * MISSING_TYPE that it has no leave type to debit and cannot be
+ * approved until one is set.
+ */
+public enum LeaveDecisionOutcome {
+    UPDATED,
+    NOT_FOUND,
+    NOT_PENDING,
+    VERSION_CONFLICT,
+    MISSING_TYPE
+}
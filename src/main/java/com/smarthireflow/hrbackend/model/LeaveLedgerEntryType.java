@@ -0,0 +1,14 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Kinds of leave ledger entries.  ACCRUAL is the periodic grant,
+ * DEBIT is taken when a request is approved and REVERSAL gives it back
+ * if the request is later rejected.  ADJUSTMENT is a manual correction
+ * by a manager.
+ */
+public enum LeaveLedgerEntryType {
+    ACCRUAL,
+    DEBIT,
+    REVERSAL,
+    ADJUSTMENT
+}
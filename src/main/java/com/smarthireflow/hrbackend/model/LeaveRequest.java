@@ -11,9 +11,10 @@ import lombok.Setter;
  * It captures the requesting employee, the type and status of the
  * leave, the start and end dates, an optional reason, and the
  * timestamp of when the request was created.  The status field
- * allows managers to approve or reject requests.  Additional
- * auditing fields (approvedBy, approvedAt, etc.) could be added
- * later if required.
+ * allows managers to approve or reject requests; the version is
+ * bumped on every change so stale decisions can be detected.
+ * Additional auditing fields (approvedBy, approvedAt, etc.) could be
+ * added later if required.
  */
 @Entity
 @Table(name = "leave_requests")
@@ -41,6 +42,9 @@ public class LeaveRequest {
 
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     public LeaveRequest() {
     }
 
@@ -113,4 +117,8 @@ public class LeaveRequest {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,13 @@
+package com.smarthireflow.hrbackend.model;
+
+/**
+ * Outcome of one uploaded kiosk clock event: ACCEPTED events were
+ * reconciled into the day's attendance record, DUPLICATE events had
+ * already been received (in this or an earlier upload) and REJECTED
+ * events were invalid or contradicted the record.
+ */
+public enum SyncEventStatus {
+    ACCEPTED,
+    DUPLICATE,
+    REJECTED
+}
@@ -0,0 +1,96 @@
+package com.smarthireflow.hrbackend.repository;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Session-level Postgres advisory locks for jobs that must run on one
+ * application instance at a time but span several transactions.  The
+ * lock lives on a connection of its own, held until the returned
+ * {@link Lock} is closed; if the instance dies the database releases it
+ * with the session.
+ */
+@Component
+public class AdvisoryLocks {
+
+    private final DataSource dataSource;
+
+    public AdvisoryLocks(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Try to take the lock identified by (lockClass, key) without
+     * waiting.  Returns empty if another session holds it.
+     */
+    public Optional<Lock> tryAcquire(int lockClass, int key) {
+        Connection connection = null;
+        try {
+            // deliberately not the transaction-bound connection: the lock
+            // must outlive the transactions run while it is held
+            connection = dataSource.getConnection();
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                ps.setInt(1, lockClass);
+                ps.setInt(2, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        return Optional.of(new Lock(connection, lockClass, key));
+                    }
+                }
+            }
+            connection.close();
+            return Optional.empty();
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new IllegalStateException("Could not acquire advisory lock", e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already failing; the original exception is more useful
+        }
+    }
+
+    public final class Lock implements AutoCloseable {
+
+        private final Connection connection;
+        private final int lockClass;
+        private final int key;
+
+        private Lock(Connection connection, int lockClass, int key) {
+            this.connection = connection;
+            this.lockClass = lockClass;
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+                ps.setInt(1, lockClass);
+                ps.setInt(2, key);
+                ps.execute();
+            } catch (SQLException e) {
+                // a pooled connection must not go back still holding the
+                // lock, so drop the physical connection instead
+                try {
+                    connection.abort(Runnable::run);
+                } catch (SQLException ignored) {
+                    // closing below releases what it can
+                }
+                throw new IllegalStateException("Could not release advisory lock", e);
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
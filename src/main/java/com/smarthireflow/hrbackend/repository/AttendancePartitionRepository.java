@@ -0,0 +1,110 @@
+package com.smarthireflow.hrbackend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partition maintenance for attendance_records, which is range
+ * partitioned by month of {@code date} with one partition per month
+ * named {@code attendance_records_YYYY_MM} (see changeset 0011).
+ */
+@Repository
+public class AttendancePartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("attendance_records_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int LOCK_CLASS = 0x50415254;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AttendancePartitionRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Create any missing monthly partitions from {@code from} to
+     * {@code to} inclusive.  Returns the number created.
+     */
+    public int ensurePartitions(LocalDate from, LocalDate to) {
+        Integer created = jdbc.queryForObject("SELECT attendance_ensure_partitions(:from, :to)",
+                new MapSqlParameterSource().addValue("from", from).addValue("to", to), Integer.class);
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Give every month with rows in the default partition a partition of
+     * its own; attendance_create_month_partition moves the rows across.
+     * Afterwards those months can be archived like any other.  Returns
+     * the number of partitions created.
+     */
+    public int drainDefaultPartition() {
+        List<LocalDate> months = jdbc.getJdbcTemplate().queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', date) AS date) FROM attendance_records_default ORDER BY 1",
+                LocalDate.class);
+        int created = 0;
+        for (LocalDate month : months) {
+            Boolean done = jdbc.queryForObject("SELECT attendance_create_month_partition(:month)",
+                    new MapSqlParameterSource("month", month), Boolean.class);
+            if (Boolean.TRUE.equals(done)) created++;
+        }
+        return created;
+    }
+
+    /**
+     * Months that currently have an attached partition, oldest first.
+     */
+    public List<YearMonth> attachedMonths() {
+        return jdbc.getJdbcTemplate().queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                                + "WHERE i.inhparent = 'attendance_records'::regclass", String.class)
+                .stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Transaction-scoped lock so that only one instance runs maintenance
+     * at a time.  Returns false if another instance holds it.
+     */
+    public boolean tryMaintenanceLock() {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(:lockClass, 0)",
+                new MapSqlParameterSource("lockClass", LOCK_CLASS), Boolean.class));
+    }
+
+    /**
+     * Detach the month's partition, fold its rows into
+     * attendance_records_archive (one JSONB array per employee, ordered
+     * by date) and drop it.  Must run in a transaction so a failure
+     * leaves the partition attached.  Returns the number of archived
+     * records, or -1 if the month has no attached partition.
+     */
+    public int archiveMonth(YearMonth month) {
+        String partition = "attendance_records_" + month.format(SUFFIX);
+        Boolean attached = jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits "
+                        + "WHERE inhrelid = to_regclass(:partition) AND inhparent = 'attendance_records'::regclass)",
+                new MapSqlParameterSource("partition", partition), Boolean.class);
+        if (!Boolean.TRUE.equals(attached)) return -1;
+
+        jdbc.getJdbcTemplate().execute("ALTER TABLE attendance_records DETACH PARTITION " + partition);
+        Integer records = jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + partition, Integer.class);
+        jdbc.update("INSERT INTO attendance_records_archive AS a (month, employee_id, records) "
+                        + "SELECT :month, employee_id, jsonb_agg(to_jsonb(p) - 'employee_id' ORDER BY date, id) "
+                        + "FROM " + partition + " p GROUP BY employee_id "
+                        + "ON CONFLICT (month, employee_id) DO UPDATE SET records = a.records || EXCLUDED.records, "
+                        + "archived_at = CURRENT_TIMESTAMP",
+                new MapSqlParameterSource("month", month.atDay(1)));
+        jdbc.getJdbcTemplate().execute("DROP TABLE " + partition);
+        return records != null ? records : 0;
+    }
+}
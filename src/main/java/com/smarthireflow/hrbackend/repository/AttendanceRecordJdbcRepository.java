@@ -0,0 +1,329 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.ClockEvent;
+import com.smarthireflow.hrbackend.model.AttendanceStatus;
+import com.smarthireflow.hrbackend.model.ClockEventType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Set-based write path for attendance records.  Clock-in and clock-out
+ * are each a single conditional statement against the unique
+ * (employee_id, date) index, so concurrent taps cannot create duplicate
+ * rows and the Employee entity is never loaded.  Rows are returned as
+ * {@link AttendanceRecordView}s.
+ */
+@Repository
+public class AttendanceRecordJdbcRepository {
+
+    static final String COLUMNS = "id, employee_id, date, clock_in_time, clock_out_time, status, auto_closed";
+
+    static final RowMapper<AttendanceRecordView> VIEW_MAPPER = (rs, rowNum) -> new AttendanceRecordView(
+            rs.getLong("id"),
+            rs.getLong("employee_id"),
+            rs.getObject("date", LocalDate.class),
+            toLocalDateTime(rs.getTimestamp("clock_in_time")),
+            toLocalDateTime(rs.getTimestamp("clock_out_time")),
+            AttendanceStatus.valueOf(rs.getString("status")),
+            rs.getBoolean("auto_closed"));
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AttendanceRecordJdbcRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Insert an IN_PROGRESS record for the employee and day unless one
+     * already exists.  Returns the new row, or empty if the day already
+     * had a record.
+     */
+    public Optional<AttendanceRecordView> insertIfAbsent(Long employeeId, LocalDate date, LocalDateTime clockIn) {
+        String sql = "INSERT INTO attendance_records (employee_id, date, clock_in_time, status) "
+                + "VALUES (:employeeId, :date, :clockIn, 'IN_PROGRESS') "
+                + "ON CONFLICT (employee_id, date) DO NOTHING "
+                + "RETURNING " + COLUMNS;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("date", date)
+                .addValue("clockIn", Timestamp.valueOf(clockIn));
+        return jdbc.query(sql, params, VIEW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Complete the employee's IN_PROGRESS record for the day.  Returns the
+     * updated row, or empty if there was no record still in progress.
+     */
+    public Optional<AttendanceRecordView> completeInProgress(Long employeeId, LocalDate date, LocalDateTime clockOut) {
+        String sql = "UPDATE attendance_records SET clock_out_time = :clockOut, status = 'COMPLETED' "
+                + "WHERE employee_id = :employeeId AND date = :date AND status = 'IN_PROGRESS' "
+                + "RETURNING " + COLUMNS;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("date", date)
+                .addValue("clockOut", Timestamp.valueOf(clockOut));
+        return jdbc.query(sql, params, VIEW_MAPPER).stream().findFirst();
+    }
+
+    public Optional<AttendanceRecordView> find(Long employeeId, LocalDate date) {
+        String sql = "SELECT " + COLUMNS + " FROM attendance_records WHERE employee_id = :employeeId AND date = :date";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("date", date);
+        return jdbc.query(sql, params, VIEW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * All records of the day still in progress, i.e. everyone currently
+     * clocked in.  Served by the partial in-progress index.
+     */
+    public List<AttendanceRecordView> findInProgress(LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM attendance_records WHERE date = :date AND status = 'IN_PROGRESS'",
+                new MapSqlParameterSource("date", date), VIEW_MAPPER);
+    }
+
+    /**
+     * One page of an employee's history, newest first, optionally bounded
+     * to [from, to].  Keyset pagination on (date, id): pass the last row
+     * of the previous page as {@code afterDate}/{@code afterId}.  Reads
+     * attendance_records_all so archived months are included; live rows
+     * are served by a backward scan of the unique (employee_id, date)
+     * index.
+     */
+    public List<AttendanceRecordView> findPage(Long employeeId, LocalDate from, LocalDate to,
+                                               LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM attendance_records_all WHERE employee_id = :employeeId");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("limit", limit);
+        if (from != null) {
+            sql.append(" AND date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND date <= :to");
+            params.addValue("to", to);
+        }
+        if (afterDate != null) {
+            sql.append(" AND (date < :afterDate OR (date = :afterDate AND id < :afterId))");
+            params.addValue("afterDate", afterDate).addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY date DESC, id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params, VIEW_MAPPER);
+    }
+
+    /**
+     * Complete up to {@code limit} records left IN_PROGRESS before
+     * {@code before} and flag them as auto-closed, in one statement.
+     * The clock-out time is the day's shift end (never earlier than the
+     * clock-in) when {@code maxDuration} is null, otherwise clock-in plus
+     * that many minutes.  Rows locked by a concurrent clock-out are
+     * skipped and picked up by a later batch.
+     *
+     * @return the records this call completed
+     */
+    public List<AttendanceRecordView> autoCloseStale(LocalDate before, LocalTime shiftEnd, Integer maxDurationMinutes,
+                                                     int limit) {
+        String clockOut = maxDurationMinutes == null
+                ? "GREATEST(s.date + CAST(:shiftEnd AS time), s.clock_in_time)"
+                : "COALESCE(s.clock_in_time, s.date + CAST(:shiftEnd AS time)) + make_interval(mins => :maxMinutes)";
+        String sql = "UPDATE attendance_records a SET clock_out_time = " + clockOut + ", "
+                + "status = 'COMPLETED', auto_closed = TRUE "
+                + "FROM (SELECT id, date, clock_in_time FROM attendance_records "
+                + "      WHERE status = 'IN_PROGRESS' AND date < :before "
+                + "      ORDER BY date, id LIMIT :limit FOR UPDATE SKIP LOCKED) s "
+                + "WHERE a.id = s.id AND a.date = s.date "
+                + "RETURNING a.id, a.employee_id, a.date, a.clock_in_time, a.clock_out_time, a.status, a.auto_closed";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("before", before)
+                .addValue("shiftEnd", shiftEnd.toString())
+                .addValue("maxMinutes", maxDurationMinutes)
+                .addValue("limit", limit);
+        return jdbc.query(sql, params, VIEW_MAPPER);
+    }
+
+    /**
+     * Apply a batch of clock events with two multi-row statements, with
+     * the same outcome as applying each employee's events for a day one
+     * by one in timestamp order.  A record already in progress before the
+     * batch is closed by the day's first clock-out, and its clock-ins are
+     * no-ops.  A day without a record is opened by its first clock-in
+     * (unknown employees are skipped rather than failing the batch) and
+     * closed by the first clock-out after it; clock-outs queued before
+     * that clock-in are no-ops, so a clock-out never precedes its
+     * clock-in.
+     *
+     * @return the resulting record for every employee and day touched
+     *         (days without a record, from an unknown employee or a
+     *         clock-out with no clock-in, are absent) and the records this
+     *         batch moved to COMPLETED
+     */
+    public AppliedClockEvents applyClockEvents(Collection<ClockEvent> events) {
+        Map<List<Object>, List<ClockEvent>> days = new LinkedHashMap<>();
+        for (ClockEvent e : events) {
+            days.computeIfAbsent(List.of(e.employeeId(), e.at().toLocalDate()), k -> new ArrayList<>()).add(e);
+        }
+        List<ClockEvent> firstOuts = new ArrayList<>();
+        List<ClockEvent[]> opened = new ArrayList<>();
+        for (List<ClockEvent> day : days.values()) {
+            // stable, so events with equal timestamps keep their queue order
+            day.sort(Comparator.comparing(ClockEvent::at));
+            ClockEvent in = null;
+            ClockEvent out = null;
+            ClockEvent outAfterIn = null;
+            for (ClockEvent e : day) {
+                if (e.type() == ClockEventType.IN) {
+                    if (in == null) in = e;
+                } else {
+                    if (out == null) out = e;
+                    if (in != null && outAfterIn == null) outAfterIn = e;
+                }
+            }
+            if (out != null) firstOuts.add(out);
+            if (in != null) opened.add(new ClockEvent[]{in, outAfterIn});
+        }
+        List<AttendanceRecordView> completed = new ArrayList<>();
+        // runs before the insert, so it only sees records that existed before the batch
+        if (!firstOuts.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            String values = valuesList(firstOuts, params);
+            completed.addAll(jdbc.query("UPDATE attendance_records a SET clock_out_time = v.at, status = 'COMPLETED' "
+                    + "FROM (VALUES " + values + ") AS v(employee_id, date, at) "
+                    + "WHERE a.employee_id = v.employee_id AND a.date = v.date AND a.status = 'IN_PROGRESS' "
+                    + "RETURNING a.id, a.employee_id, a.date, a.clock_in_time, a.clock_out_time, a.status, a.auto_closed", params, VIEW_MAPPER));
+        }
+        if (!opened.isEmpty()) {
+            StringBuilder values = new StringBuilder();
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            int i = 0;
+            for (ClockEvent[] day : opened) {
+                if (i > 0) values.append(", ");
+                values.append("(CAST(:e").append(i).append(" AS bigint), CAST(:d").append(i).append(" AS date), CAST(:i")
+                        .append(i).append(" AS timestamp), CAST(:o").append(i).append(" AS timestamp))");
+                params.addValue("e" + i, day[0].employeeId())
+                        .addValue("d" + i, day[0].at().toLocalDate())
+                        .addValue("i" + i, Timestamp.valueOf(day[0].at()))
+                        .addValue("o" + i, day[1] != null ? Timestamp.valueOf(day[1].at()) : null);
+                i++;
+            }
+            List<AttendanceRecordView> inserted = jdbc.query(
+                    "INSERT INTO attendance_records (employee_id, date, clock_in_time, clock_out_time, status) "
+                    + "SELECT v.employee_id, v.date, v.clock_in, v.clock_out, "
+                    + "CASE WHEN v.clock_out IS NULL THEN 'IN_PROGRESS' ELSE 'COMPLETED' END "
+                    + "FROM (VALUES " + values + ") AS v(employee_id, date, clock_in, clock_out) "
+                    + "WHERE EXISTS (SELECT 1 FROM employees e WHERE e.id = v.employee_id) "
+                    + "ON CONFLICT (employee_id, date) DO NOTHING RETURNING " + COLUMNS, params, VIEW_MAPPER);
+            for (AttendanceRecordView r : inserted) {
+                if (r.status() == AttendanceStatus.COMPLETED) completed.add(r);
+            }
+        }
+        List<Object[]> keys = days.keySet().stream().map(List::toArray).toList();
+        List<AttendanceRecordView> records = jdbc.query(
+                "SELECT " + COLUMNS + " FROM attendance_records WHERE (employee_id, date) IN (:keys)",
+                new MapSqlParameterSource("keys", keys), VIEW_MAPPER);
+        return new AppliedClockEvents(records, completed);
+    }
+
+    /**
+     * Lock and return the records of the given (employee id, date) keys,
+     * for reconciling changes against them in the current transaction.
+     */
+    public List<AttendanceRecordView> lockDays(Collection<List<Object>> keys) {
+        if (keys.isEmpty()) return List.of();
+        List<Object[]> tuples = keys.stream().map(List::toArray).toList();
+        return jdbc.query("SELECT " + COLUMNS + " FROM attendance_records WHERE (employee_id, date) IN (:keys) FOR UPDATE",
+                new MapSqlParameterSource("keys", tuples), VIEW_MAPPER);
+    }
+
+    /**
+     * Insert fully formed records in one statement.  Days that gained a
+     * record concurrently are skipped; only the inserted rows are
+     * returned.
+     */
+    public List<AttendanceRecordView> insertDays(Collection<AttendanceRecordView> records) {
+        if (records.isEmpty()) return List.of();
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (AttendanceRecordView r : records) {
+            if (i > 0) values.append(", ");
+            values.append("(CAST(:e").append(i).append(" AS bigint), CAST(:d").append(i).append(" AS date), CAST(:i")
+                    .append(i).append(" AS timestamp), CAST(:o").append(i).append(" AS timestamp), CAST(:s")
+                    .append(i).append(" AS varchar))");
+            params.addValue("e" + i, r.employeeId())
+                    .addValue("d" + i, r.date())
+                    .addValue("i" + i, toTimestamp(r.clockInTime()))
+                    .addValue("o" + i, toTimestamp(r.clockOutTime()))
+                    .addValue("s" + i, r.status().name());
+            i++;
+        }
+        return jdbc.query("INSERT INTO attendance_records (employee_id, date, clock_in_time, clock_out_time, status) "
+                + "SELECT * FROM (VALUES " + values + ") AS v(employee_id, date, clock_in_time, clock_out_time, status) "
+                + "ON CONFLICT (employee_id, date) DO NOTHING RETURNING " + COLUMNS, params, VIEW_MAPPER);
+    }
+
+    /**
+     * Overwrite the times, status and auto-closed flag of existing
+     * records (matched by id and date) as one JDBC batch.
+     */
+    public void updateDays(Collection<AttendanceRecordView> records) {
+        if (records.isEmpty()) return;
+        SqlParameterSource[] batch = records.stream()
+                .map(r -> new MapSqlParameterSource()
+                        .addValue("id", r.id())
+                        .addValue("date", r.date())
+                        .addValue("clockIn", toTimestamp(r.clockInTime()))
+                        .addValue("clockOut", toTimestamp(r.clockOutTime()))
+                        .addValue("status", r.status().name())
+                        .addValue("autoClosed", r.autoClosed()))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate("UPDATE attendance_records SET clock_in_time = CAST(:clockIn AS timestamp), "
+                + "clock_out_time = CAST(:clockOut AS timestamp), status = :status, auto_closed = :autoClosed "
+                + "WHERE id = :id AND date = :date", batch);
+    }
+
+    /**
+     * Outcome of {@link #applyClockEvents}: the current record for each
+     * day touched, and the subset completed by this batch.
+     */
+    public record AppliedClockEvents(List<AttendanceRecordView> records, List<AttendanceRecordView> completed) {}
+
+    private static String valuesList(Collection<ClockEvent> events, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder();
+        int i = 0;
+        for (ClockEvent e : events) {
+            if (i > 0) sql.append(", ");
+            sql.append("(CAST(:e").append(i).append(" AS bigint), CAST(:d").append(i)
+                    .append(" AS date), CAST(:t").append(i).append(" AS timestamp))");
+            params.addValue("e" + i, e.employeeId())
+                    .addValue("d" + i, e.at().toLocalDate())
+                    .addValue("t" + i, Timestamp.valueOf(e.at()));
+            i++;
+        }
+        return sql.toString();
+    }
+
+    static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
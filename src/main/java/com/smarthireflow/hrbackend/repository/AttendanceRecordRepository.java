@@ -10,7 +10,9 @@ import java.util.List;
 
 /**
  * Repository interface for AttendanceRecord entities.  Provides
- * convenience methods to find records by employee and date.
+ * convenience methods to find records by employee and date.  Queries
+ * with a date condition are pruned to the matching monthly partitions;
+ * {@link #findByEmployee} visits every partition still attached.
  */
 @Repository
 public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long> {
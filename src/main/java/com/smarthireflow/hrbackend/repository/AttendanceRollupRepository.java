@@ -0,0 +1,220 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.AttendanceMonthSummary;
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access to attendance_monthly_rollup, the per employee and month totals
+ * of completed attendance records.  Worked minutes are the floor of each
+ * record's clock-in to clock-out duration; a late arrival is a clock-in
+ * after the configured threshold time of day.
+ *
+ * <p>Employees are grouped into fixed blocks of {@link #EMPLOYEES_PER_BLOCK}
+ * ids.  Incremental updates take a shared transaction-level advisory
+ * lock on each block they touch and a rebuild takes the exclusive lock
+ * on the block it recomputes, so a rebuild never interleaves with a
+ * clock-out being counted in the same block.
+ */
+@Repository
+public class AttendanceRollupRepository {
+
+    private static final RowMapper<AttendanceMonthSummary> SUMMARY_MAPPER = (rs, rowNum) -> new AttendanceMonthSummary(
+            rs.getLong("employee_id"),
+            YearMonth.from(rs.getObject("month", LocalDate.class)),
+            rs.getLong("worked_minutes"),
+            rs.getInt("days_present"),
+            rs.getInt("late_arrivals"),
+            0);
+
+    public static final int EMPLOYEES_PER_BLOCK = 500;
+    private static final int LOCK_CLASS = 0x524f4c4c;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AttendanceRollupRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Add newly completed records to their months.  Records are
+     * aggregated per employee and month first so the upsert touches each
+     * rollup row once.
+     */
+    public void addCompleted(Collection<AttendanceRecordView> completed, LocalTime lateAfter) {
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (AttendanceRecordView r : completed) {
+            if (r.clockInTime() == null || r.clockOutTime() == null) continue;
+            long[] t = totals.computeIfAbsent(List.of(r.employeeId(), r.date().withDayOfMonth(1)), k -> new long[3]);
+            t[0] += Math.max(0, Duration.between(r.clockInTime(), r.clockOutTime()).toMinutes());
+            t[1] += 1;
+            if (r.clockInTime().toLocalTime().isAfter(lateAfter)) t[2] += 1;
+        }
+        if (totals.isEmpty()) return;
+        totals.keySet().stream()
+                .map(k -> (int) ((Long) k.get(0) / EMPLOYEES_PER_BLOCK))
+                .distinct().sorted()
+                .forEach(block -> lockBlock("pg_advisory_xact_lock_shared", block));
+
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (Map.Entry<List<Object>, long[]> e : totals.entrySet()) {
+            if (i > 0) values.append(", ");
+            values.append("(:e").append(i).append(", :m").append(i).append(", :w").append(i)
+                    .append(", :d").append(i).append(", :l").append(i).append(", CURRENT_TIMESTAMP)");
+            params.addValue("e" + i, e.getKey().get(0))
+                    .addValue("m" + i, e.getKey().get(1))
+                    .addValue("w" + i, e.getValue()[0])
+                    .addValue("d" + i, (int) e.getValue()[1])
+                    .addValue("l" + i, (int) e.getValue()[2]);
+            i++;
+        }
+        jdbc.update("INSERT INTO attendance_monthly_rollup AS r "
+                + "(employee_id, month, worked_minutes, days_present, late_arrivals, updated_at) "
+                + "VALUES " + values + " "
+                + "ON CONFLICT (employee_id, month) DO UPDATE SET "
+                + "worked_minutes = r.worked_minutes + EXCLUDED.worked_minutes, "
+                + "days_present = r.days_present + EXCLUDED.days_present, "
+                + "late_arrivals = r.late_arrivals + EXCLUDED.late_arrivals, "
+                + "updated_at = EXCLUDED.updated_at", params);
+    }
+
+    /**
+     * Recompute specific (employee id, first day of month) rows from
+     * attendance_records_all, for changes that are not simple additions such
+     * as a corrected clock-in.  Months left without any completed
+     * record lose their row.  Takes the same shared block locks as
+     * {@link #addCompleted}.
+     */
+    public void refreshMonths(Collection<List<Object>> employeeMonths, LocalTime lateAfter) {
+        if (employeeMonths.isEmpty()) return;
+        employeeMonths.stream()
+                .map(k -> (int) ((Long) k.get(0) / EMPLOYEES_PER_BLOCK))
+                .distinct().sorted()
+                .forEach(block -> lockBlock("pg_advisory_xact_lock_shared", block));
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource("lateAfter", lateAfter.toString());
+        int i = 0;
+        for (List<Object> k : employeeMonths) {
+            if (i > 0) values.append(", ");
+            values.append("(CAST(:e").append(i).append(" AS bigint), CAST(:m").append(i).append(" AS date))");
+            params.addValue("e" + i, k.get(0)).addValue("m" + i, k.get(1));
+            i++;
+        }
+        jdbc.update("DELETE FROM attendance_monthly_rollup r "
+                + "USING (VALUES " + values + ") AS v(employee_id, month) "
+                + "WHERE r.employee_id = v.employee_id AND r.month = v.month "
+                + "AND NOT EXISTS (SELECT 1 FROM attendance_records_all a WHERE a.employee_id = v.employee_id "
+                + "AND a.date >= v.month AND a.date < v.month + INTERVAL '1 month' "
+                + "AND a.status = 'COMPLETED' AND a.clock_in_time IS NOT NULL AND a.clock_out_time IS NOT NULL)", params);
+        jdbc.update("INSERT INTO attendance_monthly_rollup AS r "
+                + "(employee_id, month, worked_minutes, days_present, late_arrivals, updated_at) "
+                + "SELECT a.employee_id, v.month, "
+                + "SUM(FLOOR(EXTRACT(EPOCH FROM (a.clock_out_time - a.clock_in_time)) / 60)), "
+                + "COUNT(*), "
+                + "COUNT(*) FILTER (WHERE CAST(a.clock_in_time AS time) > CAST(:lateAfter AS time)), "
+                + "CURRENT_TIMESTAMP "
+                + "FROM (VALUES " + values + ") AS v(employee_id, month) "
+                + "JOIN attendance_records_all a ON a.employee_id = v.employee_id "
+                + "AND a.date >= v.month AND a.date < v.month + INTERVAL '1 month' "
+                + "WHERE a.status = 'COMPLETED' AND a.clock_in_time IS NOT NULL AND a.clock_out_time IS NOT NULL "
+                + "GROUP BY a.employee_id, v.month "
+                + "ON CONFLICT (employee_id, month) DO UPDATE SET "
+                + "worked_minutes = EXCLUDED.worked_minutes, "
+                + "days_present = EXCLUDED.days_present, "
+                + "late_arrivals = EXCLUDED.late_arrivals, "
+                + "updated_at = EXCLUDED.updated_at", params);
+    }
+
+    /**
+     * Recompute the rollup rows of one block of employees from
+     * attendance_records_all, i.e. including archived months.  Returns
+     * the number of rollup rows written.
+     * Must run in a transaction, which holds the block's lock until it
+     * commits.
+     */
+    public int rebuildBlock(int block, LocalTime lateAfter) {
+        lockBlock("pg_advisory_xact_lock", block);
+        long fromId = (long) block * EMPLOYEES_PER_BLOCK;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromId", fromId)
+                .addValue("toId", fromId + EMPLOYEES_PER_BLOCK - 1)
+                .addValue("lateAfter", lateAfter.toString());
+        jdbc.update("DELETE FROM attendance_monthly_rollup WHERE employee_id BETWEEN :fromId AND :toId", params);
+        return jdbc.update("INSERT INTO attendance_monthly_rollup "
+                + "(employee_id, month, worked_minutes, days_present, late_arrivals, updated_at) "
+                + "SELECT employee_id, CAST(date_trunc('month', date) AS date), "
+                + "SUM(FLOOR(EXTRACT(EPOCH FROM (clock_out_time - clock_in_time)) / 60)), "
+                + "COUNT(*), "
+                + "COUNT(*) FILTER (WHERE CAST(clock_in_time AS time) > CAST(:lateAfter AS time)), "
+                + "CURRENT_TIMESTAMP "
+                + "FROM attendance_records_all "
+                + "WHERE employee_id BETWEEN :fromId AND :toId AND status = 'COMPLETED' "
+                + "AND clock_in_time IS NOT NULL AND clock_out_time IS NOT NULL "
+                + "GROUP BY employee_id, date_trunc('month', date)", params);
+    }
+
+    /**
+     * Whether the rollup is empty although completed records exist, as on
+     * the first start after the rollup was introduced.
+     */
+    public boolean needsBackfill() {
+        return Boolean.TRUE.equals(jdbc.getJdbcTemplate().queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM attendance_monthly_rollup) "
+                        + "AND EXISTS (SELECT 1 FROM attendance_records WHERE status = 'COMPLETED')", Boolean.class));
+    }
+
+    /**
+     * Blocks that currently contain at least one employee.
+     */
+    public List<Integer> employeeBlocks() {
+        return jdbc.getJdbcTemplate().queryForList(
+                "SELECT DISTINCT CAST(id / " + EMPLOYEES_PER_BLOCK + " AS int) FROM employees ORDER BY 1", Integer.class);
+    }
+
+    private void lockBlock(String function, int block) {
+        jdbc.query("SELECT " + function + "(:lockClass, :block)",
+                new MapSqlParameterSource().addValue("lockClass", LOCK_CLASS).addValue("block", block),
+                rs -> null);
+    }
+
+    public List<AttendanceMonthSummary> findForEmployee(Long employeeId, YearMonth from, YearMonth to) {
+        return jdbc.query("SELECT employee_id, month, worked_minutes, days_present, late_arrivals "
+                        + "FROM attendance_monthly_rollup "
+                        + "WHERE employee_id = :employeeId AND month BETWEEN :from AND :to ORDER BY month",
+                new MapSqlParameterSource()
+                        .addValue("employeeId", employeeId)
+                        .addValue("from", from.atDay(1))
+                        .addValue("to", to.atDay(1)),
+                SUMMARY_MAPPER);
+    }
+
+    /**
+     * Rollup rows of every employee for one month, optionally limited to
+     * a department.
+     */
+    public List<AttendanceMonthSummary> findForMonth(YearMonth month, String department) {
+        String sql = "SELECT r.employee_id, r.month, r.worked_minutes, r.days_present, r.late_arrivals "
+                + "FROM attendance_monthly_rollup r ";
+        MapSqlParameterSource params = new MapSqlParameterSource("month", month.atDay(1));
+        if (department != null) {
+            sql += "JOIN employees e ON e.id = r.employee_id AND e.department = :department ";
+            params.addValue("department", department);
+        }
+        sql += "WHERE r.month = :month ORDER BY r.employee_id";
+        return jdbc.query(sql, params, SUMMARY_MAPPER);
+    }
+}
@@ -0,0 +1,98 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.KioskClockEvent;
+import com.smarthireflow.hrbackend.dto.SyncEventResult;
+import com.smarthireflow.hrbackend.model.SyncEventStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dedupe log of kiosk clock events (attendance_sync_events).  An event
+ * is processed only by the upload that manages to insert its client id.
+ */
+@Repository
+public class AttendanceSyncRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AttendanceSyncRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Insert the events' client ids, skipping ids already present.
+     * Returns the ids this call inserted, i.e. the events it owns.
+     */
+    public Set<String> claim(Collection<KioskClockEvent> events) {
+        if (events.isEmpty()) return Set.of();
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (KioskClockEvent e : events) {
+            if (i > 0) values.append(", ");
+            values.append("(:c").append(i).append(", :e").append(i).append(", :k").append(i).append(", :t").append(i).append(")");
+            params.addValue("c" + i, e.clientEventId())
+                    .addValue("e" + i, e.employeeId())
+                    .addValue("k" + i, e.type().name())
+                    .addValue("t" + i, Timestamp.valueOf(e.at()));
+            i++;
+        }
+        return new HashSet<>(jdbc.queryForList("INSERT INTO attendance_sync_events (client_event_id, employee_id, type, event_time) "
+                + "VALUES " + values + " ON CONFLICT (client_event_id) DO NOTHING RETURNING client_event_id", params, String.class));
+    }
+
+    /**
+     * Outcomes stored for previously processed events, for answering
+     * duplicates.
+     */
+    public Map<String, SyncEventResult> outcomes(Collection<String> clientEventIds) {
+        Map<String, SyncEventResult> outcomes = new HashMap<>();
+        if (clientEventIds.isEmpty()) return outcomes;
+        jdbc.query("SELECT client_event_id, status, record_id, message FROM attendance_sync_events "
+                        + "WHERE client_event_id IN (:ids)",
+                new MapSqlParameterSource("ids", clientEventIds),
+                rs -> {
+                    String id = rs.getString("client_event_id");
+                    String status = rs.getString("status");
+                    long recordId = rs.getLong("record_id");
+                    outcomes.put(id, new SyncEventResult(id, status == null ? null : SyncEventStatus.valueOf(status),
+                            rs.wasNull() ? null : recordId, rs.getString("message")));
+                });
+        return outcomes;
+    }
+
+    public Set<Long> existingEmployees(Collection<Long> employeeIds) {
+        if (employeeIds.isEmpty()) return Set.of();
+        return new HashSet<>(jdbc.queryForList("SELECT id FROM employees WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", employeeIds), Long.class));
+    }
+
+    public void saveOutcomes(List<SyncEventResult> results) {
+        if (results.isEmpty()) return;
+        SqlParameterSource[] batch = results.stream()
+                .map(r -> new MapSqlParameterSource()
+                        .addValue("id", r.clientEventId())
+                        .addValue("status", r.status().name())
+                        .addValue("recordId", r.recordId())
+                        .addValue("message", r.message()))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate("UPDATE attendance_sync_events SET status = :status, record_id = :recordId, message = :message "
+                + "WHERE client_event_id = :id", batch);
+    }
+
+    public int purgeReceivedBefore(LocalDateTime cutoff) {
+        return jdbc.update("DELETE FROM attendance_sync_events WHERE received_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+    }
+}
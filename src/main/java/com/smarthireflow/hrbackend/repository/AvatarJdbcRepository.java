@@ -0,0 +1,94 @@
+package com.smarthireflow.hrbackend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The avatar columns of users.  They are written only here, never
+ * through the user entity, so saving a profile cannot overwrite an
+ * avatar changed in the meantime.  A non-null {@code avatar} column is
+ * an image from before the file store that has not been moved yet;
+ * every write here clears it.
+ */
+@Repository
+public class AvatarJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AvatarJdbcRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<AvatarRef> find(long userId) {
+        return jdbc.query("SELECT avatar_hash, avatar_content_type, avatar_updated_at, avatar IS NOT NULL AS legacy "
+                                + "FROM users WHERE id = :id",
+                        new MapSqlParameterSource("id", userId),
+                        (rs, rowNum) -> {
+                            OffsetDateTime updatedAt = rs.getObject("avatar_updated_at", OffsetDateTime.class);
+                            return new AvatarRef(rs.getString("avatar_hash"), rs.getString("avatar_content_type"),
+                                    updatedAt == null ? null : updatedAt.toInstant(), rs.getBoolean("legacy"));
+                        })
+                .stream().findFirst();
+    }
+
+    /**
+     * Point the user at a stored image, or at none when hash is null.
+     */
+    public boolean replace(long userId, String hash, String contentType) {
+        return jdbc.update("UPDATE users SET avatar_hash = :hash, avatar_content_type = :contentType, "
+                        + "avatar_updated_at = CASE WHEN CAST(:hash AS VARCHAR) IS NULL THEN NULL ELSE now() END, "
+                        + "avatar = NULL WHERE id = :id",
+                new MapSqlParameterSource("id", userId)
+                        .addValue("hash", hash)
+                        .addValue("contentType", contentType)) > 0;
+    }
+
+    /**
+     * Ids of users still holding an image in the old column, after the
+     * given id in id order.
+     */
+    public List<Long> idsWithLegacyAvatar(long afterId, int limit) {
+        return jdbc.queryForList("SELECT id FROM users WHERE avatar IS NOT NULL AND id > :after ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("after", afterId).addValue("limit", limit), Long.class);
+    }
+
+    public Optional<byte[]> legacyAvatar(long userId) {
+        return jdbc.query("SELECT avatar FROM users WHERE id = :id AND avatar IS NOT NULL",
+                        new MapSqlParameterSource("id", userId), (rs, rowNum) -> rs.getBytes("avatar"))
+                .stream().findFirst();
+    }
+
+    /**
+     * Replace the user's old-column image by its stored copy.  Does
+     * nothing if the avatar was changed since it was read, which always
+     * clears the old column.
+     */
+    public boolean moveLegacyAvatar(long userId, String hash) {
+        return jdbc.update("UPDATE users SET avatar_hash = :hash, avatar_updated_at = now(), avatar = NULL "
+                        + "WHERE id = :id AND avatar IS NOT NULL",
+                new MapSqlParameterSource("id", userId).addValue("hash", hash)) > 0;
+    }
+
+    /**
+     * The given hashes that some user refers to.
+     */
+    public Set<String> referenced(Collection<String> hashes) {
+        if (hashes.isEmpty()) return Set.of();
+        return new HashSet<>(jdbc.queryForList("SELECT DISTINCT avatar_hash FROM users WHERE avatar_hash IN (:hashes)",
+                new MapSqlParameterSource("hashes", hashes), String.class));
+    }
+
+    /**
+     * @param legacy whether the image is still in the old column
+     */
+    public record AvatarRef(String hash, String contentType, Instant updatedAt, boolean legacy) {}
+}
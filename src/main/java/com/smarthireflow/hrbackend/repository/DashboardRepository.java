@@ -0,0 +1,56 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregate counts for the admin dashboard, one GROUP BY query each.
+ */
+@Repository
+public class DashboardRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public DashboardRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Employees per department ("" for employees without one).
+     */
+    public Map<String, Long> headcountByDepartment() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbc.query("SELECT COALESCE(department, '') AS department, COUNT(*) AS n FROM employees GROUP BY 1",
+                rs -> {
+                    counts.put(rs.getString("department"), rs.getLong("n"));
+                });
+        return counts;
+    }
+
+    public Map<InventoryStatus, Long> inventoryByStatus() {
+        Map<InventoryStatus, Long> counts = new EnumMap<>(InventoryStatus.class);
+        for (InventoryStatus status : InventoryStatus.values()) counts.put(status, 0L);
+        jdbc.query("SELECT status, COUNT(*) AS n FROM inventory_items WHERE status IS NOT NULL GROUP BY status",
+                rs -> {
+                    counts.put(InventoryStatus.valueOf(rs.getString("status")), rs.getLong("n"));
+                });
+        return counts;
+    }
+
+    /**
+     * Employees with an attendance record for the day; reads only that
+     * day's partition.
+     */
+    public long clockedInOn(LocalDate date) {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM attendance_records WHERE date = :date",
+                new MapSqlParameterSource("date", date), Long.class);
+        return n == null ? 0 : n;
+    }
+}
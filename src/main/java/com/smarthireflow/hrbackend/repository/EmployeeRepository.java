@@ -2,6 +2,8 @@ package com.smarthireflow.hrbackend.repository;
 
 import com.smarthireflow.hrbackend.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +17,10 @@ import java.util.Optional;
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
+
+    /**
+     * Resolve only the id for an email, without hydrating the entity.
+     */
+    @Query("select e.id from Employee e where e.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.smarthireflow.hrbackend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holiday calendar (holidays, loaded by Liquibase from holidays.csv) and
+ * the region each employee follows.
+ */
+@Repository
+public class HolidayRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public HolidayRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<LocalDate> findHolidays(String region, int year) {
+        return jdbc.queryForList("SELECT holiday_date FROM holidays WHERE region = :region "
+                        + "AND holiday_date BETWEEN :from AND :to",
+                new MapSqlParameterSource()
+                        .addValue("region", region)
+                        .addValue("from", LocalDate.of(year, 1, 1))
+                        .addValue("to", LocalDate.of(year, 12, 31)),
+                LocalDate.class);
+    }
+
+    /**
+     * Region of each of the given employees that has one set.
+     */
+    public Map<Long, String> findRegions(Collection<Long> employeeIds) {
+        Map<Long, String> regions = new HashMap<>();
+        if (employeeIds.isEmpty()) return regions;
+        jdbc.query("SELECT id, region FROM employees WHERE id IN (:ids) AND region IS NOT NULL",
+                new MapSqlParameterSource("ids", employeeIds),
+                rs -> {
+                    regions.put(rs.getLong("id"), rs.getString("region"));
+                });
+        return regions;
+    }
+}
@@ -0,0 +1,87 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.InventoryAssignmentEntry;
+import com.smarthireflow.hrbackend.model.InventoryAssignmentEventType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Append-only custody history of inventory items
+ * (inventory_assignments).  Timelines are read newest first with a
+ * keyset on (occurred_at, id), served by the per-item and per-employee
+ * indexes.
+ */
+@Repository
+public class InventoryAssignmentRepository {
+
+    static final String ENTRY_SELECT = "SELECT a.id, a.item_id, i.item_name, i.serial_number, a.employee_id, "
+            + "e.name AS employee_name, a.event_type, a.recorded_by, a.occurred_at "
+            + "FROM inventory_assignments a LEFT JOIN inventory_items i ON i.id = a.item_id "
+            + "LEFT JOIN employees e ON e.id = a.employee_id ";
+
+    static final RowMapper<InventoryAssignmentEntry> ENTRY_MAPPER = (rs, rowNum) -> {
+        long item = rs.getLong("item_id");
+        Long itemId = rs.wasNull() ? null : item;
+        long employee = rs.getLong("employee_id");
+        Long employeeId = rs.wasNull() ? null : employee;
+        long recorder = rs.getLong("recorded_by");
+        Long recordedBy = rs.wasNull() ? null : recorder;
+        return new InventoryAssignmentEntry(
+                rs.getLong("id"),
+                itemId,
+                rs.getString("item_name"),
+                rs.getString("serial_number"),
+                employeeId,
+                rs.getString("employee_name"),
+                InventoryAssignmentEventType.valueOf(rs.getString("event_type")),
+                recordedBy,
+                rs.getObject("occurred_at", OffsetDateTime.class));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public InventoryAssignmentRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Record a custody event.  Must run in the transaction that changes
+     * the item's assignee.
+     */
+    public void append(Long itemId, Long employeeId, InventoryAssignmentEventType type, Long recordedBy) {
+        jdbc.update("INSERT INTO inventory_assignments (item_id, employee_id, event_type, recorded_by) "
+                        + "VALUES (:itemId, :employeeId, :type, :recordedBy)",
+                new MapSqlParameterSource()
+                        .addValue("itemId", itemId)
+                        .addValue("employeeId", employeeId)
+                        .addValue("type", type.name())
+                        .addValue("recordedBy", recordedBy));
+    }
+
+    public List<InventoryAssignmentEntry> findForItem(Long itemId, OffsetDateTime beforeAt, Long beforeId, int limit) {
+        return findPage("a.item_id = :ownerId", itemId, beforeAt, beforeId, limit);
+    }
+
+    public List<InventoryAssignmentEntry> findForEmployee(Long employeeId, OffsetDateTime beforeAt, Long beforeId, int limit) {
+        return findPage("a.employee_id = :ownerId", employeeId, beforeAt, beforeId, limit);
+    }
+
+    private List<InventoryAssignmentEntry> findPage(String ownerFilter, Long ownerId,
+                                                    OffsetDateTime beforeAt, Long beforeId, int limit) {
+        StringBuilder sql = new StringBuilder(ENTRY_SELECT).append("WHERE ").append(ownerFilter);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ownerId", ownerId)
+                .addValue("limit", limit);
+        if (beforeAt != null) {
+            sql.append(" AND (a.occurred_at, a.id) < (:beforeAt, :beforeId)");
+            params.addValue("beforeAt", beforeAt).addValue("beforeId", beforeId);
+        }
+        sql.append(" ORDER BY a.occurred_at DESC, a.id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params, ENTRY_MAPPER);
+    }
+}
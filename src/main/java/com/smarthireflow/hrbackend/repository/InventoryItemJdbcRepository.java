@@ -0,0 +1,169 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.InventoryItemView;
+import com.smarthireflow.hrbackend.model.InventoryCondition;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read paths for inventory items that should not load entities, such
+ * as serial number lookups at the asset desk.  Serials are matched on
+ * {@link #normalizeSerial normalized} form through the
+ * upper(btrim(serial_number)) index.
+ */
+@Repository
+public class InventoryItemJdbcRepository {
+
+    /** Advisory lock class for inventory imports ("INVI"). */
+    private static final int IMPORT_LOCK_CLASS = 0x494e5649;
+
+    static final String VIEW_SELECT = "SELECT i.id, i.item_name, i.category, i.serial_number, i.status, i.condition, "
+            + "i.assigned_to_id, e.name AS assigned_to_name, i.assigned_date, i.return_date, i.purchase_date, i.notes "
+            + "FROM inventory_items i LEFT JOIN employees e ON e.id = i.assigned_to_id ";
+
+    static final RowMapper<InventoryItemView> VIEW_MAPPER = (rs, rowNum) -> {
+        long assignedTo = rs.getLong("assigned_to_id");
+        Long assignedToId = rs.wasNull() ? null : assignedTo;
+        String status = rs.getString("status");
+        String condition = rs.getString("condition");
+        return new InventoryItemView(
+                rs.getLong("id"),
+                rs.getString("item_name"),
+                rs.getString("category"),
+                rs.getString("serial_number"),
+                status == null ? null : InventoryStatus.valueOf(status),
+                condition == null ? null : InventoryCondition.valueOf(condition),
+                assignedToId,
+                rs.getString("assigned_to_name"),
+                rs.getObject("assigned_date", LocalDate.class),
+                rs.getObject("return_date", LocalDate.class),
+                rs.getObject("purchase_date", LocalDate.class),
+                rs.getString("notes"));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public InventoryItemJdbcRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Trimmed, upper-cased serial as used by the unique index; null for
+     * a missing or blank serial.
+     */
+    public static String normalizeSerial(String serial) {
+        if (serial == null) return null;
+        String trimmed = serial.strip();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Items with the given normalized serials, keyed by normalized
+     * serial.  One index probe per serial in a single query.
+     */
+    public Map<String, InventoryItemView> findBySerials(Collection<String> normalizedSerials) {
+        Map<String, InventoryItemView> found = new HashMap<>();
+        if (normalizedSerials.isEmpty()) return found;
+        jdbc.query(VIEW_SELECT + "WHERE upper(btrim(i.serial_number)) IN (:serials)",
+                new MapSqlParameterSource("serials", normalizedSerials),
+                VIEW_MAPPER)
+                .forEach(item -> found.putIfAbsent(normalizeSerial(item.serialNumber()), item));
+        return found;
+    }
+
+    /**
+     * Id of another item already using the serial, if any.
+     */
+    public Long findIdBySerial(String normalizedSerial, Long excludeId) {
+        return jdbc.query("SELECT id FROM inventory_items WHERE upper(btrim(serial_number)) = :serial "
+                        + "AND id <> :excludeId LIMIT 1",
+                new MapSqlParameterSource()
+                        .addValue("serial", normalizedSerial)
+                        .addValue("excludeId", excludeId == null ? -1L : excludeId),
+                (rs, rowNum) -> rs.getLong("id")).stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Serialise imports until the current transaction ends, so two
+     * uploads of the same file cannot both insert a serial.
+     */
+    public void lockImports() {
+        jdbc.query("SELECT pg_advisory_xact_lock(:lockClass, 0)",
+                new MapSqlParameterSource("lockClass", IMPORT_LOCK_CLASS),
+                rs -> null);
+    }
+
+    /**
+     * Upsert a batch of imported rows in one statement: rows whose
+     * serial matches an existing item update it, the rest are inserted.
+     * Empty optional fields keep the existing value on update; status
+     * defaults to ACTIVE on insert.  Serials must be distinct within the
+     * batch.  Returns the number of input rows that updated an item;
+     * a serial shared by several existing items counts once.
+     */
+    public int upsertBySerial(List<ImportRow> rows) {
+        if (rows.isEmpty()) return 0;
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow r = rows.get(i);
+            if (i > 0) values.append(", ");
+            values.append("(CAST(:i").append(i).append(" AS INT), CAST(:n").append(i).append(" AS VARCHAR), ")
+                    .append("CAST(:c").append(i).append(" AS VARCHAR), CAST(:s").append(i).append(" AS VARCHAR), ")
+                    .append("CAST(:k").append(i).append(" AS VARCHAR), CAST(:st").append(i).append(" AS VARCHAR), ")
+                    .append("CAST(:co").append(i).append(" AS VARCHAR), CAST(:p").append(i).append(" AS DATE), ")
+                    .append("CAST(:cost").append(i).append(" AS NUMERIC), CAST(:w").append(i).append(" AS VARCHAR), ")
+                    .append("CAST(:no").append(i).append(" AS VARCHAR), CAST(:v").append(i).append(" AS NUMERIC))");
+            params.addValue("i" + i, i)
+                    .addValue("n" + i, r.itemName())
+                    .addValue("c" + i, r.category())
+                    .addValue("s" + i, r.serialNumber())
+                    .addValue("k" + i, normalizeSerial(r.serialNumber()))
+                    .addValue("st" + i, r.status() == null ? null : r.status().name())
+                    .addValue("co" + i, r.condition() == null ? null : r.condition().name())
+                    .addValue("p" + i, r.purchaseDate())
+                    .addValue("cost" + i, r.cost())
+                    .addValue("w" + i, r.warranty())
+                    .addValue("no" + i, r.notes())
+                    .addValue("v" + i, r.value());
+        }
+        Integer updated = jdbc.queryForObject("WITH input (idx, item_name, category, serial_number, serial_key, status, "
+                + "condition, purchase_date, cost, warranty, notes, value) AS (VALUES " + values + "), "
+                + "updated AS (UPDATE inventory_items i SET item_name = input.item_name, "
+                + "category = COALESCE(input.category, i.category), "
+                + "status = COALESCE(input.status, i.status), "
+                + "condition = COALESCE(input.condition, i.condition), "
+                + "purchase_date = COALESCE(input.purchase_date, i.purchase_date), "
+                + "cost = COALESCE(input.cost, i.cost), "
+                + "warranty = COALESCE(input.warranty, i.warranty), "
+                + "notes = COALESCE(input.notes, i.notes), "
+                + "value = COALESCE(input.value, i.value) "
+                + "FROM input WHERE input.serial_key IS NOT NULL AND upper(btrim(i.serial_number)) = input.serial_key "
+                + "RETURNING input.idx), "
+                + "inserted AS (INSERT INTO inventory_items (item_name, category, serial_number, status, condition, "
+                + "purchase_date, cost, warranty, notes, value) "
+                + "SELECT item_name, category, serial_number, COALESCE(status, 'ACTIVE'), condition, purchase_date, "
+                + "cost, warranty, notes, value FROM input WHERE idx NOT IN (SELECT idx FROM updated) RETURNING id) "
+                + "SELECT COUNT(DISTINCT idx) FROM updated", params, Integer.class);
+        return updated == null ? 0 : updated;
+    }
+
+    /**
+     * A validated row of an inventory import.  Blank optional fields are
+     * null.
+     */
+    public record ImportRow(String itemName, String category, String serialNumber, InventoryStatus status,
+                            InventoryCondition condition, LocalDate purchaseDate, BigDecimal cost,
+                            String warranty, String notes, BigDecimal value) {}
+}
@@ -3,10 +3,15 @@ package com.smarthireflow.hrbackend.repository;
 import com.smarthireflow.hrbackend.model.Employee;
 import com.smarthireflow.hrbackend.model.InventoryItem;
 import com.smarthireflow.hrbackend.model.InventoryStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for InventoryItem entities.  Exposes standard
@@ -25,4 +30,12 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
      * @return all inventory items assigned to that employee
      */
     List<InventoryItem> findByAssignedTo(Employee assignedTo);
+
+    /**
+     * Load an item with a row lock, for assignee changes that record
+     * the previous holder in the assignment history.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from InventoryItem i where i.id = :id")
+    Optional<InventoryItem> findByIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
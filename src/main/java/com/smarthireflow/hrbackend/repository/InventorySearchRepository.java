@@ -0,0 +1,89 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.InventorySearchHit;
+import com.smarthireflow.hrbackend.model.InventoryCondition;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Ranked inventory search.  Each arm of the match condition has its own
+ * index (trigram GIN on item_name, serial_number and category, GIN on
+ * the notes tsvector), so Postgres combines them with a bitmap OR rather
+ * than scanning the table.
+ */
+@Repository
+public class InventorySearchRepository {
+
+    private static final String SCORE = "CAST("
+            + "(CASE WHEN lower(i.serial_number) = lower(:q) THEN 8 ELSE 0 END)"
+            + " + (CASE WHEN i.item_name ILIKE :prefix THEN 4 WHEN i.item_name ILIKE :pattern THEN 2 ELSE 0 END)"
+            + " + (CASE WHEN i.serial_number ILIKE :prefix THEN 3 WHEN i.serial_number ILIKE :pattern THEN 1 ELSE 0 END)"
+            + " + (CASE WHEN i.category ILIKE :prefix THEN 2 WHEN i.category ILIKE :pattern THEN 1 ELSE 0 END)"
+            + " + ts_rank(i.notes_tsv, websearch_to_tsquery('english', :q))"
+            + " AS DOUBLE PRECISION)";
+
+    private static final RowMapper<InventorySearchHit> HIT_MAPPER = (rs, rowNum) -> {
+        long assignedTo = rs.getLong("assigned_to_id");
+        Long assignedToId = rs.wasNull() ? null : assignedTo;
+        String status = rs.getString("status");
+        String condition = rs.getString("condition");
+        return new InventorySearchHit(
+                rs.getLong("id"),
+                rs.getString("item_name"),
+                rs.getString("category"),
+                rs.getString("serial_number"),
+                status == null ? null : InventoryStatus.valueOf(status),
+                condition == null ? null : InventoryCondition.valueOf(condition),
+                assignedToId,
+                rs.getString("assigned_to_name"),
+                rs.getString("notes"),
+                rs.getDouble("score"));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public InventorySearchRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Items whose name, serial or category contains {@code query}, or
+     * whose notes match it as a web-style full-text query, best first.
+     * (afterScore, afterId) is the keyset cursor.
+     */
+    public List<InventorySearchHit> search(String query, InventoryStatus status,
+                                           Double afterScore, Long afterId, int limit) {
+        String escaped = escapeLike(query);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query)
+                .addValue("prefix", escaped + "%")
+                .addValue("pattern", "%" + escaped + "%")
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT * FROM ("
+                + "SELECT i.id, i.item_name, i.category, i.serial_number, i.status, i.condition, i.assigned_to_id, "
+                + "e.name AS assigned_to_name, i.notes, " + SCORE + " AS score "
+                + "FROM inventory_items i LEFT JOIN employees e ON e.id = i.assigned_to_id "
+                + "WHERE (i.item_name ILIKE :pattern OR i.serial_number ILIKE :pattern OR i.category ILIKE :pattern "
+                + "OR i.notes_tsv @@ websearch_to_tsquery('english', :q))");
+        if (status != null) {
+            sql.append(" AND i.status = :status");
+            params.addValue("status", status.name());
+        }
+        sql.append(") AS hits");
+        if (afterScore != null) {
+            sql.append(" WHERE (score < :afterScore OR (score = :afterScore AND id < :afterId))");
+            params.addValue("afterScore", afterScore).addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY score DESC, id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params, HIT_MAPPER);
+    }
+
+    static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
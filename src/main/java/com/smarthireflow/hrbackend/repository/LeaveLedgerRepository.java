@@ -0,0 +1,214 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.LeaveBalanceView;
+import com.smarthireflow.hrbackend.dto.LeaveLedgerEntry;
+import com.smarthireflow.hrbackend.model.LeaveLedgerEntryType;
+import com.smarthireflow.hrbackend.model.LeaveType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Leave ledger (leave_ledger) and the balances derived from it
+ * (leave_balances).  Every write appends ledger rows and folds them into
+ * the balance rows in the same statement, so the two cannot drift apart
+ * and a balance read is a primary key lookup.
+ */
+@Repository
+public class LeaveLedgerRepository {
+
+    private static final String BALANCE_COLUMNS = "employee_id, leave_type, balance, accrued, used, updated_at";
+
+    /**
+     * Folds the rows of a CTE named {@code entry} (employee_id,
+     * leave_type, entry_type, days) into leave_balances.
+     */
+    private static final String FOLD_INTO_BALANCES = "INSERT INTO leave_balances AS b (employee_id, leave_type, balance, accrued, used, updated_at) "
+            + "SELECT employee_id, leave_type, SUM(days), "
+            + "SUM(CASE WHEN entry_type = 'ACCRUAL' THEN days ELSE 0 END), "
+            + "SUM(CASE WHEN entry_type IN ('DEBIT', 'REVERSAL') THEN -days ELSE 0 END), now() "
+            + "FROM entry GROUP BY employee_id, leave_type "
+            + "ON CONFLICT (employee_id, leave_type) DO UPDATE SET "
+            + "balance = b.balance + EXCLUDED.balance, accrued = b.accrued + EXCLUDED.accrued, "
+            + "used = b.used + EXCLUDED.used, updated_at = EXCLUDED.updated_at ";
+
+    static final RowMapper<LeaveBalanceView> BALANCE_MAPPER = (rs, rowNum) -> new LeaveBalanceView(
+            rs.getLong("employee_id"),
+            LeaveType.valueOf(rs.getString("leave_type")),
+            rs.getBigDecimal("balance"),
+            rs.getBigDecimal("accrued"),
+            rs.getBigDecimal("used"),
+            rs.getObject("updated_at", OffsetDateTime.class));
+
+    static final RowMapper<LeaveLedgerEntry> ENTRY_MAPPER = (rs, rowNum) -> {
+        long requestId = rs.getLong("leave_request_id");
+        Long leaveRequestId = rs.wasNull() ? null : requestId;
+        return new LeaveLedgerEntry(
+                rs.getLong("id"),
+                rs.getLong("employee_id"),
+                LeaveType.valueOf(rs.getString("leave_type")),
+                LeaveLedgerEntryType.valueOf(rs.getString("entry_type")),
+                rs.getBigDecimal("days"),
+                leaveRequestId,
+                rs.getObject("accrual_period", LocalDate.class),
+                rs.getString("note"),
+                rs.getObject("created_at", OffsetDateTime.class));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public LeaveLedgerRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Append one entry and apply it to the balance.  Returns the balance
+     * after the entry.
+     */
+    public LeaveBalanceView append(Long employeeId, LeaveType type, LeaveLedgerEntryType entryType,
+                                   BigDecimal days, Long leaveRequestId, String note) {
+        String sql = "WITH entry AS ("
+                + "INSERT INTO leave_ledger (employee_id, leave_type, entry_type, days, leave_request_id, note) "
+                + "VALUES (:employeeId, :type, :entryType, :days, :requestId, :note) "
+                + "RETURNING employee_id, leave_type, entry_type, days) "
+                + FOLD_INTO_BALANCES + "RETURNING " + BALANCE_COLUMNS;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("type", type.name())
+                .addValue("entryType", entryType.name())
+                .addValue("days", days)
+                .addValue("requestId", leaveRequestId)
+                .addValue("note", note);
+        return jdbc.queryForObject(sql, params, BALANCE_MAPPER);
+    }
+
+    /**
+     * Append several entries and apply them to the balances, in one
+     * statement.  Returns the entries written.
+     */
+    public int appendAll(List<NewEntry> entries) {
+        if (entries.isEmpty()) return 0;
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        for (int i = 0; i < entries.size(); i++) {
+            NewEntry e = entries.get(i);
+            if (i > 0) values.append(", ");
+            values.append("(CAST(:e").append(i).append(" AS BIGINT), CAST(:t").append(i).append(" AS VARCHAR), ")
+                    .append("CAST(:k").append(i).append(" AS VARCHAR), CAST(:d").append(i).append(" AS NUMERIC), ")
+                    .append("CAST(:r").append(i).append(" AS BIGINT), CAST(:n").append(i).append(" AS VARCHAR))");
+            params.addValue("e" + i, e.employeeId())
+                    .addValue("t" + i, e.type().name())
+                    .addValue("k" + i, e.entryType().name())
+                    .addValue("d" + i, e.days())
+                    .addValue("r" + i, e.leaveRequestId())
+                    .addValue("n" + i, e.note());
+        }
+        String sql = "WITH entry AS ("
+                + "INSERT INTO leave_ledger (employee_id, leave_type, entry_type, days, leave_request_id, note) "
+                + "VALUES " + values + " "
+                + "RETURNING employee_id, leave_type, entry_type, days), "
+                + "folded AS (" + FOLD_INTO_BALANCES + "RETURNING 1) "
+                + "SELECT COUNT(*) FROM entry";
+        Integer written = jdbc.queryForObject(sql, params, Integer.class);
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Net of the debits and reversals posted for a request: negative
+     * while it is debited, zero once reversed.
+     */
+    public BigDecimal outstandingDebit(Long leaveRequestId) {
+        BigDecimal net = jdbc.queryForObject("SELECT COALESCE(SUM(days), 0) FROM leave_ledger "
+                        + "WHERE leave_request_id = :requestId AND entry_type IN ('DEBIT', 'REVERSAL')",
+                new MapSqlParameterSource("requestId", leaveRequestId), BigDecimal.class);
+        return net == null ? BigDecimal.ZERO : net;
+    }
+
+    /**
+     * Grant {@code period}'s accrual to employees with ids in
+     * (afterId, uptoId], one entry per employee and type in
+     * {@code daysPerType}.  Employees already credited for the period are
+     * skipped by the unique accrual index.  Returns the entries written.
+     */
+    public int accrue(LocalDate period, Map<LeaveType, BigDecimal> daysPerType, long afterId, long uptoId, String note) {
+        if (daysPerType.isEmpty()) return 0;
+        StringBuilder rates = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("period", period)
+                .addValue("afterId", afterId)
+                .addValue("uptoId", uptoId)
+                .addValue("note", note);
+        int i = 0;
+        for (Map.Entry<LeaveType, BigDecimal> rate : daysPerType.entrySet()) {
+            if (i > 0) rates.append(", ");
+            rates.append("(CAST(:t").append(i).append(" AS VARCHAR), CAST(:d").append(i).append(" AS NUMERIC))");
+            params.addValue("t" + i, rate.getKey().name()).addValue("d" + i, rate.getValue());
+            i++;
+        }
+        String sql = "WITH entry AS ("
+                + "INSERT INTO leave_ledger (employee_id, leave_type, entry_type, days, accrual_period, note) "
+                + "SELECT e.id, r.leave_type, 'ACCRUAL', r.days, :period, :note "
+                + "FROM employees e CROSS JOIN (VALUES " + rates + ") AS r (leave_type, days) "
+                + "WHERE e.id > :afterId AND e.id <= :uptoId "
+                + "ON CONFLICT (employee_id, leave_type, accrual_period) WHERE entry_type = 'ACCRUAL' DO NOTHING "
+                + "RETURNING employee_id, leave_type, entry_type, days), "
+                + "folded AS (" + FOLD_INTO_BALANCES + "RETURNING 1) "
+                + "SELECT COUNT(*) FROM entry";
+        Integer written = jdbc.queryForObject(sql, params, Integer.class);
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Last id of the next {@code limit} employees after {@code afterId},
+     * or empty when none are left.
+     */
+    public Optional<Long> nextEmployeeBatchEnd(long afterId, int limit) {
+        Long upto = jdbc.queryForObject("SELECT MAX(id) FROM (SELECT id FROM employees WHERE id > :afterId ORDER BY id LIMIT :limit) AS batch",
+                new MapSqlParameterSource().addValue("afterId", afterId).addValue("limit", limit), Long.class);
+        return Optional.ofNullable(upto);
+    }
+
+    public List<LeaveBalanceView> findBalances(Long employeeId) {
+        return jdbc.query("SELECT " + BALANCE_COLUMNS + " FROM leave_balances WHERE employee_id = :employeeId ORDER BY leave_type",
+                new MapSqlParameterSource("employeeId", employeeId), BALANCE_MAPPER);
+    }
+
+    public Optional<LeaveBalanceView> findBalance(Long employeeId, LeaveType type) {
+        return jdbc.query("SELECT " + BALANCE_COLUMNS + " FROM leave_balances WHERE employee_id = :employeeId AND leave_type = :type",
+                new MapSqlParameterSource().addValue("employeeId", employeeId).addValue("type", type.name()),
+                BALANCE_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * One page of an employee's ledger, newest first, optionally for one
+     * leave type.  {@code beforeId} is the keyset cursor.
+     */
+    public List<LeaveLedgerEntry> findEntries(Long employeeId, LeaveType type, Long beforeId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, employee_id, leave_type, entry_type, days, leave_request_id, "
+                + "accrual_period, note, created_at FROM leave_ledger WHERE employee_id = :employeeId");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("limit", limit);
+        if (type != null) {
+            sql.append(" AND leave_type = :type");
+            params.addValue("type", type.name());
+        }
+        if (beforeId != null) {
+            sql.append(" AND id < :beforeId");
+            params.addValue("beforeId", beforeId);
+        }
+        sql.append(" ORDER BY id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params, ENTRY_MAPPER);
+    }
+
+    public record NewEntry(Long employeeId, LeaveType type, LeaveLedgerEntryType entryType,
+                           BigDecimal days, Long leaveRequestId, String note) {}
+}
@@ -0,0 +1,206 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.dto.LeaveRequestView;
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.model.LeaveType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Overlap checks and calendar reads for leave requests.  Overlap is
+ * decided on the generated {@code period} daterange so the lookup is
+ * served by the GiST index behind ex_leave_requests_no_overlap.
+ */
+@Repository
+public class LeaveRequestJdbcRepository {
+
+    private static final int LOCK_CLASS = 0x4c454156;
+
+    static final RowMapper<LeaveCalendarEntry> CALENDAR_MAPPER = (rs, rowNum) -> new LeaveCalendarEntry(
+            rs.getLong("id"),
+            rs.getLong("employee_id"),
+            rs.getString("name"),
+            rs.getString("department"),
+            rs.getString("type") == null ? null : LeaveType.valueOf(rs.getString("type")),
+            LeaveStatus.valueOf(rs.getString("status")),
+            rs.getObject("start_date", LocalDate.class),
+            rs.getObject("end_date", LocalDate.class));
+
+    static final RowMapper<LeaveRequestView> VIEW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new LeaveRequestView(
+                rs.getLong("id"),
+                rs.getLong("employee_id"),
+                rs.getString("name"),
+                rs.getString("department"),
+                rs.getString("type") == null ? null : LeaveType.valueOf(rs.getString("type")),
+                LeaveStatus.valueOf(rs.getString("status")),
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("end_date", LocalDate.class),
+                rs.getString("reason"),
+                createdAt == null ? null : createdAt.toLocalDateTime(),
+                rs.getLong("version"));
+    };
+
+    private static final String CALENDAR_SELECT = "SELECT l.id, l.employee_id, e.name, e.department, l.type, l.status, "
+            + "l.start_date, l.end_date FROM leave_requests l JOIN employees e ON e.id = l.employee_id ";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public LeaveRequestJdbcRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Serialise leave writes for one employee until the current
+     * transaction ends, so a check-then-insert cannot interleave with
+     * another request for the same employee.
+     */
+    public void lockEmployee(Long employeeId) {
+        jdbc.query("SELECT pg_advisory_xact_lock(:lockClass, :key)",
+                new MapSqlParameterSource()
+                        .addValue("lockClass", LOCK_CLASS)
+                        .addValue("key", Long.hashCode(employeeId)),
+                rs -> null);
+    }
+
+    /**
+     * Ids of the employee's pending or approved requests overlapping the
+     * inclusive range [start, end], other than {@code excludeId}.
+     */
+    public List<Long> findOverlapping(Long employeeId, LocalDate start, LocalDate end, Long excludeId) {
+        return jdbc.queryForList("SELECT id FROM leave_requests "
+                        + "WHERE employee_id = :employeeId AND status IN ('PENDING', 'APPROVED') "
+                        + "AND period && daterange(:start, :end, '[]') AND id <> :excludeId ORDER BY start_date",
+                new MapSqlParameterSource()
+                        .addValue("employeeId", employeeId)
+                        .addValue("start", start)
+                        .addValue("end", end)
+                        .addValue("excludeId", excludeId == null ? -1L : excludeId),
+                Long.class);
+    }
+
+    /**
+     * Every pending or approved request, for loading the leave calendar.
+     */
+    public List<LeaveCalendarEntry> findActive() {
+        return jdbc.query(CALENDAR_SELECT + "WHERE l.status IN ('PENDING', 'APPROVED') "
+                        + "AND l.start_date IS NOT NULL AND l.end_date IS NOT NULL",
+                CALENDAR_MAPPER);
+    }
+
+    /**
+     * One page of the admin listing, newest start date first.  Every
+     * filter is optional; {@code from}/{@code to} select requests whose
+     * range overlaps them.  (afterDate, afterId) is the keyset cursor.
+     * Requests without dates are not listed.
+     */
+    public List<LeaveRequestView> findPage(LeaveStatus status, LeaveType type, LocalDate from, LocalDate to,
+                                           String department, LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT l.id, l.employee_id, e.name, e.department, l.type, l.status, "
+                + "l.start_date, l.end_date, l.reason, l.created_at, l.version "
+                + "FROM leave_requests l JOIN employees e ON e.id = l.employee_id "
+                + "WHERE l.start_date IS NOT NULL");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (status != null) {
+            sql.append(" AND l.status = :status");
+            params.addValue("status", status.name());
+        }
+        if (type != null) {
+            sql.append(" AND l.type = :type");
+            params.addValue("type", type.name());
+        }
+        if (from != null) {
+            sql.append(" AND l.end_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND l.start_date <= :to");
+            params.addValue("to", to);
+        }
+        if (department != null) {
+            sql.append(" AND e.department = :department");
+            params.addValue("department", department);
+        }
+        if (afterDate != null) {
+            sql.append(" AND (l.start_date < :afterDate OR (l.start_date = :afterDate AND l.id < :afterId))");
+            params.addValue("afterDate", afterDate).addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY l.start_date DESC, l.id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params, VIEW_MAPPER);
+    }
+
+    /**
+     * Pending requests per department; employees without a department
+     * are counted under "".
+     */
+    public Map<String, Long> countPendingByDepartment() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbc.query("SELECT COALESCE(e.department, '') AS department, COUNT(*) AS pending "
+                        + "FROM leave_requests l JOIN employees e ON e.id = l.employee_id "
+                        + "WHERE l.status = 'PENDING' GROUP BY 1",
+                rs -> {
+                    counts.put(rs.getString("department"), rs.getLong("pending"));
+                });
+        return counts;
+    }
+
+    /**
+     * Move the given requests from PENDING to {@code status} in one
+     * statement, bumping their version.  {@code expectedVersions} maps an
+     * id to the version it must still have, or to null for no check.
+     * Requests no longer pending or at another version, and requests
+     * without a leave type when approving, are left alone.  Returns the
+     * updated requests.
+     */
+    public List<Decided> decidePending(Map<Long, Long> expectedVersions, LeaveStatus status) {
+        if (expectedVersions.isEmpty()) return List.of();
+        StringBuilder values = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource("status", status.name());
+        int i = 0;
+        for (Map.Entry<Long, Long> e : expectedVersions.entrySet()) {
+            if (i > 0) values.append(", ");
+            values.append("(CAST(:i").append(i).append(" AS BIGINT), CAST(:v").append(i).append(" AS BIGINT))");
+            params.addValue("i" + i, e.getKey()).addValue("v" + i, e.getValue());
+            i++;
+        }
+        String sql = "UPDATE leave_requests l SET status = :status, version = l.version + 1 "
+                + "FROM (VALUES " + values + ") AS t (id, version), employees e "
+                + "WHERE l.id = t.id AND e.id = l.employee_id AND l.status = 'PENDING' "
+                + "AND (t.version IS NULL OR l.version = t.version) "
+                + (status == LeaveStatus.APPROVED ? "AND l.type IS NOT NULL " : "")
+                + "RETURNING l.id, l.employee_id, e.name, e.department, l.type, l.status, l.start_date, l.end_date, l.version";
+        return jdbc.query(sql, params, (rs, rowNum) -> new Decided(CALENDAR_MAPPER.mapRow(rs, rowNum), rs.getLong("version")));
+    }
+
+    /**
+     * Current status, version and type of the given requests; missing
+     * ids are absent from the result.
+     */
+    public Map<Long, StatusVersion> findStatusVersions(Collection<Long> ids) {
+        Map<Long, StatusVersion> found = new HashMap<>();
+        if (ids.isEmpty()) return found;
+        jdbc.query("SELECT id, status, version, type FROM leave_requests WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    String type = rs.getString("type");
+                    found.put(rs.getLong("id"), new StatusVersion(LeaveStatus.valueOf(rs.getString("status")), rs.getLong("version"),
+                            type == null ? null : LeaveType.valueOf(type)));
+                });
+        return found;
+    }
+
+    public record Decided(LeaveCalendarEntry request, long version) {}
+
+    public record StatusVersion(LeaveStatus status, long version, LeaveType type) {}
+}
@@ -3,10 +3,15 @@ package com.smarthireflow.hrbackend.repository;
 import com.smarthireflow.hrbackend.model.Employee;
 import com.smarthireflow.hrbackend.model.LeaveRequest;
 import com.smarthireflow.hrbackend.model.LeaveStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for managing LeaveRequest entities.  Includes
@@ -18,4 +23,12 @@ import java.util.List;
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
     List<LeaveRequest> findByEmployee(Employee employee);
     List<LeaveRequest> findByStatus(LeaveStatus status);
+
+    /**
+     * Load a request with a row lock held until the transaction ends, for
+     * status changes that must see the status they are changing from.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from LeaveRequest r where r.id = :id")
+    Optional<LeaveRequest> findByIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
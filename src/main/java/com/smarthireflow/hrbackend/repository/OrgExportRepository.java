@@ -0,0 +1,134 @@
+package com.smarthireflow.hrbackend.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Whole-table reads for org-wide exports.  Rows are fetched from a
+ * server-side cursor {@code export.fetch-size} at a time and handed to
+ * a {@link RowSink} one by one, so no table is ever held in memory.
+ * Call from within a transaction; PostgreSQL ignores the fetch size
+ * otherwise.
+ */
+@Repository
+public class OrgExportRepository {
+
+    /**
+     * Exported tables.  Columns are listed explicitly so nothing
+     * sensitive (e.g. credentials) is exported by accident.
+     */
+    public enum Table {
+        EMPLOYEES("employees", "employees",
+                "SELECT id, name, email, department, region, role FROM employees ORDER BY id"),
+        // live and archived months; the row estimate only covers live ones
+        ATTENDANCE("attendance", "attendance_records",
+                "SELECT id, employee_id, date, clock_in_time, clock_out_time, status, auto_closed "
+                        + "FROM attendance_records_all ORDER BY date, id"),
+        LEAVES("leaves", "leave_requests",
+                "SELECT id, employee_id, type, status, start_date, end_date, reason, created_at "
+                        + "FROM leave_requests ORDER BY id"),
+        INVENTORY("inventory", "inventory_items",
+                "SELECT id, item_name, category, serial_number, status, condition, assigned_to_id, assigned_date, "
+                        + "return_date, purchase_date, cost, value, warranty, notes FROM inventory_items ORDER BY id"),
+        INVENTORY_ASSIGNMENTS("inventoryAssignments", "inventory_assignments",
+                "SELECT id, item_id, employee_id, event_type, recorded_by, occurred_at "
+                        + "FROM inventory_assignments ORDER BY id");
+
+        private final String exportName;
+        private final String relation;
+        private final String sql;
+
+        Table(String exportName, String relation, String sql) {
+            this.exportName = exportName;
+            this.relation = relation;
+            this.sql = sql;
+        }
+
+        public String exportName() {
+            return exportName;
+        }
+    }
+
+    /**
+     * Receives one table's rows.  Values are null, String, Number,
+     * Boolean, LocalDate, LocalDateTime or OffsetDateTime.
+     */
+    public interface RowSink {
+        void columns(String[] names) throws IOException;
+
+        void row(Object[] values) throws IOException;
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public OrgExportRepository(DataSource dataSource,
+                               @Value("${export.fetch-size:500}") int fetchSize) {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.jdbc = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Approximate row count from planner statistics, summed over
+     * partitions; 0 if the table has never been analysed.  Only used to
+     * report progress, so archived attendance is not counted.
+     */
+    public long estimateRows(Table table) {
+        Long rows = jdbc.queryForObject("SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::bigint FROM pg_class c "
+                        + "WHERE c.oid = CAST(:relation AS regclass) "
+                        + "OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = CAST(:relation AS regclass))",
+                new MapSqlParameterSource("relation", table.relation), Long.class);
+        return rows == null ? 0 : rows;
+    }
+
+    public void export(Table table, RowSink sink) throws IOException {
+        try {
+            jdbc.query(table.sql, new MapSqlParameterSource(), (ResultSetExtractor<Void>) rs -> {
+                ResultSetMetaData meta = rs.getMetaData();
+                int n = meta.getColumnCount();
+                String[] names = new String[n];
+                String[] types = new String[n];
+                for (int i = 0; i < n; i++) {
+                    names[i] = meta.getColumnLabel(i + 1);
+                    types[i] = meta.getColumnTypeName(i + 1);
+                }
+                try {
+                    sink.columns(names);
+                    while (rs.next()) {
+                        Object[] values = new Object[n];
+                        for (int i = 0; i < n; i++) values[i] = value(rs, i + 1, types[i]);
+                        sink.row(values);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object value(ResultSet rs, int column, String type) throws SQLException {
+        return switch (type) {
+            case "date" -> rs.getObject(column, LocalDate.class);
+            case "timestamp" -> rs.getObject(column, LocalDateTime.class);
+            case "timestamptz" -> rs.getObject(column, OffsetDateTime.class);
+            default -> rs.getObject(column);
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.InventoryAssignmentEntry;
+import com.smarthireflow.hrbackend.dto.InventoryItemView;
+import com.smarthireflow.hrbackend.dto.LeaveRequestView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.stream.Stream;
+
+/**
+ * Streaming reads of everything stored about one employee, for the
+ * personal data export.  Rows are fetched from a server-side cursor
+ * {@code export.fetch-size} at a time, so a long history is never held
+ * in memory.  PostgreSQL only uses a cursor inside a transaction: call
+ * these from within one and close each stream before it ends.
+ */
+@Repository
+public class PersonalDataRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public PersonalDataRepository(DataSource dataSource,
+                                  @Value("${export.fetch-size:500}") int fetchSize) {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.jdbc = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public Stream<AttendanceRecordView> attendance(Long employeeId) {
+        return jdbc.queryForStream("SELECT " + AttendanceRecordJdbcRepository.COLUMNS + " FROM attendance_records_all "
+                        + "WHERE employee_id = :employeeId ORDER BY date, id",
+                new MapSqlParameterSource("employeeId", employeeId),
+                AttendanceRecordJdbcRepository.VIEW_MAPPER);
+    }
+
+    public Stream<LeaveRequestView> leaves(Long employeeId) {
+        return jdbc.queryForStream("SELECT l.id, l.employee_id, e.name, e.department, l.type, l.status, l.start_date, "
+                        + "l.end_date, l.reason, l.created_at, l.version "
+                        + "FROM leave_requests l JOIN employees e ON e.id = l.employee_id "
+                        + "WHERE l.employee_id = :employeeId ORDER BY l.start_date, l.id",
+                new MapSqlParameterSource("employeeId", employeeId),
+                LeaveRequestJdbcRepository.VIEW_MAPPER);
+    }
+
+    public Stream<InventoryItemView> inventory(Long employeeId) {
+        return jdbc.queryForStream(InventoryItemJdbcRepository.VIEW_SELECT + "WHERE i.assigned_to_id = :employeeId ORDER BY i.id",
+                new MapSqlParameterSource("employeeId", employeeId),
+                InventoryItemJdbcRepository.VIEW_MAPPER);
+    }
+
+    public Stream<InventoryAssignmentEntry> inventoryHistory(Long employeeId) {
+        return jdbc.queryForStream(InventoryAssignmentRepository.ENTRY_SELECT
+                        + "WHERE a.employee_id = :employeeId ORDER BY a.occurred_at, a.id",
+                new MapSqlParameterSource("employeeId", employeeId),
+                InventoryAssignmentRepository.ENTRY_MAPPER);
+    }
+}
@@ -0,0 +1,79 @@
+package com.smarthireflow.hrbackend.repository;
+
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Range reads behind the team calendar: one query per table for a whole
+ * department, streamed to the caller row by row so no per-employee
+ * lookups or intermediate entity lists are needed.
+ */
+@Repository
+public class TeamCalendarRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public TeamCalendarRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<Member> findMembers(String department) {
+        return jdbc.query("SELECT id, name, region FROM employees WHERE department = :department ORDER BY name, id",
+                new MapSqlParameterSource("department", department),
+                (rs, rowNum) -> new Member(rs.getLong("id"), rs.getString("name"), rs.getString("region")));
+    }
+
+    /**
+     * Pending and approved leave of the department overlapping
+     * [from, to].
+     */
+    public void forEachLeave(String department, LocalDate from, LocalDate to, LeaveRowHandler handler) {
+        jdbc.query("SELECT l.employee_id, l.status, l.start_date, l.end_date "
+                        + "FROM leave_requests l JOIN employees e ON e.id = l.employee_id "
+                        + "WHERE e.department = :department AND l.status IN ('PENDING', 'APPROVED') "
+                        + "AND l.period && daterange(:from, :to, '[]')",
+                range(department, from, to),
+                (RowCallbackHandler) rs -> handler.accept(
+                        rs.getLong("employee_id"),
+                        LeaveStatus.valueOf(rs.getString("status")),
+                        rs.getObject("start_date", LocalDate.class),
+                        rs.getObject("end_date", LocalDate.class)));
+    }
+
+    /**
+     * Days in [from, to] on which an employee of the department has an
+     * attendance record.  The date bounds prune to the partitions of the
+     * range.
+     */
+    public void forEachAttendanceDay(String department, LocalDate from, LocalDate to, AttendanceRowHandler handler) {
+        jdbc.query("SELECT a.employee_id, a.date FROM attendance_records a JOIN employees e ON e.id = a.employee_id "
+                        + "WHERE e.department = :department AND a.date BETWEEN :from AND :to",
+                range(department, from, to),
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong("employee_id"), rs.getObject("date", LocalDate.class)));
+    }
+
+    private static MapSqlParameterSource range(String department, LocalDate from, LocalDate to) {
+        return new MapSqlParameterSource()
+                .addValue("department", department)
+                .addValue("from", from)
+                .addValue("to", to);
+    }
+
+    public record Member(long id, String name, String region) {}
+
+    @FunctionalInterface
+    public interface LeaveRowHandler {
+        void accept(long employeeId, LeaveStatus status, LocalDate start, LocalDate end);
+    }
+
+    @FunctionalInterface
+    public interface AttendanceRowHandler {
+        void accept(long employeeId, LocalDate date);
+    }
+}
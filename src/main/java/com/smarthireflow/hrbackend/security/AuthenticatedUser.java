@@ -0,0 +1,30 @@
+package com.smarthireflow.hrbackend.security;
+
+import java.security.Principal;
+
+/**
+ * Principal placed in the security context by {@link JwtAuthFilter}.
+ * It carries the ids resolved from the token so controllers can take
+ * it via {@code @AuthenticationPrincipal} instead of looking the user
+ * and employee up by email on every request.  {@link #getName()} still
+ * returns the email, so {@code Authentication.getName()} is unchanged.
+ * The {@code require} accessors throw {@link IdentityNotFoundException}
+ * when the id is missing.
+ */
+public record AuthenticatedUser(Long userId, Long employeeId, String email, String role) implements Principal {
+
+  @Override
+  public String getName() {
+    return email;
+  }
+
+  public Long requireUserId() {
+    if (userId == null) throw new IdentityNotFoundException("User not found");
+    return userId;
+  }
+
+  public Long requireEmployeeId() {
+    if (employeeId == null) throw new IdentityNotFoundException("Employee not found");
+    return employeeId;
+  }
+}
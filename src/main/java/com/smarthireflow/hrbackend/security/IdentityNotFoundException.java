@@ -0,0 +1,14 @@
+package com.smarthireflow.hrbackend.security;
+
+/**
+ * The authenticated principal has no user or employee record to act
+ * on, e.g. a user without an employee record calling an employee
+ * endpoint.  Answered with 404 by
+ * {@link com.smarthireflow.hrbackend.controller.ApiExceptionHandler}.
+ */
+public class IdentityNotFoundException extends RuntimeException {
+
+  public IdentityNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -1,10 +1,10 @@
 package com.smarthireflow.hrbackend.security;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.smarthireflow.hrbackend.service.IdentityCache;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -22,9 +22,13 @@ import java.util.List;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
   private final JwtService jwt;
+  private final VerifiedTokenCache tokenCache;
+  private final IdentityCache identities;
 
-  public JwtAuthFilter(JwtService jwt) {
+  public JwtAuthFilter(JwtService jwt, VerifiedTokenCache tokenCache, IdentityCache identities) {
     this.jwt = jwt;
+    this.tokenCache = tokenCache;
+    this.identities = identities;
   }
 
   @Override
@@ -35,11 +39,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
       String token = header.substring(7);
       try {
-        Claims claims = jwt.parse(token).getPayload();
-        String email = claims.getSubject();
-        String role = (String) claims.get("role");
-        List<GrantedAuthority> auths = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-        Authentication auth = new UsernamePasswordAuthenticationToken(email, null, auths);
+        // The same token arrives on every request of a session, so only
+        // verify the signature and parse the claims on a cache miss.
+        VerifiedToken verified = tokenCache.get(token);
+        if (verified == null) {
+          verified = jwt.verify(token);
+          tokenCache.put(token, verified);
+        }
+        List<GrantedAuthority> auths = List.of(new SimpleGrantedAuthority("ROLE_" + verified.role()));
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal(verified), null, auths);
         SecurityContextHolder.getContext().setAuthentication(auth);
       } catch (Exception ignored) {
         // invalid token -> continue unauthenticated
@@ -47,4 +55,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     }
     chain.doFilter(req, res);
   }
+
+  /**
+   * Build the request principal from the token.  Older tokens carry
+   * only the email; their ids (and the employee id of users who had no
+   * employee record at login) are filled in from the identity cache.
+   */
+  private AuthenticatedUser principal(VerifiedToken token) {
+    Long userId = token.userId() != null
+        ? token.userId() : identities.userId(token.subject()).orElse(null);
+    Long employeeId = token.employeeId() != null
+        ? token.employeeId() : identities.employeeId(token.subject()).orElse(null);
+    return new AuthenticatedUser(userId, employeeId, token.subject(), token.role());
+  }
 }
\ No newline at end of file
@@ -7,14 +7,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class JwtService {
-  private final Key key;
+  private final SecretKey key;
+  private final JwtParser parser;
   private final String issuer;
   private final long expirationMinutes;
 
@@ -22,23 +23,53 @@ public class JwtService {
                     @Value("${jwt.issuer}") String issuer,
                     @Value("${jwt.expiration-minutes}") long expirationMinutes) {
     this.key = Keys.hmacShaKeyFor(secret.getBytes());
+    // JwtParser is immutable and thread-safe; building it resolves the
+    // JSON deserializer and codecs, so do that once rather than per call.
+    this.parser = Jwts.parser().verifyWith(key).build();
     this.issuer = issuer;
     this.expirationMinutes = expirationMinutes;
   }
 
-  public String generate(String subject, Role role) {
+  /**
+   * Issue a token for the given user.  The user id and, when the user
+   * has an employee record, the employee id are embedded as claims so
+   * requests can be attributed without looking the email up again.
+   */
+  public String generate(String subject, Role role, Long userId, Long employeeId) {
     Instant now = Instant.now();
+    Map<String, Object> claims = new HashMap<>();
+    claims.put("role", role.name());
+    if (userId != null) claims.put("uid", userId);
+    if (employeeId != null) claims.put("eid", employeeId);
     return Jwts.builder()
         .subject(subject)
         .issuer(issuer)
         .issuedAt(Date.from(now))
         .expiration(Date.from(now.plusSeconds(expirationMinutes * 60)))
-        .claims(Map.of("role", role.name()))
+        .claims(claims)
         .signWith(key)
         .compact();
   }
 
   public Jws<Claims> parse(String token) {
-    return Jwts.parser().verifyWith((SecretKey) key).build().parseSignedClaims(token);
+    return parser.parseSignedClaims(token);
+  }
+
+  /**
+   * Verify the token and extract the claims the request filter needs.
+   * Throws a {@link JwtException} if the signature is invalid or the
+   * token has expired.
+   */
+  public VerifiedToken verify(String token) {
+    Claims claims = parse(token).getPayload();
+    Date exp = claims.getExpiration();
+    return new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+        longClaim(claims, "uid"), longClaim(claims, "eid"),
+        exp != null ? exp.toInstant() : null);
+  }
+
+  private static Long longClaim(Claims claims, String name) {
+    // JSON numbers come back as Integer or Long depending on magnitude
+    return claims.get(name) instanceof Number n ? n.longValue() : null;
   }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.smarthireflow.hrbackend.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -35,8 +36,12 @@ public class SecurityConfig {
       .authorizeHttpRequests(auth -> auth
           // Always allow CORS preflight requests
           .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+          // Async dispatches (e.g. completing an SSE stream) were authorized on the original request
+          .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
           .requestMatchers("/auth/**").permitAll()
           .requestMatchers(HttpMethod.GET, "/health").permitAll()
+          // Export downloads are authorized by the random token in the path
+          .requestMatchers(HttpMethod.GET, "/exports/download/*").permitAll()
           .requestMatchers("/system/**").hasRole("SYSTEM_ENGINEER")
           .requestMatchers("/admin/**").hasAnyRole("MANAGER","SYSTEM_ENGINEER")
           .requestMatchers("/employee/**").hasAnyRole("EMPLOYEE","MANAGER","SYSTEM_ENGINEER")
@@ -59,6 +64,7 @@ public class SecurityConfig {
     cfg.setAllowedOriginPatterns(List.of("*"));
     cfg.setAllowedMethods(List.of("*"));
     cfg.setAllowedHeaders(List.of("*"));
+    cfg.setExposedHeaders(List.of("X-Next-Cursor", "ETag"));
     cfg.setAllowCredentials(true);
     cfg.setMaxAge(3600L);
     var source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,18 @@
+package com.smarthireflow.hrbackend.security;
+
+import java.time.Instant;
+
+/**
+ * The parts of a JWT the request filter needs once its signature has
+ * been checked: the subject, the role claim, the user and employee
+ * ids and the expiry.  Instances are what {@link VerifiedTokenCache}
+ * keeps, so repeated requests with the same bearer token skip
+ * signature verification and claim parsing.  The ids are null for
+ * tokens issued before they were embedded as claims.
+ */
+public record VerifiedToken(String subject, String role, Long userId, Long employeeId, Instant expiresAt) {
+
+  public boolean isExpired(Instant now) {
+    return expiresAt != null && !expiresAt.isAfter(now);
+  }
+}
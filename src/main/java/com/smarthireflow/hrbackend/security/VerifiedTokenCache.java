@@ -0,0 +1,101 @@
+package com.smarthireflow.hrbackend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, expiry-aware cache of tokens that have already passed
+ * signature verification.  Entries are keyed by the SHA-256 digest of
+ * the whole token so raw bearer tokens are never retained in memory,
+ * and an entry is dropped as soon as the token's own {@code exp} has
+ * passed.  Setting {@code jwt.cache.max-entries} to 0 disables caching.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  private final int maxEntries;
+  private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public VerifiedTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the cached verification result for the token, or null when
+   * the token has not been seen, has been evicted or has expired.
+   */
+  public VerifiedToken get(String token) {
+    if (maxEntries <= 0) {
+      misses.increment();
+      return null;
+    }
+    String key = digest(token);
+    VerifiedToken cached = entries.get(key);
+    if (cached == null) {
+      misses.increment();
+      return null;
+    }
+    if (cached.isExpired(Instant.now())) {
+      entries.remove(key, cached);
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return cached;
+  }
+
+  public void put(String token, VerifiedToken verified) {
+    // Tokens without an expiry are never cached: there is no point at
+    // which the entry could safely be considered stale.
+    if (maxEntries <= 0 || verified.expiresAt() == null) return;
+    if (entries.size() >= maxEntries) evict();
+    entries.put(digest(token), verified);
+  }
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), entries.size(), maxEntries);
+  }
+
+  /**
+   * Make room for new entries.  Expired tokens go first; if the cache
+   * is still full the entries closest to expiry (the oldest sessions,
+   * since every token is issued with the same lifetime) are trimmed
+   * until a tenth of the capacity is free again.
+   */
+  private synchronized void evict() {
+    if (entries.size() < maxEntries) return;
+    Instant now = Instant.now();
+    entries.values().removeIf(v -> v.isExpired(now));
+    int target = maxEntries - Math.max(1, maxEntries / 10);
+    if (entries.size() <= target) return;
+    entries.entrySet().stream()
+        .sorted(Comparator.comparing(e -> e.getValue().expiresAt()))
+        .limit(entries.size() - target)
+        .map(Map.Entry::getKey)
+        .toList()
+        .forEach(entries::remove);
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  public record Stats(long hits, long misses, int size, int maxEntries) {}
+}
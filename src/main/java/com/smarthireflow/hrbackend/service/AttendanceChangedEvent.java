@@ -0,0 +1,13 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+
+import java.util.List;
+
+/**
+ * Published by the attendance write paths with the records a clock-in
+ * or clock-out created or changed.  Listeners that keep derived state
+ * should use {@code @TransactionalEventListener} so they only see
+ * committed changes.
+ */
+public record AttendanceChangedEvent(List<AttendanceRecordView> records) {}
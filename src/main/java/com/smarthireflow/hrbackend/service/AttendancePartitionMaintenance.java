@@ -0,0 +1,89 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.AttendancePartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of attendance_records in shape: creates
+ * partitions {@code attendance.partitions.months-ahead} months into the
+ * future, moves rows that landed in the default partition into
+ * partitions of their own and, when
+ * {@code attendance.partitions.retention-months} is positive, moves
+ * months older than that into attendance_records_archive.  Each archived
+ * month is its own transaction.  Archived records stay readable through
+ * the attendance_records_all view, which history, rollup rebuilds and
+ * exports read.
+ *
+ * <p>Runs daily by default ({@code attendance.partitions.maintenance-cron})
+ * and at startup so a fresh deployment has its future partitions.  An
+ * advisory lock keeps several instances from doing the same work.
+ */
+@Service
+public class AttendancePartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendancePartitionMaintenance.class);
+
+    private final AttendancePartitionRepository partitions;
+    private final TransactionTemplate tx;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public AttendancePartitionMaintenance(AttendancePartitionRepository partitions,
+                                          TransactionTemplate tx,
+                                          @Value("${attendance.partitions.months-ahead:3}") int monthsAhead,
+                                          @Value("${attendance.partitions.retention-months:0}") int retentionMonths) {
+        this.partitions = partitions;
+        this.tx = tx;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${attendance.partitions.maintenance-cron:0 15 2 * * *}")
+    void scheduledMaintenance() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("Attendance partition maintenance failed", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        scheduledMaintenance();
+    }
+
+    public Result maintain() {
+        LocalDate today = LocalDate.now();
+        Integer created = tx.execute(status -> partitions.tryMaintenanceLock()
+                ? partitions.ensurePartitions(today, today.plusMonths(monthsAhead)) + partitions.drainDefaultPartition() : 0);
+
+        List<YearMonth> archived = new ArrayList<>();
+        long archivedRecords = 0;
+        if (retentionMonths > 0) {
+            YearMonth cutoff = YearMonth.from(today).minusMonths(retentionMonths);
+            for (YearMonth month : partitions.attachedMonths()) {
+                if (!month.isBefore(cutoff)) break;
+                Integer records = tx.execute(status -> partitions.tryMaintenanceLock() ? partitions.archiveMonth(month) : -1);
+                if (records == null || records < 0) continue;
+                archived.add(month);
+                archivedRecords += records;
+                log.info("Archived attendance partition {} ({} records)", month, records);
+            }
+        }
+        return new Result(created != null ? created : 0, archived, archivedRecords);
+    }
+
+    public record Result(int partitionsCreated, List<YearMonth> monthsArchived, long recordsArchived) {}
+}
@@ -0,0 +1,178 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceMonthSummary;
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.repository.AttendanceRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the monthly attendance rollup (worked minutes, days present
+ * and late arrivals per employee and month).  Completed records are
+ * added incrementally by the clock-out paths in the same transaction
+ * that completes them, so summaries read a handful of rollup rows no
+ * matter how much history exists.  Summaries are returned with the
+ * month's working days from {@link WorkingDayCalendar} for comparison.
+ *
+ * <p>{@link #rebuild()} recomputes the table from live and archived
+ * records (attendance_records_all),
+ * one block of employee ids per transaction with blocks processed in
+ * parallel; see {@link AttendanceRollupRepository} for how a block's
+ * rebuild is kept from racing with clock-outs.  It runs on
+ * {@code attendance.rollup.rebuild-cron} when configured and can be
+ * triggered from the system endpoints, e.g. after changing the shift
+ * start or grace period.  On startup a rebuild also runs in the
+ * background if the rollup is still empty while completed records
+ * exist, so history from before the rollup was introduced is counted
+ * without manual steps.
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollupService.class);
+
+    private final AttendanceRollupRepository rollups;
+    private final WorkingDayCalendar calendar;
+    private final TransactionTemplate tx;
+    private final LocalTime lateAfter;
+    private final ExecutorService rebuildPool;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final boolean backfillOnStartup;
+
+    public AttendanceRollupService(AttendanceRollupRepository rollups,
+                                   WorkingDayCalendar calendar,
+                                   TransactionTemplate tx,
+                                   @Value("${attendance.shift-start:09:00}") LocalTime shiftStart,
+                                   @Value("${attendance.late-grace-minutes:5}") int lateGraceMinutes,
+                                   @Value("${attendance.rollup.rebuild-parallelism:4}") int parallelism,
+                                   @Value("${attendance.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.rollups = rollups;
+        this.calendar = calendar;
+        this.tx = tx;
+        this.lateAfter = shiftStart.plusMinutes(lateGraceMinutes);
+        this.backfillOnStartup = backfillOnStartup;
+        this.rebuildPool = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "attendance-rollup-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuildPool.shutdownNow();
+    }
+
+    /**
+     * Add records that have just been completed to their months.  Must
+     * be called inside the transaction that completed them.
+     */
+    public void recordCompleted(Collection<AttendanceRecordView> completed) {
+        if (!completed.isEmpty()) rollups.addCompleted(completed, lateAfter);
+    }
+
+    /**
+     * Recompute the months of the given records from raw data, for
+     * records whose times or status changed after they were counted.
+     * Must be called inside the transaction that changed them.
+     */
+    public void refreshMonthsOf(Collection<AttendanceRecordView> records) {
+        List<List<Object>> months = records.stream()
+                .map(r -> List.<Object>of(r.employeeId(), r.date().withDayOfMonth(1)))
+                .distinct()
+                .toList();
+        rollups.refreshMonths(months, lateAfter);
+    }
+
+    public List<AttendanceMonthSummary> forEmployee(Long employeeId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        String region = calendar.regionOf(employeeId);
+        return rollups.findForEmployee(employeeId, from, to).stream()
+                .map(s -> s.withWorkingDays(calendar.workingDays(region, s.month())))
+                .toList();
+    }
+
+    public List<AttendanceMonthSummary> forMonth(YearMonth month, String department) {
+        List<AttendanceMonthSummary> rows = rollups.findForMonth(month, department);
+        Map<Long, String> regions = calendar.regionsOf(rows.stream().map(AttendanceMonthSummary::employeeId).toList());
+        return rows.stream()
+                .map(s -> s.withWorkingDays(calendar.workingDays(regions.get(s.employeeId()), month)))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillIfEmpty() {
+        if (!backfillOnStartup) return;
+        Thread backfill = new Thread(() -> {
+            try {
+                if (rollups.needsBackfill()) {
+                    log.info("Attendance rollup is empty; rebuilding it from existing records");
+                    rebuild();
+                }
+            } catch (RuntimeException e) {
+                log.error("Attendance rollup backfill failed", e);
+            }
+        }, "attendance-rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    @Scheduled(cron = "${attendance.rollup.rebuild-cron:-}")
+    void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Scheduled attendance rollup rebuild failed", e);
+        }
+    }
+
+    /**
+     * Recompute the whole rollup from raw attendance records.  Returns
+     * the number of rollup rows written.  Only one rebuild runs at a
+     * time; a concurrent call fails with IllegalStateException.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("An attendance rollup rebuild is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (int block : rollups.employeeBlocks()) {
+                chunks.add(rebuildPool.submit(() -> tx.execute(status -> rollups.rebuildBlock(block, lateAfter))));
+            }
+            int rows = 0;
+            for (Future<Integer> chunk : chunks) rows += chunk.get();
+            log.info("Rebuilt attendance rollup: {} rows in {} chunks, {} ms", rows, chunks.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding attendance rollup", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
@@ -1,78 +1,128 @@
 package com.smarthireflow.hrbackend.service;
 
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.PageCursor;
 import com.smarthireflow.hrbackend.model.*;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
 import com.smarthireflow.hrbackend.repository.AttendanceRecordRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Service encapsulating business logic for attendance records.
  * Provides methods to clock in/out and to query records for a
- * particular employee.  It ensures that a user cannot clock in
- * twice on the same day without clocking out first and updates
- * the record status when clocking out.
+ * particular employee.  Each employee has at most one record per
+ * day (enforced by a unique index); clock-in and clock-out are single
+ * conditional statements against it, so repeated or concurrent taps
+ * are idempotent.
  */
 @Service
 public class AttendanceService {
 
     private final AttendanceRecordRepository attendanceRecordRepository;
-    private final EmployeeService employeeService;
+    private final AttendanceRecordJdbcRepository attendanceJdbc;
+    private final ClockEventBuffer clockEventBuffer;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
 
     public AttendanceService(AttendanceRecordRepository attendanceRecordRepository,
-                             EmployeeService employeeService) {
+                             AttendanceRecordJdbcRepository attendanceJdbc,
+                             ClockEventBuffer clockEventBuffer,
+                             AttendanceRollupService rollupService,
+                             TransactionTemplate tx,
+                             ApplicationEventPublisher events) {
         this.attendanceRecordRepository = attendanceRecordRepository;
-        this.employeeService = employeeService;
+        this.attendanceJdbc = attendanceJdbc;
+        this.clockEventBuffer = clockEventBuffer;
+        this.rollupService = rollupService;
+        this.tx = tx;
+        this.events = events;
     }
 
     /**
-     * Clock the given employee in.  If an attendance record for
-     * today already exists and is still in progress, it simply
-     * returns that record.  Otherwise a new record is created.
+     * Clock the given employee in.  Inserts today's record unless the
+     * employee already has one, in which case the existing record is
+     * returned unchanged (whether still in progress or completed).
+     * When buffered ingestion is enabled the event goes through
+     * {@link ClockEventBuffer} and is written with its batch.
      */
-    public AttendanceRecord clockIn(Long employeeId) {
-        Employee employee = employeeService.findById(employeeId)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        LocalDate today = LocalDate.now();
-        List<AttendanceRecord> todays = attendanceRecordRepository.findByEmployeeAndDate(employee, today);
-        if (!todays.isEmpty()) {
-            AttendanceRecord existing = todays.get(0);
-            if (existing.getStatus() == AttendanceStatus.IN_PROGRESS) {
-                return existing;
-            }
+    public AttendanceRecordView clockIn(Long employeeId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (clockEventBuffer.isEnabled()) {
+            return clockEventBuffer.submit(employeeId, ClockEventType.IN, now);
+        }
+        LocalDate today = now.toLocalDate();
+        try {
+            Optional<AttendanceRecordView> inserted = attendanceJdbc.insertIfAbsent(employeeId, today, now);
+            inserted.ifPresent(r -> events.publishEvent(new AttendanceChangedEvent(List.of(r))));
+            return inserted
+                    .or(() -> attendanceJdbc.find(employeeId, today))
+                    .orElseThrow(() -> new IllegalStateException("Attendance record disappeared during clock-in"));
+        } catch (DataIntegrityViolationException e) {
+            // the only constraint an insert can violate besides the
+            // (employee_id, date) index handled above is the employee FK
+            throw new IllegalArgumentException("Employee not found", e);
         }
-        AttendanceRecord record = new AttendanceRecord(employee, today, LocalDateTime.now());
-        return attendanceRecordRepository.save(record);
     }
 
     /**
-     * Clock out the employee by updating the first in‑progress record
-     * for today.  Throws if no record is found.
+     * Clock out the employee by completing today's in‑progress record.
+     * A record that is already completed is returned unchanged.  Throws
+     * {@link NothingToClockOutException} if the employee has not clocked
+     * in today.  The completed record is added to the monthly rollup in
+     * the same transaction (the buffered path does the same per batch,
+     * so no transaction is held here while waiting for it).
      */
-    public AttendanceRecord clockOut(Long employeeId) {
-        Employee employee = employeeService.findById(employeeId)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        LocalDate today = LocalDate.now();
-        List<AttendanceRecord> todays = attendanceRecordRepository.findByEmployeeAndDate(employee, today);
-        if (todays.isEmpty()) {
-            throw new IllegalStateException("No attendance record found for employee to clock out");
+    public AttendanceRecordView clockOut(Long employeeId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (clockEventBuffer.isEnabled()) {
+            return clockEventBuffer.submit(employeeId, ClockEventType.OUT, now);
         }
-        AttendanceRecord record = todays.get(0);
-        record.setClockOutTime(LocalDateTime.now());
-        record.setStatus(AttendanceStatus.COMPLETED);
-        return attendanceRecordRepository.save(record);
+        LocalDate today = now.toLocalDate();
+        Optional<AttendanceRecordView> completed = tx.execute(status -> {
+            Optional<AttendanceRecordView> r = attendanceJdbc.completeInProgress(employeeId, today, now);
+            r.ifPresent(record -> {
+                rollupService.recordCompleted(List.of(record));
+                events.publishEvent(new AttendanceChangedEvent(List.of(record)));
+            });
+            return r;
+        });
+        return completed
+                .or(() -> attendanceJdbc.find(employeeId, today))
+                .orElseThrow(NothingToClockOutException::new);
     }
 
     /**
-     * Returns all attendance records for a specific employee.
+     * Returns one page of an employee's attendance history, newest first,
+     * optionally restricted to the inclusive date range [from, to].
+     * Pass the previous page's {@code nextCursor} to continue.
      */
-    public List<AttendanceRecord> getAttendanceForEmployee(Long employeeId) {
-        Employee employee = employeeService.findById(employeeId)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        return attendanceRecordRepository.findByEmployee(employee);
+    public CursorPage<AttendanceRecordView> getAttendanceForEmployee(Long employeeId, LocalDate from, LocalDate to,
+                                                                     String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<AttendanceRecordView> rows = attendanceJdbc.findPage(employeeId, from, to,
+                after != null ? parseCursorDate(after) : null,
+                after != null ? after.id() : null,
+                limit + 1);
+        return CursorPage.of(rows, limit, r -> new PageCursor(r.date().toString(), r.id()));
+    }
+
+    private static LocalDate parseCursorDate(PageCursor cursor) {
+        try {
+            return LocalDate.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     public List<AttendanceRecord> findAll() {
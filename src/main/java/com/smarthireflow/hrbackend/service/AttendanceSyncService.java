@@ -0,0 +1,281 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.KioskClockEvent;
+import com.smarthireflow.hrbackend.dto.SyncEventResult;
+import com.smarthireflow.hrbackend.model.AttendanceStatus;
+import com.smarthireflow.hrbackend.model.ClockEventType;
+import com.smarthireflow.hrbackend.model.SyncEventStatus;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
+import com.smarthireflow.hrbackend.repository.AttendanceSyncRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies clock events uploaded in bulk by kiosks that were offline.
+ * Events are processed in chunks of {@code attendance.sync.batch-size},
+ * one transaction per chunk:
+ * <ol>
+ *   <li>client event ids are claimed in attendance_sync_events, so an
+ *       event already received (in this or an earlier upload) is
+ *       reported as DUPLICATE, with the outcome it got the first time,
+ *       and not applied twice;</li>
+ *   <li>the records of every (employee, day) touched are read and
+ *       locked with one query;</li>
+ *   <li>each day's events are replayed in time order against its
+ *       record: the earliest clock-in wins and the earliest clock-out
+ *       not before it completes the day, replacing an automatic
+ *       clock-out;</li>
+ *   <li>new records are inserted with one multi-row statement and
+ *       changed ones updated as one JDBC batch, and the months of
+ *       completed records are recomputed in the rollup.</li>
+ * </ol>
+ * Results are returned per event, in the order the events were sent.
+ */
+@Service
+public class AttendanceSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceSyncService.class);
+    private static final int CLIENT_ID_MAX_LENGTH = 100;
+    private static final long CLOCK_SKEW_MINUTES = 5;
+
+    private final AttendanceSyncRepository syncRepo;
+    private final AttendanceRecordJdbcRepository attendanceJdbc;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int maxAgeDays;
+    private final int dedupeRetentionDays;
+
+    public AttendanceSyncService(AttendanceSyncRepository syncRepo,
+                                 AttendanceRecordJdbcRepository attendanceJdbc,
+                                 AttendanceRollupService rollupService,
+                                 TransactionTemplate tx,
+                                 ApplicationEventPublisher events,
+                                 @Value("${attendance.sync.batch-size:500}") int batchSize,
+                                 @Value("${attendance.sync.max-age-days:31}") int maxAgeDays,
+                                 @Value("${attendance.sync.dedupe-retention-days:90}") int dedupeRetentionDays) {
+        this.syncRepo = syncRepo;
+        this.attendanceJdbc = attendanceJdbc;
+        this.rollupService = rollupService;
+        this.tx = tx;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.maxAgeDays = maxAgeDays;
+        this.dedupeRetentionDays = dedupeRetentionDays;
+    }
+
+    public List<SyncEventResult> sync(List<KioskClockEvent> uploaded) {
+        List<SyncEventResult> results = new ArrayList<>(uploaded.size());
+        for (int from = 0; from < uploaded.size(); from += batchSize) {
+            List<KioskClockEvent> chunk = uploaded.subList(from, Math.min(uploaded.size(), from + batchSize));
+            results.addAll(tx.execute(status -> syncChunk(chunk)));
+        }
+        return results;
+    }
+
+    @Scheduled(cron = "${attendance.sync.purge-cron:0 45 2 * * *}")
+    void purgeDedupeLog() {
+        try {
+            int purged = syncRepo.purgeReceivedBefore(LocalDateTime.now().minusDays(dedupeRetentionDays));
+            if (purged > 0) log.info("Purged {} kiosk sync events older than {} days", purged, dedupeRetentionDays);
+        } catch (RuntimeException e) {
+            log.warn("Purging kiosk sync events failed", e);
+        }
+    }
+
+    private List<SyncEventResult> syncChunk(List<KioskClockEvent> chunk) {
+        SyncEventResult[] results = new SyncEventResult[chunk.size()];
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate oldest = now.toLocalDate().minusDays(maxAgeDays);
+
+        // validate and drop repeats within the upload itself; those are
+        // answered once the first copy has its outcome
+        Map<String, Integer> firstIndex = new LinkedHashMap<>();
+        Map<Integer, Integer> repeats = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            KioskClockEvent e = chunk.get(i);
+            String problem = validate(e, now, oldest);
+            if (problem != null) {
+                results[i] = rejected(e, problem);
+            } else {
+                Integer first = firstIndex.putIfAbsent(e.clientEventId(), i);
+                if (first != null) repeats.put(i, first);
+            }
+        }
+        List<KioskClockEvent> candidates = firstIndex.values().stream().map(chunk::get).toList();
+
+        Set<String> claimed = syncRepo.claim(candidates);
+        List<String> seenBefore = candidates.stream().map(KioskClockEvent::clientEventId)
+                .filter(id -> !claimed.contains(id)).toList();
+        Map<String, SyncEventResult> previousOutcomes = syncRepo.outcomes(seenBefore);
+        Set<Long> employees = syncRepo.existingEmployees(candidates.stream()
+                .filter(e -> claimed.contains(e.clientEventId()))
+                .map(KioskClockEvent::employeeId).distinct().toList());
+
+        // group the owned events by employee and day
+        Map<List<Object>, List<Integer>> byDay = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : firstIndex.entrySet()) {
+            int i = entry.getValue();
+            KioskClockEvent e = chunk.get(i);
+            if (!claimed.contains(e.clientEventId())) {
+                SyncEventResult previous = previousOutcomes.get(e.clientEventId());
+                results[i] = previous != null ? SyncEventResult.duplicateOf(e.clientEventId(), previous)
+                        : new SyncEventResult(e.clientEventId(), SyncEventStatus.DUPLICATE, null, null);
+            } else if (!employees.contains(e.employeeId())) {
+                results[i] = rejected(e, "Employee not found");
+            } else {
+                byDay.computeIfAbsent(List.of(e.employeeId(), e.at().toLocalDate()), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<AttendanceRecordView> changed = reconcile(chunk, byDay, results);
+        repeats.forEach((i, first) -> results[i] = SyncEventResult.duplicateOf(chunk.get(i).clientEventId(), results[first]));
+
+        List<SyncEventResult> owned = new ArrayList<>();
+        for (int i : firstIndex.values()) {
+            if (claimed.contains(chunk.get(i).clientEventId())) owned.add(results[i]);
+        }
+        syncRepo.saveOutcomes(owned);
+        rollupService.refreshMonthsOf(changed);
+        if (!changed.isEmpty()) events.publishEvent(new AttendanceChangedEvent(changed));
+        return List.of(results);
+    }
+
+    /**
+     * Replay each day's events against its locked record and write the
+     * days that changed.  A day that gained a record concurrently after
+     * it was found missing is reconciled again against that record.
+     */
+    private List<AttendanceRecordView> reconcile(List<KioskClockEvent> chunk, Map<List<Object>, List<Integer>> byDay,
+                                                 SyncEventResult[] results) {
+        List<AttendanceRecordView> written = new ArrayList<>();
+        Map<List<Object>, List<Integer>> pending = byDay;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt == 2) throw new IllegalStateException("Attendance records changed concurrently, retry the sync");
+            Map<List<Object>, AttendanceRecordView> existing = new HashMap<>();
+            for (AttendanceRecordView r : attendanceJdbc.lockDays(pending.keySet())) {
+                existing.put(List.of(r.employeeId(), r.date()), r);
+            }
+            List<AttendanceRecordView> inserts = new ArrayList<>();
+            List<AttendanceRecordView> updates = new ArrayList<>();
+            Map<List<Object>, Day> days = new HashMap<>();
+            for (Map.Entry<List<Object>, List<Integer>> entry : pending.entrySet()) {
+                Day day = new Day(existing.get(entry.getKey()));
+                List<Integer> order = new ArrayList<>(entry.getValue());
+                order.sort(Comparator.<Integer, LocalDateTime>comparing(i -> chunk.get(i).at())
+                        .thenComparing(i -> chunk.get(i).type()));
+                for (int i : order) {
+                    KioskClockEvent e = chunk.get(i);
+                    String problem = day.apply(e);
+                    results[i] = problem != null ? rejected(e, problem)
+                            : new SyncEventResult(e.clientEventId(), SyncEventStatus.ACCEPTED, null, null);
+                }
+                days.put(entry.getKey(), day);
+                if (!day.changed) continue;
+                AttendanceRecordView state = day.toView((Long) entry.getKey().get(0), (LocalDate) entry.getKey().get(1));
+                (day.id == null ? inserts : updates).add(state);
+            }
+            attendanceJdbc.updateDays(updates);
+            written.addAll(updates);
+            Map<List<Object>, Long> ids = new HashMap<>();
+            for (AttendanceRecordView r : attendanceJdbc.insertDays(inserts)) {
+                ids.put(List.of(r.employeeId(), r.date()), r.id());
+                written.add(r);
+            }
+            Map<List<Object>, List<Integer>> retry = new LinkedHashMap<>();
+            for (Map.Entry<List<Object>, Day> entry : days.entrySet()) {
+                Day day = entry.getValue();
+                Long recordId = day.id != null ? day.id : ids.get(entry.getKey());
+                if (recordId == null && day.changed) {
+                    retry.put(entry.getKey(), pending.get(entry.getKey()));
+                    continue;
+                }
+                for (int i : pending.get(entry.getKey())) {
+                    SyncEventResult r = results[i];
+                    if (r.status() == SyncEventStatus.ACCEPTED) {
+                        results[i] = new SyncEventResult(r.clientEventId(), r.status(), recordId, null);
+                    }
+                }
+            }
+            pending = retry;
+        }
+        return written;
+    }
+
+    private String validate(KioskClockEvent e, LocalDateTime now, LocalDate oldest) {
+        if (e.clientEventId() == null || e.clientEventId().isBlank()) return "clientEventId is required";
+        if (e.clientEventId().length() > CLIENT_ID_MAX_LENGTH) return "clientEventId is too long";
+        if (e.employeeId() == null) return "employeeId is required";
+        if (e.type() == null) return "type must be IN or OUT";
+        if (e.at() == null) return "at is required";
+        if (e.at().isAfter(now.plusMinutes(CLOCK_SKEW_MINUTES))) return "Event is in the future";
+        if (e.at().toLocalDate().isBefore(oldest)) return "Event is older than " + maxAgeDays + " days";
+        return null;
+    }
+
+    private static SyncEventResult rejected(KioskClockEvent e, String message) {
+        return new SyncEventResult(e.clientEventId(), SyncEventStatus.REJECTED, null, message);
+    }
+
+    /**
+     * A day's attendance as the events are replayed against it.
+     */
+    private static final class Day {
+        final Long id;
+        LocalDateTime clockIn;
+        LocalDateTime clockOut;
+        boolean autoClosed;
+        boolean changed;
+
+        Day(AttendanceRecordView existing) {
+            this.id = existing != null ? existing.id() : null;
+            if (existing != null) {
+                clockIn = existing.clockInTime();
+                clockOut = existing.clockOutTime();
+                autoClosed = existing.autoClosed();
+            }
+        }
+
+        /** Returns null if the event was applied (or had no effect), else why it was rejected. */
+        String apply(KioskClockEvent e) {
+            if (e.type() == ClockEventType.IN) {
+                if (clockIn == null || e.at().isBefore(clockIn)) {
+                    if (clockOut != null && clockOut.isBefore(e.at())) return "Clock-in is after the day's clock-out";
+                    clockIn = e.at();
+                    changed = true;
+                }
+                return null;
+            }
+            if (clockIn == null) return "No clock-in recorded for that day";
+            if (e.at().isBefore(clockIn)) return "Clock-out is before clock-in";
+            if (clockOut == null || autoClosed || e.at().isBefore(clockOut)) {
+                clockOut = e.at();
+                autoClosed = false;
+                changed = true;
+            }
+            return null;
+        }
+
+        AttendanceRecordView toView(Long employeeId, LocalDate date) {
+            return new AttendanceRecordView(id, employeeId, date, clockIn, clockOut,
+                    clockOut != null ? AttendanceStatus.COMPLETED : AttendanceStatus.IN_PROGRESS, autoClosed);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.model.AutoClockOutPolicy;
+import com.smarthireflow.hrbackend.repository.AdvisoryLocks;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Closes attendance records left IN_PROGRESS on previous days because
+ * the employee forgot to clock out.  Each batch is one set-based UPDATE
+ * (no entities are loaded) in its own transaction, which also adds the
+ * closed records to the monthly rollup; batches repeat until nothing
+ * stale is left.  Closed records are flagged {@code auto_closed}.
+ *
+ * <p>The clock-out time follows {@code attendance.auto-clock-out.policy}
+ * (see {@link AutoClockOutPolicy}).  A last-seen policy is not offered
+ * because no activity after clock-in is recorded.  A session advisory
+ * lock makes sure only one instance runs the job at a time.
+ */
+@Service
+public class AutoClockOutService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoClockOutService.class);
+    private static final int LOCK_CLASS = 0x41434c4f;
+
+    private final AttendanceRecordJdbcRepository attendanceJdbc;
+    private final AttendanceRollupService rollupService;
+    private final AdvisoryLocks locks;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final AutoClockOutPolicy policy;
+    private final LocalTime shiftEnd;
+    private final int maxDurationMinutes;
+    private final int batchSize;
+
+    private volatile Result lastRun;
+
+    public AutoClockOutService(AttendanceRecordJdbcRepository attendanceJdbc,
+                               AttendanceRollupService rollupService,
+                               AdvisoryLocks locks,
+                               TransactionTemplate tx,
+                               ApplicationEventPublisher events,
+                               @Value("${attendance.auto-clock-out.policy:SHIFT_END}") AutoClockOutPolicy policy,
+                               @Value("${attendance.shift-end:17:00}") LocalTime shiftEnd,
+                               @Value("${attendance.auto-clock-out.max-duration-minutes:600}") int maxDurationMinutes,
+                               @Value("${attendance.auto-clock-out.batch-size:1000}") int batchSize) {
+        this.attendanceJdbc = attendanceJdbc;
+        this.rollupService = rollupService;
+        this.locks = locks;
+        this.tx = tx;
+        this.events = events;
+        this.policy = policy;
+        this.shiftEnd = shiftEnd;
+        this.maxDurationMinutes = maxDurationMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${attendance.auto-clock-out.cron:0 30 0 * * *}")
+    void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Auto clock-out failed", e);
+        }
+    }
+
+    /**
+     * Close every record still IN_PROGRESS from before today.  Returns
+     * how many were closed, or a skipped result if another instance is
+     * already running the job.
+     */
+    public Result run() {
+        Instant started = Instant.now();
+        Optional<AdvisoryLocks.Lock> lock = locks.tryAcquire(LOCK_CLASS, 0);
+        if (lock.isEmpty()) {
+            return new Result(started, true, 0, 0);
+        }
+        try (AdvisoryLocks.Lock held = lock.get()) {
+            LocalDate today = LocalDate.now();
+            Integer maxMinutes = policy == AutoClockOutPolicy.FIXED_DURATION ? maxDurationMinutes : null;
+            int closed = 0;
+            int batches = 0;
+            while (true) {
+                List<AttendanceRecordView> batch = tx.execute(status -> {
+                    List<AttendanceRecordView> done = attendanceJdbc.autoCloseStale(today, shiftEnd, maxMinutes, batchSize);
+                    rollupService.recordCompleted(done);
+                    if (!done.isEmpty()) events.publishEvent(new AttendanceChangedEvent(done));
+                    return done;
+                });
+                if (batch == null || batch.isEmpty()) break;
+                closed += batch.size();
+                batches++;
+                if (batch.size() < batchSize) break;
+            }
+            Result result = new Result(started, false, closed, batches);
+            lastRun = result;
+            if (closed > 0) log.info("Auto clock-out closed {} stale attendance records in {} batches", closed, batches);
+            return result;
+        }
+    }
+
+    public Result lastRun() {
+        return lastRun;
+    }
+
+    public record Result(Instant startedAt, boolean skipped, int closed, int batches) {}
+}
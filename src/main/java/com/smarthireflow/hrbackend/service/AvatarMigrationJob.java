@@ -0,0 +1,133 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.AdvisoryLocks;
+import com.smarthireflow.hrbackend.repository.AvatarJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Housekeeping for {@link AvatarStorage}.  First moves avatars still in
+ * the users.avatar bytea column into the store, one user at a time so
+ * only one image is held in memory; a user whose image cannot be moved
+ * is logged and retried on the next run.  Then sweeps stored images no
+ * user refers to any more.
+ *
+ * <p>The sweep only considers images stored more than
+ * {@code avatars.sweep.grace-minutes} ago and re-checks that time just
+ * before deleting, so an upload whose reference is not committed yet
+ * keeps its image.  A session advisory lock makes sure only one instance
+ * runs the job at a time.
+ */
+@Service
+public class AvatarMigrationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarMigrationJob.class);
+    private static final int LOCK_CLASS = 0x41564154;
+
+    private final AvatarService avatarService;
+    private final AvatarStorage storage;
+    private final AvatarJdbcRepository avatars;
+    private final AdvisoryLocks locks;
+    private final int batchSize;
+    private final Duration sweepGrace;
+    private final int sweepBatchSize;
+
+    private volatile Result lastRun;
+
+    public AvatarMigrationJob(AvatarService avatarService,
+                              AvatarStorage storage,
+                              AvatarJdbcRepository avatars,
+                              AdvisoryLocks locks,
+                              @Value("${avatars.migration.batch-size:100}") int batchSize,
+                              @Value("${avatars.sweep.grace-minutes:60}") long sweepGraceMinutes,
+                              @Value("${avatars.sweep.batch-size:1000}") int sweepBatchSize) {
+        this.avatarService = avatarService;
+        this.storage = storage;
+        this.avatars = avatars;
+        this.locks = locks;
+        this.batchSize = batchSize;
+        this.sweepGrace = Duration.ofMinutes(sweepGraceMinutes);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    @Scheduled(initialDelayString = "${avatars.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${avatars.migration.interval-ms:3600000}")
+    void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Avatar migration failed", e);
+        }
+    }
+
+    /**
+     * Move old-column avatars and sweep orphaned images now.  Returns a
+     * skipped result if another instance is already running the job.
+     */
+    public Result run() {
+        Instant started = Instant.now();
+        Optional<AdvisoryLocks.Lock> lock = locks.tryAcquire(LOCK_CLASS, 0);
+        if (lock.isEmpty()) {
+            return new Result(started, true, 0, 0, 0);
+        }
+        try (AdvisoryLocks.Lock held = lock.get()) {
+            int moved = 0;
+            int failed = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = avatars.idsWithLegacyAvatar(afterId, batchSize);
+                for (long id : ids) {
+                    try {
+                        if (avatarService.migrate(id)) moved++;
+                    } catch (IOException | RuntimeException e) {
+                        failed++;
+                        log.warn("Could not move avatar of user {}", id, e);
+                    }
+                    afterId = id;
+                }
+                if (ids.size() < batchSize) break;
+            }
+            int removed = sweep(started.minus(sweepGrace));
+            Result result = new Result(started, false, moved, failed, removed);
+            lastRun = result;
+            if (moved > 0 || failed > 0 || removed > 0) {
+                log.info("Avatar migration moved {} images ({} failed), removed {} orphaned images", moved, failed, removed);
+            }
+            return result;
+        }
+    }
+
+    private int sweep(Instant cutoff) {
+        try {
+            List<String> candidates = storage.storedBefore(cutoff);
+            int removed = 0;
+            for (int from = 0; from < candidates.size(); from += sweepBatchSize) {
+                List<String> chunk = candidates.subList(from, Math.min(from + sweepBatchSize, candidates.size()));
+                Set<String> referenced = avatars.referenced(chunk);
+                for (String hash : chunk) {
+                    if (!referenced.contains(hash) && storage.deleteIfStoredBefore(hash, cutoff)) removed++;
+                }
+            }
+            return removed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Result lastRun() {
+        return lastRun;
+    }
+
+    public record Result(Instant startedAt, boolean skipped, int moved, int failed, int orphansRemoved) {}
+}
@@ -0,0 +1,83 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.AvatarJdbcRepository;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * User avatars.  The image itself is kept in {@link AvatarStorage};
+ * users only records its hash and content type, written through
+ * {@link AvatarJdbcRepository} so the user entity never carries it.
+ * Images still in the old bytea column are moved on first read and by
+ * {@link AvatarMigrationJob}.
+ */
+@Service
+public class AvatarService {
+
+    private final AvatarStorage storage;
+    private final AvatarJdbcRepository avatars;
+
+    public AvatarService(AvatarStorage storage, AvatarJdbcRepository avatars) {
+        this.storage = storage;
+        this.avatars = avatars;
+    }
+
+    /**
+     * The user's avatar, or empty if they have none.
+     */
+    public Optional<Avatar> find(long userId) {
+        Optional<AvatarJdbcRepository.AvatarRef> ref = avatars.find(userId);
+        if (ref.isPresent() && ref.get().legacy()) {
+            try {
+                migrate(userId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ref = avatars.find(userId);
+        }
+        return ref
+                .filter(r -> r.hash() != null && r.contentType() != null)
+                .flatMap(r -> storage.get(r.hash())
+                        .map(image -> new Avatar(r.hash(), r.contentType(), r.updatedAt(), image)));
+    }
+
+    /**
+     * Store the image and make it the user's avatar.  Returns its hash.
+     */
+    public String replace(long userId, InputStream content, String contentType) throws IOException {
+        String hash = storage.put(content);
+        if (!avatars.replace(userId, hash, contentType)) {
+            throw new IllegalArgumentException("User not found: " + userId);
+        }
+        return hash;
+    }
+
+    /**
+     * Remove the user's avatar.  The image stays stored until the sweep
+     * finds no user referring to it.
+     */
+    public void clear(long userId) {
+        avatars.replace(userId, null, null);
+    }
+
+    /**
+     * Move the user's image out of the old column into the store.
+     * Returns false if there was nothing to move or the avatar changed
+     * meanwhile.
+     */
+    public boolean migrate(long userId) throws IOException {
+        Optional<byte[]> legacy = avatars.legacyAvatar(userId);
+        if (legacy.isEmpty()) return false;
+        String hash = storage.put(new ByteArrayInputStream(legacy.get()));
+        return avatars.moveLegacyAvatar(userId, hash);
+    }
+
+    public record Avatar(String hash, String contentType, Instant updatedAt, Resource image) {}
+}
@@ -0,0 +1,48 @@
+package com.smarthireflow.hrbackend.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed store for avatar images.  An image is named by the
+ * lowercase hex SHA-256 of its bytes, so storing the same image twice
+ * keeps one copy and a stored image never changes.  users.avatar_hash
+ * refers to images by that name; unreferenced images are removed by
+ * {@link AvatarMigrationJob}'s sweep rather than on every change, since
+ * several users can share one image.
+ *
+ * <p>{@link LocalAvatarStorage} keeps the images in a local directory;
+ * an object store can be plugged in by providing another bean.
+ */
+public interface AvatarStorage {
+
+    /**
+     * Store the stream's bytes and return their hash.  Storing content
+     * that is already present only refreshes its stored-at time.
+     */
+    String put(InputStream content) throws IOException;
+
+    /**
+     * The stored image, or empty if nothing is stored under the hash.
+     * A file-backed resource answers {@link Resource#isFile()} so it can
+     * be served without copying through the heap.
+     */
+    Optional<Resource> get(String hash);
+
+    /**
+     * Hashes of images last stored before the cutoff; candidates for
+     * the orphan sweep.
+     */
+    List<String> storedBefore(Instant cutoff) throws IOException;
+
+    /**
+     * Remove the image unless it was stored again at or after the
+     * cutoff.  Returns whether it was removed.
+     */
+    boolean deleteIfStoredBefore(String hash, Instant cutoff) throws IOException;
+}
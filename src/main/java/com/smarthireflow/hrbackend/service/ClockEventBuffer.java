@@ -0,0 +1,222 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.ClockEvent;
+import com.smarthireflow.hrbackend.model.ClockEventType;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional write-behind path for clock events, used to absorb the burst
+ * of clock-ins at shift boundaries.  Events are queued in a bounded
+ * in-memory buffer and a single flusher thread writes them in batches
+ * (every {@code flush-interval-ms} or {@code batch-size} events,
+ * whichever comes first), one transaction per batch that also adds
+ * the batch's completed records to the monthly rollup.
+ *
+ * <p>Callers are acknowledged by group commit: {@link #submit} waits
+ * until the batch containing the event has been committed, so an
+ * acknowledged event is durable and the response still carries the
+ * resulting record.  When the buffer is full new events are refused
+ * with 503 rather than queued without bound.
+ *
+ * <p>Disabled unless {@code attendance.ingest.buffered} is true, in
+ * which case no thread is started and {@link AttendanceService} writes
+ * each event directly.
+ */
+@Service
+public class ClockEventBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClockEventBuffer.class);
+
+    private final AttendanceRecordJdbcRepository attendanceJdbc;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long ackTimeoutMs;
+    private final BlockingQueue<Pending> queue;
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder eventsFlushed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ClockEventBuffer(AttendanceRecordJdbcRepository attendanceJdbc,
+                            AttendanceRollupService rollupService,
+                            TransactionTemplate tx,
+                            ApplicationEventPublisher events,
+                            @Value("${attendance.ingest.buffered:false}") boolean enabled,
+                            @Value("${attendance.ingest.queue-capacity:10000}") int queueCapacity,
+                            @Value("${attendance.ingest.batch-size:500}") int batchSize,
+                            @Value("${attendance.ingest.flush-interval-ms:20}") long flushIntervalMs,
+                            @Value("${attendance.ingest.ack-timeout-ms:5000}") long ackTimeoutMs) {
+        this.attendanceJdbc = attendanceJdbc;
+        this.rollupService = rollupService;
+        this.tx = tx;
+        this.events = events;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        running = true;
+        flusher = new Thread(this::runFlusher, "clock-event-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) return;
+        // let the flusher drain whatever is still queued before exiting
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a clock event and wait until the batch containing it has been
+     * committed.  Throws 503 if the buffer is full or the commit is not
+     * confirmed within the acknowledgement timeout; both clock-in and
+     * clock-out are idempotent, so the client can safely retry.
+     */
+    public AttendanceRecordView submit(Long employeeId, ClockEventType type, LocalDateTime at) {
+        Pending pending = new Pending(new ClockEvent(employeeId, type, at), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Clock event queue is full, retry shortly");
+        }
+        try {
+            return pending.result().get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Clock event not yet recorded, retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for clock event", e);
+        }
+    }
+
+    public Stats stats() {
+        long count = flushes.sum();
+        return new Stats(enabled, queue.size(), rejected.sum(), count, eventsFlushed.sum(),
+                count == 0 ? 0 : flushNanos.sum() / count / 1_000, lastFlushNanos / 1_000, maxFlushNanos.get() / 1_000);
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // collect until the batch is full or the interval since the
+                // first event has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Clock event flush loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            List<ClockEvent> events = batch.stream().map(Pending::event).toList();
+            List<AttendanceRecordView> records = tx.execute(status -> {
+                AttendanceRecordJdbcRepository.AppliedClockEvents applied = attendanceJdbc.applyClockEvents(events);
+                rollupService.recordCompleted(applied.completed());
+                events.publishEvent(new AttendanceChangedEvent(applied.records()));
+                return applied.records();
+            });
+            Map<Key, AttendanceRecordView> byDay = new HashMap<>();
+            for (AttendanceRecordView r : records) byDay.put(new Key(r.employeeId(), r.date()), r);
+            for (Pending p : batch) {
+                AttendanceRecordView record = byDay.get(new Key(p.event().employeeId(), p.event().at().toLocalDate()));
+                if (record != null) {
+                    p.result().complete(record);
+                } else if (p.event().type() == ClockEventType.OUT) {
+                    p.result().completeExceptionally(new NothingToClockOutException());
+                } else {
+                    p.result().completeExceptionally(new IllegalArgumentException("Employee not found"));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} clock events", batch.size(), e);
+            for (Pending p : batch) p.result().completeExceptionally(e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            eventsFlushed.add(batch.size());
+            flushNanos.add(elapsed);
+            lastFlushNanos = elapsed;
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private record Pending(ClockEvent event, CompletableFuture<AttendanceRecordView> result) {}
+
+    private record Key(Long employeeId, LocalDate date) {}
+
+    /**
+     * Buffer counters; latencies are in microseconds.
+     */
+    public record Stats(boolean enabled, int queued, long rejected, long flushes, long eventsFlushed,
+                        long avgFlushMicros, long lastFlushMicros, long maxFlushMicros) {}
+}
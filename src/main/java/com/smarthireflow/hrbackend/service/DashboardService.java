@@ -0,0 +1,63 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.DashboardSummary;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import com.smarthireflow.hrbackend.repository.DashboardRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the admin dashboard summary.  The database reads are
+ * independent, so they run concurrently through {@link FanOut}; the
+ * presence and leave calendar figures come from their in-memory
+ * indexes.
+ */
+@Service
+public class DashboardService {
+
+    private final DashboardRepository dashboard;
+    private final LeavePendingCounts pendingCounts;
+    private final PresenceIndex presenceIndex;
+    private final LeaveCalendarIndex leaveCalendar;
+    private final FanOut fanOut;
+
+    public DashboardService(DashboardRepository dashboard,
+                            LeavePendingCounts pendingCounts,
+                            PresenceIndex presenceIndex,
+                            LeaveCalendarIndex leaveCalendar,
+                            FanOut fanOut) {
+        this.dashboard = dashboard;
+        this.pendingCounts = pendingCounts;
+        this.presenceIndex = presenceIndex;
+        this.leaveCalendar = leaveCalendar;
+        this.fanOut = fanOut;
+    }
+
+    public DashboardSummary summary() {
+        LocalDate today = LocalDate.now();
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Map<String, Long>> headcount = scope.fork(dashboard::headcountByDepartment);
+            Supplier<Map<InventoryStatus, Long>> inventory = scope.fork(dashboard::inventoryByStatus);
+            Supplier<Long> clockedIn = scope.fork(() -> dashboard.clockedInOn(today));
+            Supplier<Map<String, Long>> pending = scope.fork(pendingCounts::byDepartment);
+            scope.join();
+            return new DashboardSummary(
+                    today,
+                    sum(headcount.get()),
+                    headcount.get(),
+                    presenceIndex.count(),
+                    clockedIn.get(),
+                    leaveCalendar.whoIsOff(today, today, null, false).size(),
+                    sum(pending.get()),
+                    pending.get(),
+                    inventory.get());
+        }
+    }
+
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -17,9 +17,11 @@ import java.util.Optional;
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final IdentityCache identities;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, IdentityCache identities) {
         this.employeeRepository = employeeRepository;
+        this.identities = identities;
     }
 
     public List<Employee> findAll() {
@@ -31,10 +33,13 @@ public class EmployeeService {
     }
 
     public Employee save(Employee employee) {
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        identities.invalidateEmployees();
+        return saved;
     }
 
     public void delete(Long id) {
         employeeRepository.deleteById(id);
+        identities.invalidateEmployees();
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthireflow.hrbackend.model.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the tables of an org-wide export to a file in one of the
+ * {@link ExportFormat}s, a row at a time.  Call {@link #startTable},
+ * then {@link #row} per row and {@link #endTable}, per table, then
+ * {@link #finish} to complete the file.  {@link #close} releases the
+ * stream whether or not the file was finished.
+ */
+abstract class ExportFileWriter implements AutoCloseable {
+
+    static ExportFileWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case JSON -> new Json(objectMapper.createGenerator(out));
+            case NDJSON -> new NdJson(objectMapper.createGenerator(out));
+            case CSV -> new Csv(new ZipOutputStream(out));
+        };
+    }
+
+    abstract void startTable(String table, String[] columns) throws IOException;
+
+    abstract void row(Object[] values) throws IOException;
+
+    abstract void endTable() throws IOException;
+
+    abstract void finish() throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static void writeJsonValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) gen.writeNull();
+        else if (value instanceof Boolean b) gen.writeBoolean(b);
+        else if (value instanceof BigDecimal d) gen.writeNumber(d);
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short) gen.writeNumber(((Number) value).longValue());
+        else if (value instanceof Number n) gen.writeNumber(n.doubleValue());
+        else gen.writeString(value.toString());
+    }
+
+    /** {"employees": [{...}, ...], "attendance": [...], ...} */
+    private static final class Json extends ExportFileWriter {
+        private final JsonGenerator gen;
+        private String[] columns;
+
+        Json(JsonGenerator gen) throws IOException {
+            this.gen = gen;
+            gen.writeStartObject();
+        }
+
+        @Override
+        void startTable(String table, String[] columns) throws IOException {
+            this.columns = columns;
+            gen.writeArrayFieldStart(table);
+        }
+
+        @Override
+        void row(Object[] values) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                gen.writeFieldName(columns[i]);
+                writeJsonValue(gen, values[i]);
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        void endTable() throws IOException {
+            gen.writeEndArray();
+        }
+
+        @Override
+        void finish() throws IOException {
+            gen.writeEndObject();
+            gen.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.close();
+        }
+    }
+
+    /** One {"table": "...", "row": {...}} object per line. */
+    private static final class NdJson extends ExportFileWriter {
+        private final JsonGenerator gen;
+        private String table;
+        private String[] columns;
+
+        NdJson(JsonGenerator gen) {
+            this.gen = gen;
+            gen.setRootValueSeparator(null);
+        }
+
+        @Override
+        void startTable(String table, String[] columns) {
+            this.table = table;
+            this.columns = columns;
+        }
+
+        @Override
+        void row(Object[] values) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("table", table);
+            gen.writeObjectFieldStart("row");
+            for (int i = 0; i < columns.length; i++) {
+                gen.writeFieldName(columns[i]);
+                writeJsonValue(gen, values[i]);
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        void endTable() {
+        }
+
+        @Override
+        void finish() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.close();
+        }
+    }
+
+    /** A zip with {@code <table>.csv} per table, RFC 4180 quoting. */
+    private static final class Csv extends ExportFileWriter {
+        private final ZipOutputStream zip;
+        private final Writer out;
+
+        Csv(ZipOutputStream zip) {
+            this.zip = zip;
+            this.out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void startTable(String table, String[] columns) throws IOException {
+            zip.putNextEntry(new ZipEntry(table + ".csv"));
+            line(columns);
+        }
+
+        @Override
+        void row(Object[] values) throws IOException {
+            line(values);
+        }
+
+        @Override
+        void endTable() throws IOException {
+            out.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        void finish() throws IOException {
+            out.flush();
+            zip.finish();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void line(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                Object value = values[i];
+                if (value == null) continue;
+                if (value instanceof BigDecimal d) out.write(d.toPlainString());
+                else if (value instanceof TemporalAccessor || value instanceof Number || value instanceof Boolean) out.write(value.toString());
+                else out.write(quote(value.toString()));
+            }
+            out.write("\r\n");
+        }
+
+        private static String quote(String text) {
+            boolean needsQuotes = text.isEmpty();
+            for (int i = 0; i < text.length() && !needsQuotes; i++) {
+                char c = text.charAt(i);
+                needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            return needsQuotes ? '"' + text.replace("\"", "\"\"") + '"' : text;
+        }
+    }
+}
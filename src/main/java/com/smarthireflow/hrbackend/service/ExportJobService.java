@@ -0,0 +1,414 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthireflow.hrbackend.dto.ExportJobView;
+import com.smarthireflow.hrbackend.model.ExportFormat;
+import com.smarthireflow.hrbackend.model.ExportJobStatus;
+import com.smarthireflow.hrbackend.repository.OrgExportRepository;
+import com.smarthireflow.hrbackend.repository.OrgExportRepository.Table;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Org-wide export jobs for audits.  A submitted job waits for one of
+ * {@code export.jobs.max-concurrent} low-priority workers (at most
+ * {@code export.jobs.queue-capacity} may wait), then streams every table
+ * of {@link OrgExportRepository} into a spool file under
+ * {@code export.jobs.dir}.  All tables are read in one read-only
+ * REPEATABLE READ transaction, so the export is a consistent snapshot,
+ * and a running job holds exactly one database connection.  Since the
+ * worker pool is small and bounded, exports cannot take over the
+ * connection pool or the request threads.
+ *
+ * <p>Progress can be polled or followed over Server-Sent Events
+ * ({@code progress} events, then one {@code done} event).  A completed
+ * job gets a random download token.  The token and the file are dropped
+ * {@code export.jobs.retention-minutes} after the job ends.  Jobs are
+ * kept in memory by the instance that ran them; after a restart their
+ * spool files are deleted.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String FILE_PREFIX = "export-";
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final OrgExportRepository exports;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate snapshotTx;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "export-sse");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Path dir;
+    private final Duration retention;
+    private final long progressIntervalNanos;
+    private final long streamTimeoutMs;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> byToken = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public ExportJobService(OrgExportRepository exports,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate tx,
+                            @Value("${export.jobs.max-concurrent:2}") int maxConcurrent,
+                            @Value("${export.jobs.queue-capacity:10}") int queueCapacity,
+                            @Value("${export.jobs.dir:}") String dir,
+                            @Value("${export.jobs.retention-minutes:60}") long retentionMinutes,
+                            @Value("${export.jobs.progress-interval-ms:1000}") long progressIntervalMs,
+                            @Value("${export.jobs.stream-timeout-ms:1800000}") long streamTimeoutMs) throws IOException {
+        this.exports = exports;
+        this.objectMapper = objectMapper;
+        this.snapshotTx = new TransactionTemplate(tx.getTransactionManager());
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        int threads = Math.max(1, maxConcurrent);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "export-job");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+        this.dir = dir.isBlank() ? Path.of(System.getProperty("java.io.tmpdir"), "hr-exports") : Path.of(dir);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.progressIntervalNanos = progressIntervalMs * 1_000_000;
+        this.streamTimeoutMs = streamTimeoutMs;
+        Files.createDirectories(this.dir);
+        deleteOrphans();
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(SseEmitter::complete));
+        jobs.values().forEach(job -> deleteFile(job.file));
+    }
+
+    public ExportJobView submit(ExportFormat format, String requestedBy) {
+        Job job = new Job(UUID.randomUUID().toString(), format, requestedBy);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports queued; try again later");
+        }
+        return view(job);
+    }
+
+    public List<ExportJobView> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(this::view)
+                .toList();
+    }
+
+    public Optional<ExportJobView> find(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(this::view);
+    }
+
+    /**
+     * Cancel a queued or running job.  A running job stops at its next
+     * row and its file is deleted.
+     *
+     * @throws IllegalArgumentException if there is no such job
+     */
+    public ExportJobView cancel(String id) {
+        Job job = job(id);
+        boolean cancelledWhileQueued;
+        synchronized (job) {
+            cancelledWhileQueued = job.status == ExportJobStatus.QUEUED;
+            if (cancelledWhileQueued) {
+                job.finishedAt = Instant.now();
+                job.status = ExportJobStatus.CANCELLED;
+            } else if (job.status == ExportJobStatus.RUNNING) {
+                job.cancelRequested = true;
+            }
+        }
+        if (cancelledWhileQueued) publish(job);
+        return view(job);
+    }
+
+    /**
+     * Open an event stream for a job.  The current state is sent first;
+     * the stream completes after the final state.
+     *
+     * @throws IllegalArgumentException if there is no such job
+     */
+    public SseEmitter subscribe(String id) {
+        Job job = job(id);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Set<SseEmitter> set = subscribers.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet());
+        emitter.onCompletion(() -> set.remove(emitter));
+        emitter.onTimeout(() -> set.remove(emitter));
+        emitter.onError(e -> set.remove(emitter));
+        // on the sender thread, so no event published after this one is missed
+        sender.execute(() -> {
+            ExportJobView view = view(job);
+            try {
+                emitter.send(SseEmitter.event().name(view.status().isFinal() ? "done" : "progress").data(view));
+                if (view.status().isFinal()) emitter.complete();
+                else set.add(emitter);
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * The file behind a download token, if the token is known and the
+     * file still exists.
+     */
+    public Optional<Download> download(String token) {
+        Job job = byToken.get(token);
+        if (job == null || job.file == null || !Files.exists(job.file)) return Optional.empty();
+        String fileName = "org-export-" + FILE_STAMP.format(job.createdAt) + "." + job.format.fileExtension();
+        return Optional.of(new Download(job.file, fileName, job.format.contentType(), job.sizeBytes));
+    }
+
+    /**
+     * Drop jobs past their retention with their files and tokens, and
+     * keep event streams of waiting jobs alive through proxies.
+     */
+    @Scheduled(fixedDelayString = "${export.jobs.sweep-ms:60000}")
+    void sweep() {
+        Instant cutoff = Instant.now().minus(retention);
+        for (Job job : jobs.values()) {
+            if (job.status.isFinal() && job.finishedAt.isBefore(cutoff)) {
+                jobs.remove(job.id);
+                if (job.token != null) byToken.remove(job.token);
+                deleteFile(job.file);
+            }
+        }
+        if (subscribers.isEmpty()) return;
+        sender.execute(() -> subscribers.values().forEach(set -> {
+            for (SseEmitter emitter : set) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } catch (IOException | IllegalStateException e) {
+                    set.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        }));
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != ExportJobStatus.QUEUED) return;
+            job.status = ExportJobStatus.RUNNING;
+            job.startedAt = Instant.now();
+        }
+        publish(job);
+        long started = System.nanoTime();
+        Path file = null;
+        ExportJobStatus outcome;
+        String error = null;
+        try {
+            file = Files.createTempFile(dir, FILE_PREFIX, "." + job.format.fileExtension());
+            job.file = file;
+            Path target = file;
+            snapshotTx.executeWithoutResult(status -> {
+                try {
+                    write(job, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            job.sizeBytes = Files.size(file);
+            outcome = ExportJobStatus.COMPLETED;
+        } catch (CancellationException e) {
+            outcome = ExportJobStatus.CANCELLED;
+        } catch (IOException | RuntimeException e) {
+            log.error("Export job {} failed", job.id, e);
+            outcome = ExportJobStatus.FAILED;
+            error = "Export failed; see server log";
+        }
+        synchronized (job) {
+            // finishedAt before status: sweep() reads both without the lock
+            job.error = error;
+            job.finishedAt = Instant.now();
+            if (outcome == ExportJobStatus.COMPLETED) {
+                byte[] raw = new byte[32];
+                RANDOM.nextBytes(raw);
+                job.token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+                byToken.put(job.token, job);
+            }
+            job.status = outcome;
+        }
+        if (outcome != ExportJobStatus.COMPLETED) {
+            deleteFile(file);
+            job.file = null;
+        } else {
+            log.info("Export job {} wrote {} rows ({} bytes, {}) in {} ms", job.id, job.rowsWritten, job.sizeBytes,
+                    job.format, (System.nanoTime() - started) / 1_000_000);
+        }
+        publish(job);
+    }
+
+    private void write(Job job, Path file) throws IOException {
+        long estimated = 0;
+        for (Table table : Table.values()) estimated += exports.estimateRows(table);
+        job.rowsEstimated = estimated;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             ExportFileWriter writer = ExportFileWriter.open(job.format, out, objectMapper)) {
+            for (Table table : Table.values()) {
+                job.currentTable = table.exportName();
+                exports.export(table, new OrgExportRepository.RowSink() {
+                    @Override
+                    public void columns(String[] names) throws IOException {
+                        writer.startTable(table.exportName(), names);
+                    }
+
+                    @Override
+                    public void row(Object[] values) throws IOException {
+                        if (job.cancelRequested) throw new CancellationException();
+                        writer.row(values);
+                        job.rowsWritten++;
+                        if ((job.rowsWritten & 255) == 0 && System.nanoTime() - job.lastPublished >= progressIntervalNanos) {
+                            publish(job);
+                        }
+                    }
+                });
+                writer.endTable();
+            }
+            writer.finish();
+        }
+        job.currentTable = null;
+    }
+
+    private void publish(Job job) {
+        job.lastPublished = System.nanoTime();
+        Set<SseEmitter> set = subscribers.get(job.id);
+        if (set == null || set.isEmpty()) return;
+        sender.execute(() -> {
+            ExportJobView view = view(job);
+            boolean done = view.status().isFinal();
+            for (SseEmitter emitter : set) {
+                try {
+                    emitter.send(SseEmitter.event().name(done ? "done" : "progress").data(view));
+                    if (done) emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    set.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+            if (done) subscribers.remove(job.id);
+        });
+    }
+
+    private ExportJobView view(Job job) {
+        synchronized (job) {
+            long written = job.rowsWritten;
+            long estimated = Math.max(job.rowsEstimated, written);
+            int percent = job.status == ExportJobStatus.COMPLETED ? 100
+                    : estimated == 0 ? 0 : (int) Math.min(99, written * 100 / estimated);
+            Instant expiresAt = job.token == null ? null : job.finishedAt.plus(retention);
+            return new ExportJobView(job.id, job.format, job.status, job.requestedBy, job.currentTable,
+                    written, estimated, percent,
+                    job.status == ExportJobStatus.COMPLETED ? job.sizeBytes : null,
+                    job.token == null ? null : "/exports/download/" + job.token,
+                    expiresAt, job.error, job.createdAt, job.startedAt, job.finishedAt);
+        }
+    }
+
+    private Job job(String id) {
+        Job job = jobs.get(id);
+        if (job == null) throw new IllegalArgumentException("Export job not found");
+        return job;
+    }
+
+    private void deleteOrphans() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+            for (Path file : files) deleteFile(file);
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    /**
+     * A finished export file ready to be sent.
+     */
+    public record Download(Path file, String fileName, String contentType, long size) {}
+
+    /**
+     * Mutable job state.  Counters are written only by the worker
+     * running the job; status changes are made under the job's monitor.
+     */
+    private static final class Job {
+        final String id;
+        final ExportFormat format;
+        final String requestedBy;
+        final Instant createdAt = Instant.now();
+        volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        volatile boolean cancelRequested;
+        volatile String currentTable;
+        volatile long rowsWritten;
+        volatile long rowsEstimated;
+        volatile long lastPublished;
+        volatile long sizeBytes;
+        volatile Path file;
+        volatile String token;
+        volatile String error;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+
+        Job(String id, ExportFormat format, String requestedBy) {
+            this.id = id;
+            this.format = format;
+            this.requestedBy = requestedBy;
+        }
+    }
+}
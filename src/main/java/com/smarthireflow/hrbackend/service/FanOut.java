@@ -0,0 +1,165 @@
+package com.smarthireflow.hrbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent reads of a composite request concurrently, one
+ * virtual thread and one read-only transaction per branch, so the
+ * request takes as long as its slowest read rather than the sum.
+ * Modelled on (preview) {@code StructuredTaskScope.ShutdownOnFailure}:
+ *
+ * <pre>{@code
+ * try (FanOut.Scope scope = fanOut.open()) {
+ *     Supplier<A> a = scope.fork(() -> ...);
+ *     Supplier<B> b = scope.fork(() -> ...);
+ *     scope.join();
+ *     return new Result(a.get(), b.get());
+ * }
+ * }</pre>
+ *
+ * The first branch to fail interrupts the others and {@link Scope#join}
+ * rethrows its exception; so does running past the scope's timeout,
+ * {@code fanout.timeout-ms} unless given to {@link #open(long)}.
+ * Closing the scope interrupts anything still running and waits for
+ * it, so no branch outlives the request.
+ */
+@Component
+public class FanOut {
+
+    private final TransactionTemplate readTx;
+    private final long timeoutMs;
+
+    public FanOut(TransactionTemplate tx, @Value("${fanout.timeout-ms:10000}") long timeoutMs) {
+        this.readTx = new TransactionTemplate(tx.getTransactionManager());
+        this.readTx.setReadOnly(true);
+        this.timeoutMs = timeoutMs;
+    }
+
+    public Scope open() {
+        return new Scope(timeoutMs);
+    }
+
+    /**
+     * Open a scope with its own timeout, for reads that are expected to
+     * take longer than the default allows.
+     */
+    public Scope open(long timeoutMs) {
+        return new Scope(timeoutMs);
+    }
+
+    public final class Scope implements AutoCloseable {
+
+        private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        private final List<Future<?>> branches = new CopyOnWriteArrayList<>();
+        private final long timeoutMs;
+        private final long deadline;
+        private volatile Throwable failure;
+        private boolean joined;
+
+        private Scope(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+
+        /**
+         * Start a branch in its own read-only transaction.  The returned
+         * supplier may only be called after {@link #join()} succeeded.
+         */
+        public <T> Supplier<T> fork(Callable<T> task) {
+            if (joined) throw new IllegalStateException("Scope already joined");
+            Future<T> future = threads.submit(() -> {
+                try {
+                    return readTx.execute(status -> call(task));
+                } catch (RuntimeException | Error e) {
+                    fail(e);
+                    throw e;
+                }
+            });
+            branches.add(future);
+            // a branch that failed before this one was added could not cancel it
+            if (failure != null) future.cancel(true);
+            return () -> {
+                if (!joined || failure != null) throw new IllegalStateException("Scope not joined successfully");
+                return future.resultNow();
+            };
+        }
+
+        /**
+         * Wait for every branch.  Rethrows the first failure (checked
+         * exceptions wrapped in an unchecked one) after cancelling the
+         * other branches.
+         */
+        public void join() {
+            joined = true;
+            try {
+                for (Future<?> branch : branches) {
+                    long remaining = deadline - System.nanoTime();
+                    try {
+                        branch.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                    } catch (ExecutionException | CancellationException e) {
+                        // the failing branch has already cancelled the rest; report its cause
+                        break;
+                    }
+                }
+            } catch (TimeoutException e) {
+                fail(new IllegalStateException("Timed out after " + timeoutMs + " ms"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new IllegalStateException("Interrupted", e));
+            }
+            Throwable first = failure;
+            if (first instanceof RuntimeException re) throw re;
+            if (first instanceof Error err) throw err;
+        }
+
+        @Override
+        public void close() {
+            threads.shutdownNow();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    if (threads.awaitTermination(1, TimeUnit.MINUTES)) break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private void fail(Throwable t) {
+            synchronized (this) {
+                if (failure != null) return;
+                failure = t;
+            }
+            branches.forEach(b -> b.cancel(true));
+        }
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.EmployeeRepository;
+import com.smarthireflow.hrbackend.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caches the email to id mapping of the users and employees tables.
+ * Authentication only knows the email for tokens issued before ids
+ * were embedded as claims, and login needs the employee id to put in
+ * the token; both would otherwise cost an indexed query per request.
+ * Each table keeps at most {@code identity.cache.max-entries} emails,
+ * least recently used first out.  Misses are remembered only for
+ * {@code identity.cache.negative-ttl-ms} (many users have no employee
+ * record), so a record created meanwhile is found soon after; writers
+ * must still call {@link #evict(String)} or
+ * {@link #invalidateEmployees()} when an email changes.
+ */
+@Service
+public class IdentityCache {
+
+    private final UserRepository userRepository;
+    private final EmployeeRepository employeeRepository;
+    private final long negativeTtlNanos;
+    private final Map<String, Entry> userIds;
+    private final Map<String, Entry> employeeIds;
+
+    public IdentityCache(UserRepository userRepository,
+                         EmployeeRepository employeeRepository,
+                         @Value("${identity.cache.max-entries:10000}") int maxEntries,
+                         @Value("${identity.cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.userRepository = userRepository;
+        this.employeeRepository = employeeRepository;
+        this.negativeTtlNanos = negativeTtlMs * 1_000_000;
+        this.userIds = lru(maxEntries);
+        this.employeeIds = lru(maxEntries);
+    }
+
+    public Optional<Long> userId(String email) {
+        return lookup(userIds, email, userRepository::findIdByEmail);
+    }
+
+    public Optional<Long> employeeId(String email) {
+        return lookup(employeeIds, email, employeeRepository::findIdByEmail);
+    }
+
+    /**
+     * Forget any mapping for the given email in both tables.
+     */
+    public void evict(String email) {
+        if (email == null) return;
+        synchronized (userIds) {
+            userIds.remove(email);
+        }
+        synchronized (employeeIds) {
+            employeeIds.remove(email);
+        }
+    }
+
+    /**
+     * Forget all employee mappings.  Employee writes are rare admin
+     * operations, so clearing everything is simpler than tracking the
+     * previous email of an updated or deleted record.
+     */
+    public void invalidateEmployees() {
+        synchronized (employeeIds) {
+            employeeIds.clear();
+        }
+    }
+
+    private Optional<Long> lookup(Map<String, Entry> cache, String email, Function<String, Optional<Long>> load) {
+        if (email == null) return Optional.empty();
+        long now = System.nanoTime();
+        synchronized (cache) {
+            Entry cached = cache.get(email);
+            if (cached != null && (cached.id() != null || now - cached.loadedAt() < negativeTtlNanos)) {
+                return Optional.ofNullable(cached.id());
+            }
+        }
+        Optional<Long> id = load.apply(email);
+        synchronized (cache) {
+            cache.put(email, new Entry(id.orElse(null), now));
+        }
+        return id;
+    }
+
+    private static Map<String, Entry> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record Entry(Long id, long loadedAt) {}
+}
@@ -0,0 +1,11 @@
+package com.smarthireflow.hrbackend.service;
+
+import java.util.Collection;
+
+/**
+ * Published by the inventory write paths with the normalized serial
+ * numbers an item had before and after the change, so caches keyed by
+ * serial can drop them.  Listeners should use
+ * {@code @TransactionalEventListener}.
+ */
+public record InventoryChangedEvent(Collection<String> serials) {}
@@ -0,0 +1,279 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.InventoryImportResult;
+import com.smarthireflow.hrbackend.dto.InventoryImportResult.RowError;
+import com.smarthireflow.hrbackend.model.InventoryCondition;
+import com.smarthireflow.hrbackend.model.InventoryStatus;
+import com.smarthireflow.hrbackend.repository.InventoryItemJdbcRepository;
+import com.smarthireflow.hrbackend.repository.InventoryItemJdbcRepository.ImportRow;
+import com.smarthireflow.hrbackend.util.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of inventory items from CSV.  The upload is parsed as a
+ * stream and saved in batches of {@code inventory.import.batch-size}
+ * rows, each batch one upsert statement in its own transaction, so
+ * memory use depends on the batch size and error limit rather than on
+ * the file.
+ *
+ * <p>The first record is a header naming the columns, in any order and
+ * case, with or without underscores: item_name (required), category,
+ * serial_number, status, condition, purchase_date (yyyy-MM-dd), cost,
+ * warranty, notes, value.  Rows whose serial number matches an existing
+ * item update it; empty cells keep the item's current value.  Other rows
+ * create new items.  Rows that fail validation are reported and skipped.
+ */
+@Service
+public class InventoryImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryImportService.class);
+
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("10000000000"); // NUMERIC(12,2)
+
+    private enum Column {
+        ITEM_NAME(255), CATEGORY(255), SERIAL_NUMBER(255), STATUS(32), CONDITION(255),
+        PURCHASE_DATE(10), COST(20), WARRANTY(255), NOTES(2000), VALUE(20);
+
+        final int maxLength;
+
+        Column(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        static Column ofHeader(String header) {
+            String key = header.replace("_", "").replace(" ", "").toUpperCase(Locale.ROOT);
+            for (Column c : values()) {
+                if (c.name().replace("_", "").equals(key)) return c;
+            }
+            return null;
+        }
+    }
+
+    private final InventoryItemJdbcRepository inventoryJdbc;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public InventoryImportService(InventoryItemJdbcRepository inventoryJdbc,
+                                  TransactionTemplate tx,
+                                  ApplicationEventPublisher events,
+                                  @Value("${inventory.import.batch-size:500}") int batchSize,
+                                  @Value("${inventory.import.max-errors:1000}") int maxErrors) {
+        this.inventoryJdbc = inventoryJdbc;
+        this.tx = tx;
+        this.events = events;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Import the CSV read from {@code in}.  A missing or invalid header
+     * fails with IllegalArgumentException before anything is saved.
+     */
+    public InventoryImportResult importCsv(Reader in) throws IOException {
+        CsvReader csv = new CsvReader(in, Column.NOTES.maxLength);
+        Column[] columns = readHeader(csv);
+        Report report = new Report();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        Set<String> batchSerials = new HashSet<>();
+        long started = System.nanoTime();
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (CsvReader.FieldTooLongException e) {
+                report.rows++;
+                report.error(csv.recordLine(), null, e.getMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                // the reader cannot resynchronise after a broken record
+                report.rows++;
+                report.error(csv.recordLine(), null, e.getMessage() + "; rest of file skipped");
+                break;
+            }
+            if (record == null) break;
+            report.rows++;
+            ImportRow row;
+            try {
+                row = parse(columns, record);
+            } catch (IllegalArgumentException e) {
+                report.error(csv.recordLine(), serialOf(columns, record), e.getMessage());
+                continue;
+            }
+            String key = InventoryItemJdbcRepository.normalizeSerial(row.serialNumber());
+            // a serial may appear once per statement; later rows win
+            if (key != null && !batchSerials.add(key)) {
+                save(batch, batchLines, report);
+                batchSerials.clear();
+                batchSerials.add(key);
+            }
+            batch.add(row);
+            batchLines.add(csv.recordLine());
+            if (batch.size() >= batchSize) {
+                save(batch, batchLines, report);
+                batchSerials.clear();
+            }
+        }
+        save(batch, batchLines, report);
+        log.info("Imported inventory CSV: {} rows, {} inserted, {} updated, {} failed in {} ms", report.rows,
+                report.inserted, report.updated, report.failed, (System.nanoTime() - started) / 1_000_000);
+        return new InventoryImportResult(report.rows, report.inserted, report.updated, report.failed,
+                List.copyOf(report.errors), report.failed > report.errors.size());
+    }
+
+    private Column[] readHeader(CsvReader csv) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) throw new IllegalArgumentException("The file is empty");
+        // Excel writes a byte order mark before the first header
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) header.set(0, header.get(0).substring(1));
+        Column[] columns = new Column[header.size()];
+        Set<Column> seen = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            Column column = Column.ofHeader(header.get(i).strip());
+            if (column == null) throw new IllegalArgumentException("Unknown column '" + header.get(i) + "'");
+            if (!seen.add(column)) throw new IllegalArgumentException("Duplicate column '" + header.get(i) + "'");
+            columns[i] = column;
+        }
+        if (!seen.contains(Column.ITEM_NAME)) throw new IllegalArgumentException("Missing column item_name");
+        return columns;
+    }
+
+    private ImportRow parse(Column[] columns, List<String> record) {
+        if (record.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + record.size());
+        }
+        Map<Column, String> cells = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            String cell = record.get(i).strip();
+            if (cell.isEmpty()) continue;
+            if (cell.length() > columns[i].maxLength) {
+                throw new IllegalArgumentException(label(columns[i]) + " is longer than " + columns[i].maxLength + " characters");
+            }
+            cells.put(columns[i], cell);
+        }
+        String itemName = cells.get(Column.ITEM_NAME);
+        if (itemName == null) throw new IllegalArgumentException("item_name is required");
+        return new ImportRow(
+                itemName,
+                cells.get(Column.CATEGORY),
+                cells.get(Column.SERIAL_NUMBER),
+                parseEnum(InventoryStatus.class, Column.STATUS, cells.get(Column.STATUS)),
+                parseEnum(InventoryCondition.class, Column.CONDITION, cells.get(Column.CONDITION)),
+                parseDate(cells.get(Column.PURCHASE_DATE)),
+                parseAmount(Column.COST, cells.get(Column.COST)),
+                cells.get(Column.WARRANTY),
+                cells.get(Column.NOTES),
+                parseAmount(Column.VALUE, cells.get(Column.VALUE)));
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Column column, String cell) {
+        if (cell == null) return null;
+        try {
+            return Enum.valueOf(type, cell.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + label(column) + " '" + cell + "'; expected one of "
+                    + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static LocalDate parseDate(String cell) {
+        if (cell == null) return null;
+        try {
+            return LocalDate.parse(cell);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid purchase_date '" + cell + "'; expected yyyy-MM-dd");
+        }
+    }
+
+    private static BigDecimal parseAmount(Column column, String cell) {
+        if (cell == null) return null;
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(cell);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + label(column) + " '" + cell + "'");
+        }
+        if (amount.signum() < 0 || amount.compareTo(MAX_AMOUNT) >= 0 || amount.scale() > 2) {
+            throw new IllegalArgumentException(label(column) + " must be between 0 and 9999999999.99 with at most 2 decimals");
+        }
+        return amount;
+    }
+
+    private static String serialOf(Column[] columns, List<String> record) {
+        for (int i = 0; i < columns.length && i < record.size(); i++) {
+            if (columns[i] == Column.SERIAL_NUMBER) return record.get(i).strip();
+        }
+        return null;
+    }
+
+    private static String label(Column column) {
+        return column.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Upsert the batch in its own transaction and clear it.  If the
+     * statement hits a serial taken concurrently by another write the
+     * whole batch is reported as failed and the import continues.
+     */
+    private void save(List<ImportRow> batch, List<Long> lines, Report report) {
+        if (batch.isEmpty()) return;
+        try {
+            int updated = tx.execute(status -> {
+                inventoryJdbc.lockImports();
+                int n = inventoryJdbc.upsertBySerial(batch);
+                Set<String> serials = new HashSet<>();
+                for (ImportRow row : batch) {
+                    String key = InventoryItemJdbcRepository.normalizeSerial(row.serialNumber());
+                    if (key != null) serials.add(key);
+                }
+                if (!serials.isEmpty()) events.publishEvent(new InventoryChangedEvent(serials));
+                return n;
+            });
+            report.updated += updated;
+            report.inserted += batch.size() - updated;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Inventory import batch of {} rows failed", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                report.error(lines.get(i), batch.get(i).serialNumber(),
+                        "Not saved: a serial number in this batch was taken by a concurrent change");
+            }
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    private final class Report {
+        long rows;
+        long inserted;
+        long updated;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void error(long line, String serial, String message) {
+            failed++;
+            if (errors.size() < maxErrors) errors.add(new RowError(line, serial, message));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.InventoryItemView;
+import com.smarthireflow.hrbackend.dto.SerialLookupResult;
+import com.smarthireflow.hrbackend.repository.InventoryItemJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serial number lookups for barcode scanning.  Recently scanned items
+ * are kept in a small LRU keyed by normalized serial, so repeated scans
+ * of the same asset do not reach the database; misses are not cached.
+ * Entries are dropped when {@link InventoryService} commits a change
+ * touching their serial ({@link InventoryChangedEvent}) and expire after
+ * {@code inventory.serial-cache.ttl-ms} to cover other instances.
+ */
+@Service
+public class InventorySerialLookup {
+
+    private final InventoryItemJdbcRepository inventoryJdbc;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Cached> cache;
+
+    public InventorySerialLookup(InventoryItemJdbcRepository inventoryJdbc,
+                                 @Value("${inventory.serial-cache.max-entries:1024}") int maxEntries,
+                                 @Value("${inventory.serial-cache.ttl-ms:60000}") long ttlMs) {
+        this.inventoryJdbc = inventoryJdbc;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<InventoryItemView> bySerial(String serial) {
+        String key = InventoryItemJdbcRepository.normalizeSerial(serial);
+        if (key == null) return Optional.empty();
+        return Optional.ofNullable(resolve(Set.of(key)).get(key));
+    }
+
+    /**
+     * Resolve many scanned serials at once: cached ones from memory, the
+     * rest with a single query.  Results follow the input order.
+     */
+    public List<SerialLookupResult> bySerials(List<String> serials) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String serial : serials) {
+            String key = InventoryItemJdbcRepository.normalizeSerial(serial);
+            if (key != null) keys.add(key);
+        }
+        Map<String, InventoryItemView> found = resolve(keys);
+        List<SerialLookupResult> results = new ArrayList<>(serials.size());
+        for (String serial : serials) {
+            String key = InventoryItemJdbcRepository.normalizeSerial(serial);
+            results.add(new SerialLookupResult(serial, key == null ? null : found.get(key)));
+        }
+        return results;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            event.serials().forEach(cache::remove);
+        }
+    }
+
+    private Map<String, InventoryItemView> resolve(Set<String> keys) {
+        Map<String, InventoryItemView> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (cache) {
+            for (String key : keys) {
+                Cached hit = cache.get(key);
+                if (hit != null && now - hit.loadedAt() < ttlNanos) {
+                    found.put(key, hit.item());
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        if (missing.isEmpty()) return found;
+        long loading = generation.get();
+        long loadedAt = System.nanoTime();
+        Map<String, InventoryItemView> loaded = inventoryJdbc.findBySerials(missing);
+        found.putAll(loaded);
+        synchronized (cache) {
+            // skip caching if an item changed while the query ran
+            if (generation.get() == loading) {
+                loaded.forEach((key, item) -> cache.put(key, new Cached(item, loadedAt)));
+            }
+        }
+        return found;
+    }
+
+    private record Cached(InventoryItemView item, long loadedAt) {}
+}
@@ -1,27 +1,62 @@
 package com.smarthireflow.hrbackend.service;
 
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.InventoryAssignmentEntry;
+import com.smarthireflow.hrbackend.dto.InventorySearchHit;
+import com.smarthireflow.hrbackend.dto.PageCursor;
 import com.smarthireflow.hrbackend.model.*;
+import com.smarthireflow.hrbackend.repository.InventoryAssignmentRepository;
+import com.smarthireflow.hrbackend.repository.InventoryItemJdbcRepository;
 import com.smarthireflow.hrbackend.repository.InventoryItemRepository;
+import com.smarthireflow.hrbackend.repository.InventorySearchRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Service for managing inventory items.  Handles common
  * operations such as creating, updating and assigning items to
  * employees.  Business rules (e.g. cannot assign an item that is
  * not available) are enforced here.
+ *
+ * <p>Serial numbers are stored trimmed and must be unique ignoring case;
+ * every write publishes an {@link InventoryChangedEvent} with the
+ * serials it touched.  Assignee changes are recorded in the
+ * append-only assignment history in the same transaction.
  */
 @Service
 public class InventoryService {
 
     private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryItemJdbcRepository inventoryJdbc;
+    private final InventoryAssignmentRepository assignments;
+    private final InventorySearchRepository searchRepository;
     private final EmployeeService employeeService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
 
     public InventoryService(InventoryItemRepository inventoryItemRepository,
-                            EmployeeService employeeService) {
+                            InventoryItemJdbcRepository inventoryJdbc,
+                            InventoryAssignmentRepository assignments,
+                            InventorySearchRepository searchRepository,
+                            EmployeeService employeeService,
+                            ApplicationEventPublisher events,
+                            TransactionTemplate tx) {
         this.inventoryItemRepository = inventoryItemRepository;
+        this.inventoryJdbc = inventoryJdbc;
+        this.assignments = assignments;
+        this.searchRepository = searchRepository;
         this.employeeService = employeeService;
+        this.events = events;
+        this.tx = tx;
     }
 
     public InventoryItem createItem(InventoryItem item) {
@@ -37,49 +72,78 @@ public class InventoryService {
         item.setAssignedTo(null);
         item.setAssignedDate(null);
         item.setReturnDate(null);
-        return inventoryItemRepository.save(item);
+        item.setSerialNumber(checkSerial(item.getSerialNumber(), null));
+        return saveChanged(item, null);
     }
 
     public List<InventoryItem> findAll() {
         return inventoryItemRepository.findAll();
     }
 
-    public InventoryItem assignItem(Long itemId, Long employeeId) {
-        InventoryItem item = inventoryItemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
-        // Only items that are not lost or damaged may be assigned.  If an
-        // item is currently assigned (ACTIVE) we still allow reassignment
-        // but we treat it as a new assignment and reset the dates.
-        if (item.getStatus() == InventoryStatus.LOST || item.getStatus() == InventoryStatus.DAMAGED) {
-            throw new IllegalStateException("Item cannot be assigned because it is lost or damaged");
-        }
-        Employee employee = employeeService.findById(employeeId)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        item.setAssignedTo(employee);
-        // Set assignment details
-        item.setStatus(InventoryStatus.ACTIVE);
-        item.setAssignedDate(java.time.LocalDate.now());
-        item.setReturnDate(null);
-        return inventoryItemRepository.save(item);
-    }
-
-    public InventoryItem updateItem(Long itemId, InventoryItem updated) {
-        InventoryItem existing = inventoryItemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
-        existing.setItemName(updated.getItemName());
-        existing.setCategory(updated.getCategory());
-        existing.setCondition(updated.getCondition());
-        existing.setPurchaseDate(updated.getPurchaseDate());
-        existing.setStatus(updated.getStatus());
-        existing.setAssignedTo(updated.getAssignedTo());
-        existing.setSerialNumber(updated.getSerialNumber());
-        existing.setCost(updated.getCost());
-        existing.setWarranty(updated.getWarranty());
-        existing.setNotes(updated.getNotes());
-        existing.setValue(updated.getValue());
-        existing.setAssignedDate(updated.getAssignedDate());
-        existing.setReturnDate(updated.getReturnDate());
-        return inventoryItemRepository.save(existing);
+    /**
+     * Ranked search over name, serial number and category (prefix and
+     * substring) and notes (full text), optionally limited to a status.
+     * Queries shorter than two characters are rejected since they would
+     * match most of the inventory.
+     */
+    public CursorPage<InventorySearchHit> search(String query, InventoryStatus status, String cursor, int limit) {
+        String q = query == null ? "" : query.strip();
+        if (q.length() < 2) throw new IllegalArgumentException("Search query must be at least 2 characters");
+        PageCursor after = PageCursor.decode(cursor);
+        List<InventorySearchHit> rows = searchRepository.search(q, status,
+                after != null ? Double.valueOf(after.key()) : null,
+                after != null ? after.id() : null,
+                limit + 1);
+        return CursorPage.of(rows, limit, h -> new PageCursor(Double.toString(h.score()), h.id()));
+    }
+
+    public InventoryItem assignItem(Long itemId, Long employeeId, Long recordedBy) {
+        return tx.execute(status -> {
+            InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
+            // Only items that are not lost or damaged may be assigned.  If an
+            // item is currently assigned (ACTIVE) we still allow reassignment
+            // but we treat it as a new assignment and reset the dates.
+            if (item.getStatus() == InventoryStatus.LOST || item.getStatus() == InventoryStatus.DAMAGED) {
+                throw new IllegalStateException("Item cannot be assigned because it is lost or damaged");
+            }
+            Employee employee = employeeService.findById(employeeId)
+                    .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
+            Long previousHolder = holderId(item);
+            item.setAssignedTo(employee);
+            // Set assignment details
+            item.setStatus(InventoryStatus.ACTIVE);
+            item.setAssignedDate(java.time.LocalDate.now());
+            item.setReturnDate(null);
+            InventoryItem saved = saveChanged(item, item.getSerialNumber());
+            recordHolderChange(itemId, previousHolder, employeeId, recordedBy);
+            return saved;
+        });
+    }
+
+    public InventoryItem updateItem(Long itemId, InventoryItem updated, Long recordedBy) {
+        return tx.execute(status -> {
+            InventoryItem existing = inventoryItemRepository.findByIdForUpdate(itemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
+            String previousSerial = existing.getSerialNumber();
+            Long previousHolder = holderId(existing);
+            existing.setItemName(updated.getItemName());
+            existing.setCategory(updated.getCategory());
+            existing.setCondition(updated.getCondition());
+            existing.setPurchaseDate(updated.getPurchaseDate());
+            existing.setStatus(updated.getStatus());
+            existing.setAssignedTo(updated.getAssignedTo());
+            existing.setSerialNumber(checkSerial(updated.getSerialNumber(), itemId));
+            existing.setCost(updated.getCost());
+            existing.setWarranty(updated.getWarranty());
+            existing.setNotes(updated.getNotes());
+            existing.setValue(updated.getValue());
+            existing.setAssignedDate(updated.getAssignedDate());
+            existing.setReturnDate(updated.getReturnDate());
+            InventoryItem saved = saveChanged(existing, previousSerial);
+            recordHolderChange(itemId, previousHolder, holderId(saved), recordedBy);
+            return saved;
+        });
     }
 
     /**
@@ -89,21 +153,128 @@ public class InventoryService {
      * returned.
      *
      * @param itemId the id of the item to return
+     * @param recordedBy user making the change, for the assignment history
      * @return the updated item
      */
-    public InventoryItem returnItem(Long itemId) {
-        InventoryItem item = inventoryItemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
-        if (item.getStatus() != InventoryStatus.ACTIVE) {
-            throw new IllegalStateException("Only active items can be returned");
+    public InventoryItem returnItem(Long itemId, Long recordedBy) {
+        return tx.execute(status -> {
+            InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Inventory item not found"));
+            if (item.getStatus() != InventoryStatus.ACTIVE) {
+                throw new IllegalStateException("Only active items can be returned");
+            }
+            Long previousHolder = holderId(item);
+            item.setAssignedTo(null);
+            item.setStatus(InventoryStatus.RETURNED);
+            item.setReturnDate(java.time.LocalDate.now());
+            InventoryItem saved = saveChanged(item, item.getSerialNumber());
+            recordHolderChange(itemId, previousHolder, null, recordedBy);
+            return saved;
+        });
+    }
+
+    /**
+     * Delete an inventory item.  A holder still listed on the item gets
+     * a RETURNED event first; the custody history stays, detached from
+     * the deleted item.
+     *
+     * @param itemId the id of the item to delete
+     * @param recordedBy user making the change, for the assignment history
+     */
+    public void deleteItem(Long itemId, Long recordedBy) {
+        tx.executeWithoutResult(status -> inventoryItemRepository.findByIdForUpdate(itemId).ifPresent(item -> {
+            recordHolderChange(itemId, holderId(item), null, recordedBy);
+            inventoryItemRepository.delete(item);
+            publishChanged(item.getSerialNumber(), null);
+        }));
+    }
+
+    /**
+     * Custody history of an item, newest first.
+     */
+    public CursorPage<InventoryAssignmentEntry> itemHistory(Long itemId, String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<InventoryAssignmentEntry> rows = assignments.findForItem(itemId,
+                after == null ? null : parseCursorTime(after), after == null ? null : after.id(), limit + 1);
+        return CursorPage.of(rows, limit, InventoryService::historyCursor);
+    }
+
+    /**
+     * Items an employee has held and returned, newest event first.
+     */
+    public CursorPage<InventoryAssignmentEntry> employeeHistory(Long employeeId, String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<InventoryAssignmentEntry> rows = assignments.findForEmployee(employeeId,
+                after == null ? null : parseCursorTime(after), after == null ? null : after.id(), limit + 1);
+        return CursorPage.of(rows, limit, InventoryService::historyCursor);
+    }
+
+    private static PageCursor historyCursor(InventoryAssignmentEntry e) {
+        return new PageCursor(e.occurredAt().toString(), e.id());
+    }
+
+    private static OffsetDateTime parseCursorTime(PageCursor cursor) {
+        try {
+            return OffsetDateTime.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Long holderId(InventoryItem item) {
+        return item.getAssignedTo() == null ? null : item.getAssignedTo().getId();
+    }
+
+    /**
+     * Write RETURNED for the previous holder and ASSIGNED for the new
+     * one when an item changes hands.  Must run in the transaction that
+     * saved the item.
+     */
+    private void recordHolderChange(Long itemId, Long previousHolder, Long newHolder, Long recordedBy) {
+        if (Objects.equals(previousHolder, newHolder)) return;
+        if (previousHolder != null) {
+            assignments.append(itemId, previousHolder, InventoryAssignmentEventType.RETURNED, recordedBy);
+        }
+        if (newHolder != null) {
+            assignments.append(itemId, newHolder, InventoryAssignmentEventType.ASSIGNED, recordedBy);
         }
-        item.setAssignedTo(null);
-        item.setStatus(InventoryStatus.RETURNED);
-        item.setReturnDate(java.time.LocalDate.now());
-        return inventoryItemRepository.save(item);
     }
 
-    public void deleteItem(Long itemId) {
-        inventoryItemRepository.deleteById(itemId);
+    /**
+     * Trim the serial (blank means none) and make sure no other item
+     * uses it, ignoring case.
+     */
+    private String checkSerial(String serial, Long itemId) {
+        String normalized = InventoryItemJdbcRepository.normalizeSerial(serial);
+        if (normalized == null) return null;
+        if (inventoryJdbc.findIdBySerial(normalized, itemId) != null) {
+            throw new IllegalStateException("Serial number already in use");
+        }
+        return serial.strip();
+    }
+
+    private InventoryItem saveChanged(InventoryItem item, String previousSerial) {
+        InventoryItem saved;
+        try {
+            saved = inventoryItemRepository.saveAndFlush(item);
+        } catch (DataIntegrityViolationException e) {
+            // another write took the serial after checkSerial looked
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.contains("ux_inventory_items_serial_norm")) {
+                throw new IllegalStateException("Serial number already in use");
+            }
+            throw e;
+        }
+        publishChanged(previousSerial, saved.getSerialNumber());
+        return saved;
+    }
+
+    private void publishChanged(String... serials) {
+        Set<String> normalized = new HashSet<>();
+        for (String serial : serials) {
+            String key = InventoryItemJdbcRepository.normalizeSerial(serial);
+            if (key != null) normalized.add(key);
+        }
+        if (!normalized.isEmpty()) events.publishEvent(new InventoryChangedEvent(normalized));
     }
 }
\ No newline at end of file
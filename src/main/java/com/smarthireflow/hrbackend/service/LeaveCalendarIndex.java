@@ -0,0 +1,227 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.repository.LeaveRequestJdbcRepository;
+import com.smarthireflow.hrbackend.util.IntervalTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * In-memory calendar of pending and approved leave, answering "who is
+ * off between X and Y" without touching the database.  Requests are
+ * held in one {@link IntervalTree} per department and one per employee;
+ * the trees are immutable and replaced as a whole, so readers never
+ * lock and always see a consistent view.  Writers swap in a new
+ * snapshot with compare-and-set instead of locking, so a full reload
+ * does not hold up event updates while it queries and builds.
+ *
+ * <p>The index is loaded at startup, kept current from
+ * {@link LeaveChangedEvent}s after commit (rebuilding only the trees the
+ * changed requests belong to), and fully reloaded every
+ * {@code leave.calendar.refresh-ms} to pick up changes made by other
+ * application instances.
+ */
+@Service
+public class LeaveCalendarIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveCalendarIndex.class);
+
+    private static final Comparator<LeaveCalendarEntry> ORDER = Comparator
+            .comparing(LeaveCalendarEntry::startDate)
+            .thenComparing(LeaveCalendarEntry::employeeId)
+            .thenComparing(LeaveCalendarEntry::requestId);
+
+    private final LeaveRequestJdbcRepository leaveJdbc;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final Object reloadLock = new Object();
+    // changes seen while a reload runs, replayed onto what it loaded
+    private volatile Queue<LeaveChangedEvent> sinceReloadStarted;
+
+    public LeaveCalendarIndex(LeaveRequestJdbcRepository leaveJdbc) {
+        this.leaveJdbc = leaveJdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warm() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${leave.calendar.refresh-ms:300000}",
+               initialDelayString = "${leave.calendar.refresh-ms:300000}")
+    void scheduledReload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Leave calendar reload failed", e);
+        }
+    }
+
+    /**
+     * Replace the index with all pending and approved requests.  The
+     * query and the build run without blocking event updates; changes
+     * that arrive meanwhile are replayed onto the loaded index before it
+     * is swapped in, so they are not overwritten.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            Queue<LeaveChangedEvent> changes = new ConcurrentLinkedQueue<>();
+            sinceReloadStarted = changes;
+            try {
+                long started = System.nanoTime();
+                Map<Long, LeaveCalendarEntry> byId = new HashMap<>();
+                for (LeaveCalendarEntry e : leaveJdbc.findActive()) byId.put(e.requestId(), e);
+                Snapshot loaded = new Snapshot(byId,
+                        buildAll(byId.values(), LeaveCalendarIndex::departmentKey),
+                        buildAll(byId.values(), LeaveCalendarEntry::employeeId));
+                while (true) {
+                    // an update that lands after this pass makes the swap fail and is replayed on the next
+                    Snapshot current = snapshot.get();
+                    Snapshot next = loaded;
+                    for (LeaveChangedEvent change : changes) next = apply(next, change);
+                    if (snapshot.compareAndSet(current, next)) break;
+                }
+                log.debug("Loaded leave calendar: {} requests in {} ms", byId.size(), (System.nanoTime() - started) / 1_000_000);
+            } finally {
+                sinceReloadStarted = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLeaveChanged(LeaveChangedEvent event) {
+        // logged before the swap, so a reload either replays it or sees the swap
+        Queue<LeaveChangedEvent> changes = sinceReloadStarted;
+        if (changes != null) changes.add(event);
+        snapshot.updateAndGet(current -> apply(current, event));
+    }
+
+    /**
+     * {@code current} with the requests of {@code event} applied,
+     * rebuilding only the trees they belong to.
+     */
+    private static Snapshot apply(Snapshot current, LeaveChangedEvent event) {
+        Map<Long, LeaveCalendarEntry> byId = new HashMap<>(current.byId());
+        Set<String> departments = new HashSet<>();
+        Set<Long> employees = new HashSet<>();
+        for (LeaveCalendarEntry e : event.requests()) {
+            LeaveCalendarEntry previous = isActive(e) ? byId.put(e.requestId(), e) : byId.remove(e.requestId());
+            for (LeaveCalendarEntry touched : new LeaveCalendarEntry[] {previous, e}) {
+                if (touched == null) continue;
+                departments.add(departmentKey(touched));
+                employees.add(touched.employeeId());
+            }
+        }
+        return new Snapshot(byId,
+                rebuild(current.byDepartment(), departments, byId, LeaveCalendarIndex::departmentKey),
+                rebuild(current.byEmployee(), employees, byId, LeaveCalendarEntry::employeeId));
+    }
+
+    /**
+     * Requests overlapping [from, to], ordered by start date and
+     * employee.  A null department means every department; pending
+     * requests are left out unless {@code includePending}.
+     */
+    public List<LeaveCalendarEntry> whoIsOff(LocalDate from, LocalDate to, String department, boolean includePending) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        Snapshot current = snapshot.get();
+        List<LeaveCalendarEntry> off = new ArrayList<>();
+        if (department != null) {
+            collect(current.byDepartment().get(department), from, to, includePending, off);
+        } else {
+            current.byDepartment().values().forEach(tree -> collect(tree, from, to, includePending, off));
+        }
+        off.sort(ORDER);
+        return off;
+    }
+
+    /**
+     * One employee's requests overlapping [from, to].
+     */
+    public List<LeaveCalendarEntry> forEmployee(Long employeeId, LocalDate from, LocalDate to) {
+        IntervalTree<LeaveCalendarEntry> tree = snapshot.get().byEmployee().get(employeeId);
+        List<LeaveCalendarEntry> out = new ArrayList<>();
+        collect(tree, from, to, true, out);
+        return out;
+    }
+
+    public int size() {
+        return snapshot.get().byId().size();
+    }
+
+    private static void collect(IntervalTree<LeaveCalendarEntry> tree, LocalDate from, LocalDate to,
+                                boolean includePending, List<LeaveCalendarEntry> out) {
+        if (tree == null) return;
+        tree.forEachOverlapping(from.toEpochDay(), to.toEpochDay(), e -> {
+            if (includePending || e.status() == LeaveStatus.APPROVED) out.add(e);
+        });
+    }
+
+    private static boolean isActive(LeaveCalendarEntry e) {
+        return (e.status() == LeaveStatus.PENDING || e.status() == LeaveStatus.APPROVED)
+                && e.startDate() != null && e.endDate() != null;
+    }
+
+    private static String departmentKey(LeaveCalendarEntry e) {
+        // employees without a department are grouped under ""
+        return Objects.requireNonNullElse(e.department(), "");
+    }
+
+    private static <K> Map<K, IntervalTree<LeaveCalendarEntry>> buildAll(Iterable<LeaveCalendarEntry> entries,
+                                                                        Function<LeaveCalendarEntry, K> key) {
+        Map<K, List<IntervalTree.Interval<LeaveCalendarEntry>>> grouped = new HashMap<>();
+        for (LeaveCalendarEntry e : entries) {
+            grouped.computeIfAbsent(key.apply(e), k -> new ArrayList<>()).add(interval(e));
+        }
+        Map<K, IntervalTree<LeaveCalendarEntry>> trees = new HashMap<>();
+        grouped.forEach((k, intervals) -> trees.put(k, new IntervalTree<>(intervals)));
+        return trees;
+    }
+
+    /**
+     * Copy of {@code trees} with the trees for {@code changed} keys rebuilt
+     * from {@code byId}; keys left with no requests are dropped.
+     */
+    private static <K> Map<K, IntervalTree<LeaveCalendarEntry>> rebuild(Map<K, IntervalTree<LeaveCalendarEntry>> trees,
+                                                                       Set<K> changed,
+                                                                       Map<Long, LeaveCalendarEntry> byId,
+                                                                       Function<LeaveCalendarEntry, K> key) {
+        Map<K, IntervalTree<LeaveCalendarEntry>> copy = new HashMap<>(trees);
+        changed.forEach(copy::remove);
+        List<LeaveCalendarEntry> members = byId.values().stream()
+                .filter(e -> changed.contains(key.apply(e)))
+                .toList();
+        copy.putAll(buildAll(members, key));
+        return copy;
+    }
+
+    private static IntervalTree.Interval<LeaveCalendarEntry> interval(LeaveCalendarEntry e) {
+        return new IntervalTree.Interval<>(e.startDate().toEpochDay(), e.endDate().toEpochDay(), e);
+    }
+
+    private record Snapshot(Map<Long, LeaveCalendarEntry> byId,
+                            Map<String, IntervalTree<LeaveCalendarEntry>> byDepartment,
+                            Map<Long, IntervalTree<LeaveCalendarEntry>> byEmployee) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of());
+    }
+}
@@ -0,0 +1,13 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+
+import java.util.List;
+
+/**
+ * Published by the leave write paths with the current state of every
+ * request they created or changed.  Listeners that keep derived state
+ * should use {@code @TransactionalEventListener} so they only see
+ * committed changes.
+ */
+public record LeaveChangedEvent(List<LeaveCalendarEntry> requests) {}
@@ -0,0 +1,204 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.LeaveBalanceView;
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.dto.LeaveLedgerEntry;
+import com.smarthireflow.hrbackend.dto.PageCursor;
+import com.smarthireflow.hrbackend.model.LeaveLedgerEntryType;
+import com.smarthireflow.hrbackend.model.LeaveRequest;
+import com.smarthireflow.hrbackend.model.LeaveType;
+import com.smarthireflow.hrbackend.repository.AdvisoryLocks;
+import com.smarthireflow.hrbackend.repository.LeaveLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Leave balances backed by an append-only ledger.  Approving a request
+ * debits its working days (see {@link WorkingDayCalendar}) and rejecting
+ * an approved request reverses the debit; both are written by
+ * {@link LeaveService} inside the transaction that changes the
+ * request's status.  Managers can post manual adjustments.
+ *
+ * <p>Accrual grants each employee the configured days per type once a
+ * month.  The run walks employees in id batches, one set-based statement
+ * and transaction per batch, and is idempotent per month thanks to the
+ * unique accrual index, so a failed run can simply be repeated.  A
+ * session advisory lock keeps it to one instance at a time.
+ */
+@Service
+public class LeaveLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveLedgerService.class);
+    private static final int LOCK_CLASS = 0x4c414343;
+
+    private final LeaveLedgerRepository ledger;
+    private final WorkingDayCalendar calendar;
+    private final AdvisoryLocks locks;
+    private final TransactionTemplate tx;
+    private final Map<LeaveType, BigDecimal> monthlyAccrual = new EnumMap<>(LeaveType.class);
+    private final int batchSize;
+
+    private volatile AccrualResult lastAccrual;
+
+    public LeaveLedgerService(LeaveLedgerRepository ledger,
+                              WorkingDayCalendar calendar,
+                              AdvisoryLocks locks,
+                              TransactionTemplate tx,
+                              @Value("${leave.accrual.vacation-days-per-month:1.75}") BigDecimal vacationDays,
+                              @Value("${leave.accrual.sick-days-per-month:1}") BigDecimal sickDays,
+                              @Value("${leave.accrual.personal-days-per-month:0.25}") BigDecimal personalDays,
+                              @Value("${leave.accrual.batch-size:1000}") int batchSize) {
+        this.ledger = ledger;
+        this.calendar = calendar;
+        this.locks = locks;
+        this.tx = tx;
+        this.batchSize = batchSize;
+        putRate(LeaveType.VACATION, vacationDays);
+        putRate(LeaveType.SICK, sickDays);
+        putRate(LeaveType.PERSONAL, personalDays);
+    }
+
+    private void putRate(LeaveType type, BigDecimal days) {
+        if (days.signum() > 0) monthlyAccrual.put(type, days);
+    }
+
+    /**
+     * Days a request takes from the balance: the working days of its
+     * range in the employee's holiday region.
+     */
+    public BigDecimal daysOf(LeaveRequest request) {
+        String region = calendar.region(request.getEmployee().getRegion());
+        return BigDecimal.valueOf(calendar.workingDays(region, request.getStartDate(), request.getEndDate()));
+    }
+
+    /**
+     * Debit an approved request.  Must be called inside the transaction
+     * that approves it.
+     */
+    public LeaveBalanceView debit(LeaveRequest request) {
+        if (request.getType() == null) throw new IllegalArgumentException("Leave request has no leave type");
+        return ledger.append(request.getEmployee().getId(), request.getType(), LeaveLedgerEntryType.DEBIT,
+                daysOf(request).negate(), request.getId(), null);
+    }
+
+    /**
+     * Debit several approved requests in one statement.  Must be called
+     * inside the transaction that approves them.
+     */
+    public int debitAll(List<LeaveCalendarEntry> requests) {
+        if (requests.stream().anyMatch(r -> r.type() == null)) {
+            throw new IllegalArgumentException("Leave requests without a leave type cannot be debited");
+        }
+        Map<Long, String> regions = calendar.regionsOf(requests.stream().map(LeaveCalendarEntry::employeeId).distinct().toList());
+        return ledger.appendAll(requests.stream()
+                .map(r -> new LeaveLedgerRepository.NewEntry(r.employeeId(), r.type(), LeaveLedgerEntryType.DEBIT,
+                        BigDecimal.valueOf(calendar.workingDays(regions.get(r.employeeId()), r.startDate(), r.endDate())).negate(),
+                        r.requestId(), null))
+                .toList());
+    }
+
+    /**
+     * Give back what is still debited for a request that is no longer
+     * approved, i.e. exactly the amount taken even if the holiday
+     * calendar changed since.  Must be called inside the transaction
+     * that changes its status.
+     */
+    public Optional<LeaveBalanceView> reverse(LeaveRequest request) {
+        BigDecimal outstanding = ledger.outstandingDebit(request.getId());
+        if (outstanding.signum() >= 0) return Optional.empty();
+        return Optional.of(ledger.append(request.getEmployee().getId(), request.getType(), LeaveLedgerEntryType.REVERSAL,
+                outstanding.negate(), request.getId(), null));
+    }
+
+    /**
+     * Post a manual correction of {@code days} (either sign).
+     */
+    public LeaveBalanceView adjust(Long employeeId, LeaveType type, BigDecimal days, String note) {
+        if (days == null || days.signum() == 0) throw new IllegalArgumentException("days must be non-zero");
+        if (days.scale() > 2) throw new IllegalArgumentException("days allows at most two decimals");
+        return ledger.append(employeeId, type, LeaveLedgerEntryType.ADJUSTMENT, days, null, note);
+    }
+
+    /**
+     * Balances of every leave type, zero for types with no ledger entries
+     * yet.
+     */
+    public List<LeaveBalanceView> balances(Long employeeId) {
+        Map<LeaveType, LeaveBalanceView> byType = new EnumMap<>(LeaveType.class);
+        for (LeaveType type : LeaveType.values()) {
+            byType.put(type, new LeaveBalanceView(employeeId, type, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, null));
+        }
+        ledger.findBalances(employeeId).forEach(b -> byType.put(b.type(), b));
+        return List.copyOf(byType.values());
+    }
+
+    public Optional<LeaveBalanceView> balance(Long employeeId, LeaveType type) {
+        return ledger.findBalance(employeeId, type);
+    }
+
+    public CursorPage<LeaveLedgerEntry> entries(Long employeeId, LeaveType type, String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<LeaveLedgerEntry> rows = ledger.findEntries(employeeId, type, after == null ? null : after.id(), limit + 1);
+        return CursorPage.of(rows, limit, e -> new PageCursor("", e.id()));
+    }
+
+    @Scheduled(cron = "${leave.accrual.cron:0 30 1 1 * *}")
+    void scheduledAccrual() {
+        try {
+            accrue(YearMonth.now());
+        } catch (RuntimeException e) {
+            log.error("Leave accrual failed", e);
+        }
+    }
+
+    /**
+     * Grant {@code month}'s accrual to every employee not yet credited
+     * for it.  Returns a skipped result if another instance is running
+     * an accrual.
+     */
+    public AccrualResult accrue(YearMonth month) {
+        Instant started = Instant.now();
+        Optional<AdvisoryLocks.Lock> lock = locks.tryAcquire(LOCK_CLASS, 0);
+        if (lock.isEmpty()) {
+            return new AccrualResult(started, month, true, 0, 0);
+        }
+        try (AdvisoryLocks.Lock held = lock.get()) {
+            String note = "Monthly accrual " + month;
+            long after = 0;
+            int entries = 0;
+            int batches = 0;
+            Optional<Long> upto;
+            while ((upto = ledger.nextEmployeeBatchEnd(after, batchSize)).isPresent()) {
+                long from = after;
+                long to = upto.get();
+                Integer written = tx.execute(status -> ledger.accrue(month.atDay(1), monthlyAccrual, from, to, note));
+                entries += written == null ? 0 : written;
+                batches++;
+                after = to;
+            }
+            AccrualResult result = new AccrualResult(started, month, false, entries, batches);
+            lastAccrual = result;
+            log.info("Leave accrual for {} wrote {} entries in {} batches", month, entries, batches);
+            return result;
+        }
+    }
+
+    public AccrualResult lastAccrual() {
+        return lastAccrual;
+    }
+
+    public record AccrualResult(Instant startedAt, YearMonth month, boolean skipped, int entries, int batches) {}
+}
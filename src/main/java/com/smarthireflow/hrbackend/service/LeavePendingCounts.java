@@ -0,0 +1,64 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.LeaveRequestJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached count of pending leave requests per department for the
+ * dashboard badge.  The counts come from one GROUP BY query and are
+ * dropped whenever this instance commits a leave change
+ * ({@link LeaveChangedEvent}); a TTL of {@code leave.pending-count.ttl-ms}
+ * bounds how stale they get from changes made by other instances.
+ */
+@Service
+public class LeavePendingCounts {
+
+    private final LeaveRequestJdbcRepository leaveJdbc;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Counts cached;
+
+    public LeavePendingCounts(LeaveRequestJdbcRepository leaveJdbc,
+                              @Value("${leave.pending-count.ttl-ms:60000}") long ttlMs) {
+        this.leaveJdbc = leaveJdbc;
+        this.ttlNanos = ttlMs * 1_000_000;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLeaveChanged(LeaveChangedEvent event) {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    /**
+     * Pending requests per department ("" for employees without one).
+     */
+    public Map<String, Long> byDepartment() {
+        Counts counts = cached;
+        if (counts != null && System.nanoTime() - counts.loadedAt() < ttlNanos) {
+            return counts.byDepartment();
+        }
+        long loading = generation.get();
+        long loadedAt = System.nanoTime();
+        Counts fresh = new Counts(Map.copyOf(leaveJdbc.countPendingByDepartment()), loadedAt);
+        // a change committed while the query ran may be missing from it,
+        // so only keep the result if nothing was invalidated meanwhile
+        if (generation.get() == loading) cached = fresh;
+        return fresh.byDepartment();
+    }
+
+    public long forDepartment(String department) {
+        return byDepartment().getOrDefault(department, 0L);
+    }
+
+    public long total() {
+        return byDepartment().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private record Counts(Map<String, Long> byDepartment, long loadedAt) {}
+}
@@ -1,59 +1,190 @@
 package com.smarthireflow.hrbackend.service;
 
+import com.smarthireflow.hrbackend.dto.CursorPage;
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.dto.LeaveDecisionResult;
+import com.smarthireflow.hrbackend.dto.LeaveRequestView;
+import com.smarthireflow.hrbackend.dto.PageCursor;
 import com.smarthireflow.hrbackend.model.*;
+import com.smarthireflow.hrbackend.repository.LeaveRequestJdbcRepository;
 import com.smarthireflow.hrbackend.repository.LeaveRequestRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Service layer for leave management.  Provides functionality for
  * employees to create leave requests and for managers to
- * approve or reject requests.  Additional logic such as
- * validation of overlapping dates or leave balances can be
- * incorporated here in the future.
+ * approve or reject requests.
+ *
+ * <p>An employee cannot hold two pending or approved requests covering
+ * the same day.  The check runs under a per-employee advisory lock so
+ * concurrent submissions are serialised, and the database enforces the
+ * same rule with the ex_leave_requests_no_overlap exclusion constraint.
+ * Approval and rejection move days in and out of the employee's
+ * balance through {@link LeaveLedgerService} in the same transaction.
+ * Every change is published as a {@link LeaveChangedEvent}.
  */
 @Service
 public class LeaveService {
 
     private final LeaveRequestRepository leaveRequestRepository;
+    private final LeaveRequestJdbcRepository leaveJdbc;
     private final EmployeeService employeeService;
+    private final LeaveLedgerService ledgerService;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
 
-    public LeaveService(LeaveRequestRepository leaveRequestRepository, EmployeeService employeeService) {
+    public LeaveService(LeaveRequestRepository leaveRequestRepository,
+                        LeaveRequestJdbcRepository leaveJdbc,
+                        EmployeeService employeeService,
+                        LeaveLedgerService ledgerService,
+                        TransactionTemplate tx,
+                        ApplicationEventPublisher events) {
         this.leaveRequestRepository = leaveRequestRepository;
+        this.leaveJdbc = leaveJdbc;
         this.employeeService = employeeService;
+        this.ledgerService = ledgerService;
+        this.tx = tx;
+        this.events = events;
     }
 
     /**
-     * Create a new leave request for the given employee.
+     * Create a new leave request for the given employee.  Fails with
+     * IllegalStateException if it overlaps one of the employee's pending
+     * or approved requests.
      */
     public LeaveRequest createLeaveRequest(Long employeeId, LeaveType type, LocalDate startDate, LocalDate endDate, String reason) {
+        if (startDate == null || endDate == null) throw new IllegalArgumentException("Start and end dates are required");
+        if (endDate.isBefore(startDate)) throw new IllegalArgumentException("End date must not be before start date");
         Employee employee = employeeService.findById(employeeId)
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        LeaveRequest request = new LeaveRequest(employee, type, startDate, endDate, reason);
-        return leaveRequestRepository.save(request);
+        return saveChecked(() -> {
+            LeaveRequest request = new LeaveRequest(employee, type, startDate, endDate, reason);
+            checkNoOverlap(request);
+            return request;
+        });
     }
 
     /**
-     * Approve a leave request.  Only managers should call this.
+     * Approve a leave request and debit its days.  Only managers should
+     * call this.  A rejected request can only be approved if it no
+     * longer overlaps another active request; approving an approved
+     * request changes nothing.  A request without a leave type cannot be
+     * debited and is refused with IllegalArgumentException.
      */
     public LeaveRequest approveRequest(Long requestId) {
-        LeaveRequest request = leaveRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Leave request not found"));
-        request.setStatus(LeaveStatus.APPROVED);
-        return leaveRequestRepository.save(request);
+        return saveChecked(() -> {
+            LeaveRequest request = leaveRequestRepository.findByIdForUpdate(requestId)
+                    .orElseThrow(() -> new IllegalArgumentException("Leave request not found"));
+            if (request.getStatus() == LeaveStatus.APPROVED) return request;
+            if (request.getType() == null) {
+                throw new IllegalArgumentException("Leave request " + requestId + " has no leave type");
+            }
+            if (request.getStatus() == LeaveStatus.REJECTED) checkNoOverlap(request);
+            request.setStatus(LeaveStatus.APPROVED);
+            ledgerService.debit(request);
+            return request;
+        });
     }
 
     /**
-     * Reject a leave request.  Only managers should call this.
+     * Reject a leave request.  Only managers should call this.  If it
+     * was approved, its debit is reversed.
      */
     public LeaveRequest rejectRequest(Long requestId) {
-        LeaveRequest request = leaveRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Leave request not found"));
-        request.setStatus(LeaveStatus.REJECTED);
-        return leaveRequestRepository.save(request);
+        return saveChecked(() -> {
+            LeaveRequest request = leaveRequestRepository.findByIdForUpdate(requestId)
+                    .orElseThrow(() -> new IllegalArgumentException("Leave request not found"));
+            if (request.getStatus() == LeaveStatus.APPROVED) ledgerService.reverse(request);
+            request.setStatus(LeaveStatus.REJECTED);
+            return request;
+        });
+    }
+
+    /**
+     * Approve or reject many pending requests at once.  The status change
+     * is one conditional UPDATE over all of them, and the debits for
+     * approvals are written in the same transaction.  A request is only
+     * changed while it is still PENDING and, when the caller supplied
+     * its version, still at that version; anything else is reported per
+     * id rather than failing the batch.  Requests without a leave type
+     * are never approved (MISSING_TYPE), since they cannot be debited.
+     * Results follow the order of {@code ids}, duplicates removed.
+     */
+    public List<LeaveDecisionResult> decideAll(List<Long> ids, Map<Long, Long> versions, LeaveStatus status) {
+        if (status != LeaveStatus.APPROVED && status != LeaveStatus.REJECTED) {
+            throw new IllegalArgumentException("status must be APPROVED or REJECTED");
+        }
+        Map<Long, Long> expected = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id == null) throw new IllegalArgumentException("ids must not contain null");
+            expected.put(id, versions == null ? null : versions.get(id));
+        }
+        return tx.execute(txStatus -> {
+            List<LeaveRequestJdbcRepository.Decided> decided = leaveJdbc.decidePending(expected, status);
+            List<LeaveCalendarEntry> changed = decided.stream().map(LeaveRequestJdbcRepository.Decided::request).toList();
+            if (status == LeaveStatus.APPROVED) ledgerService.debitAll(changed);
+            if (!changed.isEmpty()) events.publishEvent(new LeaveChangedEvent(changed));
+
+            Map<Long, Long> updated = new HashMap<>();
+            decided.forEach(d -> updated.put(d.request().requestId(), d.version()));
+            List<Long> untouched = expected.keySet().stream().filter(id -> !updated.containsKey(id)).toList();
+            Map<Long, LeaveRequestJdbcRepository.StatusVersion> current = leaveJdbc.findStatusVersions(untouched);
+
+            List<LeaveDecisionResult> results = new ArrayList<>(expected.size());
+            expected.forEach((id, expectedVersion) -> {
+                if (updated.containsKey(id)) {
+                    results.add(new LeaveDecisionResult(id, LeaveDecisionOutcome.UPDATED, status, updated.get(id)));
+                    return;
+                }
+                LeaveRequestJdbcRepository.StatusVersion now = current.get(id);
+                if (now == null) {
+                    results.add(new LeaveDecisionResult(id, LeaveDecisionOutcome.NOT_FOUND, null, null));
+                } else if (now.status() != LeaveStatus.PENDING) {
+                    results.add(new LeaveDecisionResult(id, LeaveDecisionOutcome.NOT_PENDING, now.status(), now.version()));
+                } else if (status == LeaveStatus.APPROVED && now.type() == null) {
+                    results.add(new LeaveDecisionResult(id, LeaveDecisionOutcome.MISSING_TYPE, now.status(), now.version()));
+                } else {
+                    results.add(new LeaveDecisionResult(id, LeaveDecisionOutcome.VERSION_CONFLICT, now.status(), now.version()));
+                }
+            });
+            return results;
+        });
+    }
+
+    /**
+     * One page of leave requests for the admin listing, newest start date
+     * first, filtered by any of status, type, date range (overlapping
+     * [from, to]) and department.
+     */
+    public CursorPage<LeaveRequestView> list(LeaveStatus status, LeaveType type, LocalDate from, LocalDate to,
+                                             String department, String cursor, int limit) {
+        if (from != null && to != null && from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        PageCursor after = PageCursor.decode(cursor);
+        List<LeaveRequestView> rows = leaveJdbc.findPage(status, type, from, to, department,
+                after != null ? parseCursorDate(after) : null,
+                after != null ? after.id() : null,
+                limit + 1);
+        return CursorPage.of(rows, limit, r -> new PageCursor(r.startDate().toString(), r.id()));
+    }
+
+    private static LocalDate parseCursorDate(PageCursor cursor) {
+        try {
+            return LocalDate.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     /**
@@ -78,4 +209,44 @@ public class LeaveService {
     public List<LeaveRequest> findByStatus(LeaveStatus status) {
         return leaveRequestRepository.findByStatus(status);
     }
-}
\ No newline at end of file
+
+    /**
+     * Run {@code change} and flush the request it returns in one
+     * transaction.  The exclusion constraint is the backstop for writers
+     * that bypass {@link #checkNoOverlap}; its violation is reported the
+     * same way.
+     */
+    private LeaveRequest saveChecked(Supplier<LeaveRequest> change) {
+        try {
+            return tx.execute(status -> {
+                LeaveRequest saved = leaveRequestRepository.saveAndFlush(change.get());
+                events.publishEvent(new LeaveChangedEvent(List.of(toCalendarEntry(saved))));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!cause.contains("ex_leave_requests_no_overlap")) throw e;
+            throw new IllegalStateException("Leave request overlaps an existing request", e);
+        }
+    }
+
+    /**
+     * Must run inside a transaction: the employee's lock is held until
+     * it ends, so no other request for the employee can be written
+     * between this check and the caller's insert.
+     */
+    private void checkNoOverlap(LeaveRequest request) {
+        Long employeeId = request.getEmployee().getId();
+        leaveJdbc.lockEmployee(employeeId);
+        List<Long> overlapping = leaveJdbc.findOverlapping(employeeId, request.getStartDate(), request.getEndDate(), request.getId());
+        if (!overlapping.isEmpty()) {
+            throw new IllegalStateException("Leave request overlaps existing request " + overlapping.get(0));
+        }
+    }
+
+    private static LeaveCalendarEntry toCalendarEntry(LeaveRequest request) {
+        Employee employee = request.getEmployee();
+        return new LeaveCalendarEntry(request.getId(), employee.getId(), employee.getName(), employee.getDepartment(),
+                request.getType(), request.getStatus(), request.getStartDate(), request.getEndDate());
+    }
+}
@@ -0,0 +1,128 @@
+package com.smarthireflow.hrbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link AvatarStorage} in a local directory ({@code avatars.dir}).
+ * Images live at {@code <dir>/<first two hex digits>/<hash>} so no
+ * single directory grows large.  An upload is written to a temporary
+ * file while it is hashed and then moved into place atomically, so a
+ * reader never sees a partial image.  The file's modification time is
+ * its stored-at time.
+ */
+@Component
+public class LocalAvatarStorage implements AvatarStorage {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_PREFIX = ".upload-";
+
+    private final Path dir;
+
+    public LocalAvatarStorage(@Value("${avatars.dir:data/avatars}") String dir) throws IOException {
+        this.dir = Path.of(dir).toAbsolutePath();
+        Files.createDirectories(this.dir);
+        // uploads interrupted by a previous shutdown
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.dir, TEMP_PREFIX + "*")) {
+            for (Path file : leftovers) Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(dir, TEMP_PREFIX, ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (Files.exists(target)) {
+                // keep the sweep's grace period from running out under a new reference
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                return hash;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // stored concurrently; the content is the same
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String hash) {
+        if (!isHash(hash)) return Optional.empty();
+        Path file = pathOf(hash);
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    @Override
+    public List<String> storedBefore(Instant cutoff) throws IOException {
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            return files
+                    .filter(f -> isHash(f.getFileName().toString()))
+                    .filter(f -> storedBefore(f, cutoff))
+                    .map(f -> f.getFileName().toString())
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String hash, Instant cutoff) throws IOException {
+        if (!isHash(hash)) return false;
+        Path file = pathOf(hash);
+        return storedBefore(file, cutoff) && Files.deleteIfExists(file);
+    }
+
+    private Path pathOf(String hash) {
+        return dir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static boolean storedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            // removed while we looked
+            return false;
+        }
+    }
+
+    private static boolean isHash(String name) {
+        return name != null && HASH.matcher(name).matches();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.smarthireflow.hrbackend.service;
+
+/**
+ * A clock-out found no attendance record for the employee today, i.e.
+ * they have not clocked in (or their clock-in has not committed yet).
+ * Answered with 409 by
+ * {@link com.smarthireflow.hrbackend.controller.ApiExceptionHandler}.
+ */
+public class NothingToClockOutException extends IllegalStateException {
+
+    public NothingToClockOutException() {
+        super("No attendance record found for employee to clock out");
+    }
+}
@@ -0,0 +1,179 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthireflow.hrbackend.model.Employee;
+import com.smarthireflow.hrbackend.repository.PersonalDataRepository;
+import com.smarthireflow.hrbackend.user.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an employee's personal data export: their profile, employee
+ * record, attendance, leave requests, current inventory and inventory
+ * history as one JSON document.  The four history sections are read
+ * concurrently through {@link FanOut}, each streamed from
+ * {@link PersonalDataRepository} through a {@link JsonGenerator} into
+ * its own temp file, and the files are then copied into the output (or
+ * the zip entry) in order.  Memory use does not depend on how much
+ * history the employee has, and no transaction stays open while a
+ * slow client reads the response.
+ *
+ * <p>Each export reads with one connection per section, so at most
+ * {@code export.personal.max-concurrent} exports read at once and the
+ * rest wait their turn.  The reads get {@code
+ * export.personal.fanout-timeout-ms} rather than the fan-out default,
+ * which is sized for dashboard queries.
+ */
+@Service
+public class PersonalDataExportService {
+
+    public static final String ZIP_ENTRY_NAME = "profile.json";
+
+    private static final String[] SECTIONS = {"attendance", "leaves", "inventory", "inventoryHistory"};
+
+    private final PersonalDataRepository personalData;
+    private final ObjectMapper objectMapper;
+    private final FanOut fanOut;
+    private final long fanOutTimeoutMs;
+    private final Semaphore readers;
+
+    public PersonalDataExportService(PersonalDataRepository personalData,
+                                     ObjectMapper objectMapper,
+                                     FanOut fanOut,
+                                     @Value("${export.personal.fanout-timeout-ms:300000}") long fanOutTimeoutMs,
+                                     @Value("${export.personal.max-concurrent:2}") int maxConcurrent) {
+        this.personalData = personalData;
+        this.objectMapper = objectMapper;
+        this.fanOut = fanOut;
+        this.fanOutTimeoutMs = fanOutTimeoutMs;
+        this.readers = new Semaphore(Math.max(1, maxConcurrent), true);
+    }
+
+    /**
+     * Write the export as JSON.  {@code out} is left open.
+     */
+    public void writeJson(UserEntity user, Employee employee, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(gen, out, user, employee);
+        }
+    }
+
+    /**
+     * Write the export as a zip archive holding {@value #ZIP_ENTRY_NAME}.
+     * {@code out} is left open.
+     */
+    public void writeZip(UserEntity user, Employee employee, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.putNextEntry(new ZipEntry(ZIP_ENTRY_NAME));
+        try (JsonGenerator gen = objectMapper.createGenerator(zip)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(gen, zip, user, employee);
+        }
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void write(JsonGenerator gen, OutputStream out, UserEntity user, Employee employee) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("profile");
+        gen.writeStringField("email", user.getEmail());
+        gen.writeStringField("fullName", user.getFullName());
+        gen.writeObjectField("role", user.getRole());
+        gen.writeStringField("department", user.getDepartment());
+        gen.writeStringField("phone", user.getPhone());
+        gen.writeStringField("address", user.getAddress());
+        gen.writeBooleanField("twoFactorEnabled", user.isTwoFactorEnabled());
+        gen.writeEndObject();
+        if (employee == null) {
+            for (String section : SECTIONS) {
+                gen.writeArrayFieldStart(section);
+                gen.writeEndArray();
+            }
+        } else {
+            gen.writeObjectFieldStart("employee");
+            gen.writeNumberField("id", employee.getId());
+            gen.writeStringField("name", employee.getName());
+            gen.writeStringField("email", employee.getEmail());
+            gen.writeStringField("department", employee.getDepartment());
+            gen.writeObjectField("role", employee.getRole());
+            gen.writeEndObject();
+            writeSections(gen, out, employee.getId());
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Read the sections concurrently, each spooled to a temp file as a
+     * JSON array, then copy the files into the output in order.
+     */
+    private void writeSections(JsonGenerator gen, OutputStream out, Long id) throws IOException {
+        List<Path> spools = new CopyOnWriteArrayList<>();
+        try {
+            List<Supplier<Path>> sections = new ArrayList<>();
+            try {
+                readers.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to read the export");
+            }
+            try (FanOut.Scope scope = fanOut.open(fanOutTimeoutMs)) {
+                sections.add(scope.fork(() -> spool(spools, personalData.attendance(id))));
+                sections.add(scope.fork(() -> spool(spools, personalData.leaves(id))));
+                sections.add(scope.fork(() -> spool(spools, personalData.inventory(id))));
+                sections.add(scope.fork(() -> spool(spools, personalData.inventoryHistory(id))));
+                scope.join();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                readers.release();
+            }
+            for (int i = 0; i < SECTIONS.length; i++) {
+                gen.writeFieldName(SECTIONS[i]);
+                // marks the value as written; the bytes come from the spool
+                gen.writeRawValue("");
+                gen.flush();
+                Files.copy(sections.get(i).get(), out);
+            }
+        } finally {
+            for (Path spool : spools) Files.deleteIfExists(spool);
+        }
+    }
+
+    private <T> Path spool(List<Path> spools, Stream<T> rows) throws IOException {
+        Path file = Files.createTempFile("profile-export-", ".json");
+        spools.add(file);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+             JsonGenerator gen = objectMapper.createGenerator(out)) {
+            writeArray(gen, rows);
+        }
+        return file;
+    }
+
+    private static <T> void writeArray(JsonGenerator gen, Stream<T> rows) throws IOException {
+        gen.writeStartArray();
+        try (rows) {
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) gen.writeObject(it.next());
+        }
+        gen.writeEndArray();
+    }
+}
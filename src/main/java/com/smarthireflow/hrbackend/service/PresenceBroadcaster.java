@@ -0,0 +1,105 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.PresenceEntry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Fans presence changes out to Server-Sent Events subscribers.  Each
+ * subscriber first receives a {@code snapshot} event with everyone
+ * present, then one {@code presence} event per change.  All sends happen
+ * on a single thread, which keeps events in order and keeps slow
+ * clients off the clock-in request threads.
+ */
+@Component
+public class PresenceBroadcaster {
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "presence-sse");
+        t.setDaemon(true);
+        return t;
+    });
+    private final long timeoutMs;
+    private final int maxSubscribers;
+
+    public PresenceBroadcaster(@Value("${attendance.presence.stream-timeout-ms:1800000}") long timeoutMs,
+                               @Value("${attendance.presence.max-subscribers:1000}") int maxSubscribers) {
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    /**
+     * Open a stream.  The snapshot is taken on the sender thread, so every
+     * change indexed after it is delivered as a later event and none is
+     * lost between the two.
+     */
+    public SseEmitter subscribe(Supplier<List<PresenceEntry>> snapshot) {
+        if (emitters.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many presence subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        sender.execute(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(snapshot.get()));
+                emitters.add(emitter);
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    public void publish(PresenceEntry change) {
+        if (emitters.isEmpty()) return;
+        sender.execute(() -> send(() -> SseEmitter.event().name("presence").data(change)));
+    }
+
+    public int subscribers() {
+        return emitters.size();
+    }
+
+    /**
+     * Comment line that keeps idle connections open through proxies and
+     * detects clients that have gone away.
+     */
+    @Scheduled(fixedDelayString = "${attendance.presence.heartbeat-ms:30000}")
+    void heartbeat() {
+        if (emitters.isEmpty()) return;
+        sender.execute(() -> send(() -> SseEmitter.event().comment("keepalive")));
+    }
+
+    // an event builder accumulates state as it is sent, so build one per emitter
+    private void send(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.PresenceEntry;
+import com.smarthireflow.hrbackend.model.AttendanceStatus;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of who is clocked in today, so dashboards do not each
+ * scan attendance_records.  It is warmed from today's IN_PROGRESS
+ * records at startup and kept current from {@link AttendanceChangedEvent}s
+ * after commit; every change is pushed to {@link PresenceBroadcaster}.
+ *
+ * <p>A periodic refresh re-reads today's open records (a small partial
+ * index scan) to pick up changes made by other application instances
+ * or by paths that publish no event, and drops everyone when the day
+ * rolls over.
+ */
+@Service
+public class PresenceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceIndex.class);
+
+    private final AttendanceRecordJdbcRepository attendanceJdbc;
+    private final PresenceBroadcaster broadcaster;
+    private final Map<Long, Presence> present = new ConcurrentHashMap<>();
+    private volatile LocalDate day = LocalDate.now();
+
+    public PresenceIndex(AttendanceRecordJdbcRepository attendanceJdbc, PresenceBroadcaster broadcaster) {
+        this.attendanceJdbc = attendanceJdbc;
+        this.broadcaster = broadcaster;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warm() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.presence.refresh-ms:60000}",
+               initialDelayString = "${attendance.presence.refresh-ms:60000}")
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Presence index refresh failed", e);
+        }
+    }
+
+    /**
+     * Reconcile the index with today's IN_PROGRESS records.  Entries
+     * indexed after the query started are kept, since the query may not
+     * have seen them yet.
+     */
+    public synchronized void refresh() {
+        long started = System.nanoTime();
+        rollOver(LocalDate.now());
+        Set<Long> open = new HashSet<>();
+        for (AttendanceRecordView r : attendanceJdbc.findInProgress(day)) {
+            open.add(r.employeeId());
+            markPresent(r);
+        }
+        present.forEach((employeeId, p) -> {
+            if (!open.contains(employeeId) && p.indexedAt() - started < 0 && present.remove(employeeId, p)) {
+                broadcaster.publish(new PresenceEntry(employeeId, false, null));
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        rollOver(LocalDate.now());
+        for (AttendanceRecordView r : event.records()) {
+            if (!r.date().equals(day)) continue;
+            if (r.status() == AttendanceStatus.IN_PROGRESS) {
+                markPresent(r);
+            } else if (present.remove(r.employeeId()) != null) {
+                broadcaster.publish(new PresenceEntry(r.employeeId(), false, null));
+            }
+        }
+    }
+
+    /**
+     * Everyone currently clocked in, ordered by employee id.
+     */
+    public List<PresenceEntry> snapshot() {
+        return present.entrySet().stream()
+                .map(e -> new PresenceEntry(e.getKey(), true, e.getValue().clockInTime()))
+                .sorted(Comparator.comparing(PresenceEntry::employeeId))
+                .toList();
+    }
+
+    public int count() {
+        return present.size();
+    }
+
+    private void markPresent(AttendanceRecordView r) {
+        if (present.putIfAbsent(r.employeeId(), new Presence(r.clockInTime(), System.nanoTime())) == null) {
+            broadcaster.publish(new PresenceEntry(r.employeeId(), true, r.clockInTime()));
+        }
+    }
+
+    private synchronized void rollOver(LocalDate today) {
+        if (!today.isAfter(day)) return;
+        day = today;
+        for (Long employeeId : present.keySet()) {
+            if (present.remove(employeeId) != null) {
+                broadcaster.publish(new PresenceEntry(employeeId, false, null));
+            }
+        }
+    }
+
+    private record Presence(LocalDateTime clockInTime, long indexedAt) {}
+}
@@ -0,0 +1,206 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.LeaveCalendarEntry;
+import com.smarthireflow.hrbackend.dto.TeamCalendar;
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.repository.TeamCalendarRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Builds the team availability calendar: for every member of a
+ * department, which days in a range are on leave, pending leave,
+ * attended and available.  A grid is built from one query per table
+ * for the whole department, with each member's days held as
+ * {@link BitSet}s indexed by day offset, and returned in the encoded
+ * form described on {@link TeamCalendar}.
+ *
+ * <p>Grids are cached per (department, from, days) in a small LRU.  A
+ * committed leave change drops the grids of its department whose range
+ * it overlaps, an attendance change those containing the employee and
+ * day; a TTL covers changes made by other instances.  A grid built
+ * while a change committed is only left out of the cache when that
+ * change touches it, so a steady stream of clock events elsewhere does
+ * not stop the cache from filling.
+ */
+@Service
+public class TeamCalendarService {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /** Invalidations remembered for grids still being built. */
+    private static final int MAX_RECENT_INVALIDATIONS = 1024;
+
+    private final TeamCalendarRepository calendarRepository;
+    private final WorkingDayCalendar workingDayCalendar;
+    private final int maxDays;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Cached> cache;
+    // guarded by cache
+    private final ArrayDeque<Invalidation> recentInvalidations = new ArrayDeque<>();
+    private long generation;
+
+    public TeamCalendarService(TeamCalendarRepository calendarRepository,
+                               WorkingDayCalendar workingDayCalendar,
+                               @Value("${calendar.max-days:366}") int maxDays,
+                               @Value("${calendar.cache.max-entries:256}") int maxEntries,
+                               @Value("${calendar.cache.ttl-ms:300000}") long ttlMs) {
+        this.calendarRepository = calendarRepository;
+        this.workingDayCalendar = workingDayCalendar;
+        this.maxDays = maxDays;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > TeamCalendarService.this.maxEntries;
+            }
+        };
+    }
+
+    public TeamCalendar calendar(String department, LocalDate from, int days) {
+        if (department == null || department.isBlank()) throw new IllegalArgumentException("department is required");
+        if (days < 1 || days > maxDays) throw new IllegalArgumentException("days must be between 1 and " + maxDays);
+        Key key = new Key(department, from, days);
+        long loading;
+        synchronized (cache) {
+            Cached hit = cache.get(key);
+            if (hit != null && System.nanoTime() - hit.loadedAt() < ttlNanos) return hit.grid();
+            loading = generation;
+        }
+        long loadedAt = System.nanoTime();
+        Cached built = build(key);
+        synchronized (cache) {
+            // a change committed while the grid was read may be missing
+            // from it; serve it, but do not cache it
+            if (untouchedSince(loading, key, built)) cache.put(key, new Cached(built.grid(), built.members(), loadedAt));
+        }
+        return built.grid();
+    }
+
+    /**
+     * Whether no invalidation after {@code loading} applies to the grid.
+     * If the log no longer reaches back that far, assume one did.
+     */
+    private boolean untouchedSince(long loading, Key key, Cached built) {
+        if (generation == loading) return true;
+        Invalidation oldest = recentInvalidations.peekFirst();
+        if (oldest == null || oldest.generation() > loading + 1) return false;
+        for (Invalidation i : recentInvalidations) {
+            if (i.generation() > loading && i.stale().test(key, built)) return false;
+        }
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLeaveChanged(LeaveChangedEvent event) {
+        for (LeaveCalendarEntry e : event.requests()) {
+            if (e.department() == null || e.startDate() == null || e.endDate() == null) continue;
+            invalidate((key, cached) -> key.department().equals(e.department())
+                    && key.overlaps(e.startDate(), e.endDate()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        for (AttendanceRecordView r : event.records()) {
+            invalidate((key, cached) -> key.overlaps(r.date(), r.date()) && cached.members().contains(r.employeeId()));
+        }
+    }
+
+    private void invalidate(BiPredicate<Key, Cached> stale) {
+        synchronized (cache) {
+            recentInvalidations.addLast(new Invalidation(++generation, stale));
+            if (recentInvalidations.size() > MAX_RECENT_INVALIDATIONS) recentInvalidations.removeFirst();
+            cache.entrySet().removeIf(e -> stale.test(e.getKey(), e.getValue()));
+        }
+    }
+
+    private Cached build(Key key) {
+        LocalDate from = key.from();
+        LocalDate to = key.to();
+        int days = key.days();
+        List<TeamCalendarRepository.Member> members = calendarRepository.findMembers(key.department());
+        Map<Long, Days> byEmployee = new HashMap<>();
+        for (TeamCalendarRepository.Member m : members) byEmployee.put(m.id(), new Days(days));
+
+        calendarRepository.forEachLeave(key.department(), from, to, (employeeId, status, start, end) -> {
+            Days d = byEmployee.get(employeeId);
+            if (d == null) return;
+            int first = (int) Math.max(0, ChronoUnit.DAYS.between(from, start));
+            int last = (int) Math.min(days - 1, ChronoUnit.DAYS.between(from, end));
+            if (first > last) return;
+            (status == LeaveStatus.APPROVED ? d.leave : d.pendingLeave).set(first, last + 1);
+        });
+        calendarRepository.forEachAttendanceDay(key.department(), from, to, (employeeId, date) -> {
+            Days d = byEmployee.get(employeeId);
+            if (d != null) d.present.set((int) ChronoUnit.DAYS.between(from, date));
+        });
+
+        Map<String, BitSet> workingDaysByRegion = new HashMap<>();
+        List<TeamCalendar.Row> rows = new ArrayList<>(members.size());
+        for (TeamCalendarRepository.Member m : members) {
+            Days d = byEmployee.get(m.id());
+            BitSet available = (BitSet) workingDaysByRegion.computeIfAbsent(workingDayCalendar.region(m.region()),
+                    region -> workingDayCalendar.workingDayBits(region, from, days)).clone();
+            available.andNot(d.leave);
+            rows.add(new TeamCalendar.Row(m.id(), m.name(),
+                    encode(d.leave, days), encode(d.pendingLeave, days), encode(d.present, days), encode(available, days)));
+        }
+        return new Cached(new TeamCalendar(key.department(), from, days, rows), Set.copyOf(byEmployee.keySet()), 0);
+    }
+
+    /**
+     * Fixed-length encoding: always (days + 7) / 8 bytes, since
+     * {@link BitSet#toByteArray()} drops trailing zero bytes.
+     */
+    static String encode(BitSet bits, int days) {
+        byte[] raw = new byte[(days + 7) / 8];
+        byte[] used = bits.toByteArray();
+        System.arraycopy(used, 0, raw, 0, Math.min(used.length, raw.length));
+        return ENCODER.encodeToString(raw);
+    }
+
+    private static final class Days {
+        final BitSet leave;
+        final BitSet pendingLeave;
+        final BitSet present;
+
+        Days(int days) {
+            leave = new BitSet(days);
+            pendingLeave = new BitSet(days);
+            present = new BitSet(days);
+        }
+    }
+
+    private record Key(String department, LocalDate from, int days) {
+
+        LocalDate to() {
+            return from.plusDays(days - 1L);
+        }
+
+        boolean overlaps(LocalDate start, LocalDate end) {
+            return !start.isAfter(to()) && !end.isBefore(from);
+        }
+    }
+
+    private record Cached(TeamCalendar grid, Set<Long> members, long loadedAt) {}
+
+    private record Invalidation(long generation, BiPredicate<Key, Cached> stale) {}
+}
@@ -0,0 +1,119 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.repository.HolidayRepository;
+import com.smarthireflow.hrbackend.util.WorkingDayTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Working-day arithmetic per holiday region.  Each (region, year) is
+ * loaded once into a {@link WorkingDayTable}, after which counting the
+ * working days of any range costs one subtraction per calendar year it
+ * spans.  Holidays only change through Liquibase, i.e. with a deploy, so
+ * tables never go stale; since the year comes from request dates, they
+ * are kept in an LRU of {@code calendar.working-days.max-tables}
+ * rather than without bound.
+ *
+ * <p>Employees without a region follow {@code calendar.default-region}.
+ */
+@Service
+public class WorkingDayCalendar {
+
+    private final HolidayRepository holidays;
+    private final String defaultRegion;
+    private final Map<RegionYear, WorkingDayTable> tables;
+
+    public WorkingDayCalendar(HolidayRepository holidays,
+                              @Value("${calendar.default-region:DEFAULT}") String defaultRegion,
+                              @Value("${calendar.working-days.max-tables:256}") int maxTables) {
+        this.holidays = holidays;
+        this.defaultRegion = defaultRegion;
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RegionYear, WorkingDayTable> eldest) {
+                return size() > maxTables;
+            }
+        };
+    }
+
+    /**
+     * Working days in [from, to], both inclusive; 0 if {@code to} is
+     * before {@code from}.
+     */
+    public int workingDays(String region, LocalDate from, LocalDate to) {
+        int days = 0;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            LocalDate start = year == from.getYear() ? from : LocalDate.of(year, 1, 1);
+            LocalDate end = year == to.getYear() ? to : LocalDate.of(year, 12, 31);
+            days += table(region, year).count(start, end);
+        }
+        return days;
+    }
+
+    public int workingDays(String region, YearMonth month) {
+        return workingDays(region, month.atDay(1), month.atEndOfMonth());
+    }
+
+    public boolean isWorkingDay(String region, LocalDate date) {
+        return table(region, date.getYear()).isWorkingDay(date);
+    }
+
+    /**
+     * Working days of {@code days} days from {@code from}, bit i set for
+     * day {@code from + i}.
+     */
+    public BitSet workingDayBits(String region, LocalDate from, int days) {
+        BitSet bits = new BitSet(days);
+        WorkingDayTable table = null;
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            if (table == null || table.year() != date.getYear()) table = table(region, date.getYear());
+            if (table.isWorkingDay(date)) bits.set(i);
+        }
+        return bits;
+    }
+
+    public String regionOf(Long employeeId) {
+        return holidays.findRegions(List.of(employeeId)).getOrDefault(employeeId, defaultRegion);
+    }
+
+    /**
+     * Region of every given employee, the default region for those
+     * without one.
+     */
+    public Map<Long, String> regionsOf(Collection<Long> employeeIds) {
+        Map<Long, String> found = holidays.findRegions(employeeIds);
+        Map<Long, String> regions = new HashMap<>();
+        for (Long id : employeeIds) regions.put(id, found.getOrDefault(id, defaultRegion));
+        return regions;
+    }
+
+    public String region(String region) {
+        return region != null ? region : defaultRegion;
+    }
+
+    private WorkingDayTable table(String region, int year) {
+        RegionYear key = new RegionYear(region(region), year);
+        synchronized (tables) {
+            WorkingDayTable table = tables.get(key);
+            if (table != null) return table;
+        }
+        // loaded outside the lock; a concurrent load of the same year builds an equal table
+        WorkingDayTable table = new WorkingDayTable(year, holidays.findHolidays(key.region(), year));
+        synchronized (tables) {
+            tables.put(key, table);
+        }
+        return table;
+    }
+
+    private record RegionYear(String region, int year) {}
+}
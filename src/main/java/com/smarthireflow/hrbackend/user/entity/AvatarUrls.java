@@ -0,0 +1,18 @@
+package com.smarthireflow.hrbackend.user.entity;
+
+/**
+ * Paths under which user avatars are served.
+ */
+public final class AvatarUrls {
+
+    private AvatarUrls() {}
+
+    /**
+     * URL of one version of a user's avatar.  It names the image's
+     * hash, so it changes whenever the avatar does and its response can
+     * be cached indefinitely.
+     */
+    public static String versioned(long userId, String hash) {
+        return "/users/" + userId + "/avatar/" + hash;
+    }
+}
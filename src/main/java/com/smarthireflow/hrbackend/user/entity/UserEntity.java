@@ -32,12 +32,12 @@ public class UserEntity {
     @Column(length = 512)
     private String address;
 
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "avatar", columnDefinition = "bytea")
+    // Avatar columns are read-only here; they are written by AvatarJdbcRepository
+    @Column(name = "avatar_hash", insertable = false, updatable = false)
     @JsonIgnore
-    private byte[] avatar;
+    private String avatarHash;
 
-    @Column(name = "avatar_content_type")
+    @Column(name = "avatar_content_type", insertable = false, updatable = false)
     @JsonIgnore
     private String avatarContentType;
 
@@ -48,4 +48,9 @@ public class UserEntity {
     @JsonIgnore
     @Column(name = "two_factor_secret")
     private String twoFactorSecret;
+
+    // Cacheable URL of the current avatar, for clients listing users
+    public String getAvatarUrl() {
+        return avatarHash == null ? null : AvatarUrls.versioned(id, avatarHash);
+    }
 }
\ No newline at end of file
@@ -2,9 +2,15 @@ package com.smarthireflow.hrbackend.user.repository;
 
 import com.smarthireflow.hrbackend.user.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
     boolean existsByEmailAndIdNot(String email, Long id);
+
+    @Query("select u.id from UserEntity u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.smarthireflow.hrbackend.user.service;
 
+import com.smarthireflow.hrbackend.service.IdentityCache;
 import com.smarthireflow.hrbackend.user.entity.UserEntity;
 import com.smarthireflow.hrbackend.user.repository.UserRepository;
 import org.springframework.stereotype.Service;
@@ -11,9 +12,11 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository repo;
+    private final IdentityCache identities;
 
-    public UserService(UserRepository repo) {
+    public UserService(UserRepository repo, IdentityCache identities) {
         this.repo = repo;
+        this.identities = identities;
     }
 
     public Optional<UserEntity> findOne(Long userId) {
@@ -33,7 +36,9 @@ public class UserService {
     }
 
     public UserEntity save(UserEntity user) {
-        return repo.save(user);
+        UserEntity saved = repo.save(user);
+        identities.evict(saved.getEmail());
+        return saved;
     }
 
     public List<UserEntity> findAll() {
@@ -0,0 +1,139 @@
+package com.smarthireflow.hrbackend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming reader for RFC 4180 CSV: comma separated, fields
+ * optionally quoted with {@code "}, quotes inside quoted fields doubled,
+ * CRLF or LF line ends, line breaks allowed inside quoted fields.  Only
+ * the current record is held in memory, so files of any length can be
+ * read with a bounded heap.  Not thread-safe; the caller closes the
+ * underlying reader.
+ */
+public final class CsvReader {
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+    private boolean overLong;
+
+    /**
+     * @param in             source, ideally buffered
+     * @param maxFieldLength longest field accepted; longer ones fail the
+     *                       record rather than growing without bound
+     */
+    public CsvReader(Reader in, int maxFieldLength) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * The next record, or null at end of input.  Blank lines are
+     * skipped.
+     *
+     * @throws FieldTooLongException    for a record with a field over the
+     *                                  length limit; the record has been
+     *                                  consumed, so reading can go on
+     * @throws IllegalArgumentException for an unterminated quoted field,
+     *                                  after which the rest of the input
+     *                                  cannot be read
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            if (c == '\n') line++;
+            c = read();
+        }
+        if (c == -1) return null;
+        recordLine = line;
+        overLong = false;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                if (c == '"') {
+                    int d = read();
+                    if (d == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        c = d;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    append(field, (char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int d = read();
+                    if (d != '\n') unread(d);
+                }
+                if (c != -1) line++;
+                if (overLong) {
+                    throw new FieldTooLongException("Field longer than " + maxFieldLength + " characters");
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                append(field, (char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} starts,
+     * counting from 1.
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private void append(StringBuilder field, char c) {
+        // keep scanning to the end of the record but stop buffering
+        if (field.length() >= maxFieldLength) {
+            overLong = true;
+            return;
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    /**
+     * A record had a field over the length limit.  Unlike other read
+     * errors the reader is positioned at the next record.
+     */
+    public static final class FieldTooLongException extends IllegalArgumentException {
+        public FieldTooLongException(String message) {
+            super(message);
+        }
+    }
+}
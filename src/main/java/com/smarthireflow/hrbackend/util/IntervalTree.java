@@ -0,0 +1,91 @@
+package com.smarthireflow.hrbackend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable interval tree over closed {@code long} intervals.  The
+ * intervals are sorted by start and laid out as an implicit balanced
+ * binary search tree over the sorted array, each node keeping the
+ * largest end in its subtree, so a stabbing or overlap query costs
+ * O(log n + k) for k matches.  Built in O(n log n); to change the
+ * contents build a new tree.
+ *
+ * @param <T> value carried by each interval
+ */
+public final class IntervalTree<T> {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final Object[] values;
+
+    /**
+     * @param intervals the intervals; {@code start <= end} is required
+     */
+    public IntervalTree(List<Interval<T>> intervals) {
+        List<Interval<T>> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingLong(Interval<T>::start).thenComparingLong(Interval::end));
+        int n = sorted.size();
+        starts = new long[n];
+        ends = new long[n];
+        maxEnds = new long[n];
+        values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            Interval<T> interval = sorted.get(i);
+            if (interval.end() < interval.start()) {
+                throw new IllegalArgumentException("Interval ends before it starts: " + interval);
+            }
+            starts[i] = interval.start();
+            ends[i] = interval.end();
+            values[i] = interval.value();
+        }
+        computeMaxEnds(0, n - 1);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Values of all intervals overlapping the closed range [from, to],
+     * in order of interval start.
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> out = new ArrayList<>();
+        forEachOverlapping(from, to, out::add);
+        return out;
+    }
+
+    public void forEachOverlapping(long from, long to, Consumer<? super T> action) {
+        visit(0, values.length - 1, from, to, action);
+    }
+
+    private long computeMaxEnds(int lo, int hi) {
+        if (lo > hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid - 1), computeMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void visit(int lo, int hi, long from, long to, Consumer<? super T> action) {
+        if (lo > hi) return;
+        int mid = (lo + hi) >>> 1;
+        // nothing in this subtree ends on or after the query start
+        if (maxEnds[mid] < from) return;
+        visit(lo, mid - 1, from, to, action);
+        // this node and everything to its right start after the query end
+        if (starts[mid] > to) return;
+        if (ends[mid] >= from) action.accept((T) values[mid]);
+        visit(mid + 1, hi, from, to, action);
+    }
+
+    /**
+     * A closed interval [start, end] carrying a value.
+     */
+    public record Interval<T>(long start, long end, T value) {}
+}
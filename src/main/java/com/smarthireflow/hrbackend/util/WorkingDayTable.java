@@ -0,0 +1,73 @@
+package com.smarthireflow.hrbackend.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Collection;
+
+/**
+ * Working days of one calendar year as a cumulative count: entry i is
+ * the number of working days among the first i days of the year, so the
+ * working days in any range within the year are one subtraction.  A
+ * working day is a Monday to Friday that is not one of the given
+ * holidays.  Immutable once built.
+ */
+public final class WorkingDayTable {
+
+    private final int year;
+    private final int[] prefix;
+
+    /**
+     * @param holidays holiday dates; dates outside {@code year} and
+     *                 holidays falling on a weekend are ignored
+     */
+    public WorkingDayTable(int year, Collection<LocalDate> holidays) {
+        this.year = year;
+        int length = Year.of(year).length();
+        boolean[] holiday = new boolean[length];
+        for (LocalDate h : holidays) {
+            if (h.getYear() == year) holiday[h.getDayOfYear() - 1] = true;
+        }
+        prefix = new int[length + 1];
+        DayOfWeek dow = LocalDate.of(year, 1, 1).getDayOfWeek();
+        for (int i = 0; i < length; i++) {
+            boolean working = dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY && !holiday[i];
+            prefix[i + 1] = prefix[i] + (working ? 1 : 0);
+            dow = dow.plus(1);
+        }
+    }
+
+    public int year() {
+        return year;
+    }
+
+    /**
+     * Working days in [from, to], both inclusive and within this year;
+     * 0 if {@code to} is before {@code from}.
+     */
+    public int count(LocalDate from, LocalDate to) {
+        checkYear(from);
+        checkYear(to);
+        if (to.isBefore(from)) return 0;
+        return prefix[to.getDayOfYear()] - prefix[from.getDayOfYear() - 1];
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        checkYear(date);
+        int day = date.getDayOfYear();
+        return prefix[day] != prefix[day - 1];
+    }
+
+    /**
+     * Working days in the whole year.
+     */
+    public int total() {
+        return prefix[prefix.length - 1];
+    }
+
+    private void checkYear(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException(date + " is not in " + year);
+        }
+    }
+}
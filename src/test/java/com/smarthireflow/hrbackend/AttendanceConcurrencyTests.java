@@ -0,0 +1,103 @@
+package com.smarthireflow.hrbackend;
+
+import com.smarthireflow.hrbackend.model.Employee;
+import com.smarthireflow.hrbackend.model.Role;
+import com.smarthireflow.hrbackend.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Hammers the clock-in and clock-out endpoints for one employee from
+ * many threads at once and checks that the day still ends up with a
+ * single attendance record.  Every request must succeed, except a
+ * clock-out that runs before any clock-in has committed, which has
+ * nothing to complete and gets 409.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AttendanceConcurrencyTests {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 400;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Employee employee;
+
+    @BeforeEach
+    void createEmployee() {
+        String email = "concurrency-" + UUID.randomUUID() + "@hr.local";
+        employee = employeeService.save(new Employee("Concurrency Test", email, "Operations", Role.EMPLOYEE));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM attendance_records WHERE employee_id = ?", employee.getId());
+        employeeService.delete(employee.getId());
+    }
+
+    @Test
+    void concurrentClockInAndOutKeepOneRecordPerDay() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        Queue<String> unexpected = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            boolean clockOut = i % 3 == 2;
+            String path = (clockOut ? "/employee/attendance/clock-out/" : "/employee/attendance/clock-in/") + employee.getId();
+            futures.add(pool.submit(() -> {
+                start.await();
+                int status = mvc.perform(post(path).with(user("manager@hr.local").roles("MANAGER")))
+                        .andReturn().getResponse().getStatus();
+                if (status != 200 && !(clockOut && status == 409)) unexpected.add(path + " returned " + status);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected outcomes: " + unexpected);
+
+        Integer rows = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM attendance_records WHERE employee_id = ? AND date = ?",
+                Integer.class, employee.getId(), LocalDate.now());
+        assertEquals(1, rows);
+
+        mvc.perform(post("/employee/attendance/clock-out/" + employee.getId())
+                        .with(user("manager@hr.local").roles("MANAGER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+}
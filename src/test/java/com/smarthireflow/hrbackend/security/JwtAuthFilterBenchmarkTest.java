@@ -0,0 +1,83 @@
+package com.smarthireflow.hrbackend.security;
+
+import com.smarthireflow.hrbackend.service.IdentityCache;
+import com.smarthireflow.hrbackend.user.Role;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Rough per-request cost of the JWT filter, comparing the previous
+ * behaviour (new parser per call, full verification every time) with
+ * the shared parser and with the verified-token cache.  Numbers are
+ * printed rather than asserted since they depend on the machine.
+ * Tagged "benchmark", so it only runs with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class JwtAuthFilterBenchmarkTest {
+
+  private static final String SECRET = "0d530d3bf8d74f04b9db11ef538ea319459f31c6fedb4c89bb72955fe5e6289b";
+  private static final int WARMUP = 5_000;
+  private static final int ITERATIONS = 20_000;
+
+  private final JwtService jwt = new JwtService(SECRET, "smarthireflow", 480);
+  private final String token = jwt.generate("emp@hr.local", Role.EMPLOYEE, 3L, 3L);
+  // The token carries both ids, so the filter never needs the identity cache
+  private final IdentityCache identities = mock(IdentityCache.class);
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void filterCostBeforeAndAfterCaching() throws Exception {
+    SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    long legacy = measure(() -> Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload());
+
+    JwtAuthFilter uncached = new JwtAuthFilter(jwt, new VerifiedTokenCache(0), identities);
+    long sharedParser = measure(() -> runFilter(uncached));
+
+    VerifiedTokenCache cache = new VerifiedTokenCache(10_000);
+    JwtAuthFilter cached = new JwtAuthFilter(jwt, cache, identities);
+    long withCache = measure(() -> runFilter(cached));
+
+    System.out.printf("JWT filter ns/request: per-call parser=%d, shared parser=%d, cached=%d%n",
+        legacy, sharedParser, withCache);
+
+    VerifiedTokenCache.Stats stats = cache.stats();
+    assertEquals(1, stats.misses());
+    assertEquals(WARMUP + ITERATIONS - 1, stats.hits());
+  }
+
+  private void runFilter(JwtAuthFilter filter) throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/employee/attendance");
+    req.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+    SecurityContextHolder.clearContext();
+  }
+
+  private long measure(Op op) throws Exception {
+    for (int i = 0; i < WARMUP; i++) op.run();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) op.run();
+    return (System.nanoTime() - start) / ITERATIONS;
+  }
+
+  @FunctionalInterface
+  private interface Op {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,89 @@
+package com.smarthireflow.hrbackend.security;
+
+import com.smarthireflow.hrbackend.service.IdentityCache;
+import com.smarthireflow.hrbackend.user.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The filter verifies a token's signature once and serves repeats of
+ * it from the verified-token cache, without weakening authentication.
+ */
+class JwtAuthFilterTest {
+
+  private static final String SECRET = "0d530d3bf8d74f04b9db11ef538ea319459f31c6fedb4c89bb72955fe5e6289b";
+
+  private final JwtService jwt = spy(new JwtService(SECRET, "smarthireflow", 480));
+  private final String token = jwt.generate("emp@hr.local", Role.EMPLOYEE, 3L, 3L);
+  // The token carries both ids, so the filter never needs the identity cache
+  private final IdentityCache identities = mock(IdentityCache.class);
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void cachedTokenSkipsVerification() throws Exception {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10);
+    JwtAuthFilter filter = new JwtAuthFilter(jwt, cache, identities);
+
+    runFilter(filter, token);
+    SecurityContextHolder.clearContext();
+    runFilter(filter, token);
+
+    verify(jwt, times(1)).verify(anyString());
+    assertEquals(1, cache.stats().hits());
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    assertNotNull(auth);
+    assertEquals("emp@hr.local", auth.getName());
+    AuthenticatedUser principal = (AuthenticatedUser) auth.getPrincipal();
+    assertEquals(3L, principal.userId());
+    assertEquals(3L, principal.employeeId());
+  }
+
+  @Test
+  void disabledCacheVerifiesEveryRequest() throws Exception {
+    JwtAuthFilter filter = new JwtAuthFilter(jwt, new VerifiedTokenCache(0), identities);
+
+    runFilter(filter, token);
+    runFilter(filter, token);
+
+    verify(jwt, times(2)).verify(anyString());
+  }
+
+  @Test
+  void invalidTokenIsNotCached() throws Exception {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10);
+    JwtAuthFilter filter = new JwtAuthFilter(jwt, cache, identities);
+    String tampered = token.substring(0, token.length() - 2) + "xx";
+
+    runFilter(filter, tampered);
+    runFilter(filter, tampered);
+
+    verify(jwt, times(2)).verify(tampered);
+    assertEquals(0, cache.stats().size());
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  private static void runFilter(JwtAuthFilter filter, String token) throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/employee/attendance");
+    req.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+  }
+}
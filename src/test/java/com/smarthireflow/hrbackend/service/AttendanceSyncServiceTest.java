@@ -0,0 +1,128 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.AttendanceRecordView;
+import com.smarthireflow.hrbackend.dto.KioskClockEvent;
+import com.smarthireflow.hrbackend.dto.SyncEventResult;
+import com.smarthireflow.hrbackend.model.AttendanceStatus;
+import com.smarthireflow.hrbackend.model.ClockEventType;
+import com.smarthireflow.hrbackend.model.SyncEventStatus;
+import com.smarthireflow.hrbackend.repository.AttendanceRecordJdbcRepository;
+import com.smarthireflow.hrbackend.repository.AttendanceSyncRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replay of kiosk uploads: events are applied in time order whatever
+ * order they arrive in, contradicting events are rejected without
+ * touching the record, and duplicates get the first outcome back.
+ */
+class AttendanceSyncServiceTest {
+
+    private static final long EMPLOYEE = 5L;
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+
+    private final AttendanceSyncRepository syncRepo = mock(AttendanceSyncRepository.class);
+    private final AttendanceRecordJdbcRepository attendanceJdbc = mock(AttendanceRecordJdbcRepository.class);
+    private final AttendanceSyncService service = new AttendanceSyncService(syncRepo, attendanceJdbc,
+            mock(AttendanceRollupService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            mock(ApplicationEventPublisher.class), 500, 31, 90);
+
+    private static KioskClockEvent event(String id, ClockEventType type, int hour) {
+        return new KioskClockEvent(id, EMPLOYEE, type, DAY.atTime(hour, 0));
+    }
+
+    private void claimAll() {
+        when(syncRepo.claim(anyCollection())).thenAnswer(inv -> {
+            Collection<KioskClockEvent> events = inv.getArgument(0);
+            return Set.copyOf(events.stream().map(KioskClockEvent::clientEventId).toList());
+        });
+        when(syncRepo.existingEmployees(anyCollection())).thenReturn(Set.of(EMPLOYEE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insertAs(long id) {
+        when(attendanceJdbc.insertDays(anyCollection())).thenAnswer(inv -> ((Collection<AttendanceRecordView>) inv.getArgument(0))
+                .stream()
+                .map(r -> new AttendanceRecordView(id, r.employeeId(), r.date(), r.clockInTime(), r.clockOutTime(),
+                        r.status(), r.autoClosed()))
+                .toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void outOfOrderEventsAreReplayedByTime() {
+        claimAll();
+        insertAs(42L);
+
+        List<SyncEventResult> results = service.sync(List.of(
+                event("out", ClockEventType.OUT, 17),
+                event("in", ClockEventType.IN, 9)));
+
+        assertEquals(List.of(
+                new SyncEventResult("out", SyncEventStatus.ACCEPTED, 42L, null),
+                new SyncEventResult("in", SyncEventStatus.ACCEPTED, 42L, null)), results);
+        ArgumentCaptor<Collection<AttendanceRecordView>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(attendanceJdbc).insertDays(inserted.capture());
+        AttendanceRecordView day = inserted.getValue().iterator().next();
+        assertEquals(DAY.atTime(9, 0), day.clockInTime());
+        assertEquals(DAY.atTime(17, 0), day.clockOutTime());
+        assertEquals(AttendanceStatus.COMPLETED, day.status());
+    }
+
+    @Test
+    void conflictingEventsAreRejectedAndLeaveTheRecordAlone() {
+        claimAll();
+        LocalDateTime in = DAY.atTime(9, 0);
+        LocalDateTime out = DAY.atTime(17, 0);
+        when(attendanceJdbc.lockDays(anyCollection())).thenReturn(List.of(
+                new AttendanceRecordView(9L, EMPLOYEE, DAY, in, out, AttendanceStatus.COMPLETED, false)));
+
+        List<SyncEventResult> results = service.sync(List.of(
+                event("early-out", ClockEventType.OUT, 8),
+                new KioskClockEvent("lone-out", EMPLOYEE, ClockEventType.OUT, DAY.minusDays(1).atTime(17, 0))));
+
+        assertEquals(List.of(
+                new SyncEventResult("early-out", SyncEventStatus.REJECTED, null, "Clock-out is before clock-in"),
+                new SyncEventResult("lone-out", SyncEventStatus.REJECTED, null, "No clock-in recorded for that day")),
+                results);
+        verify(attendanceJdbc).updateDays(List.of());
+        verify(attendanceJdbc).insertDays(List.of());
+    }
+
+    @Test
+    void duplicatesGetTheFirstOutcome() {
+        when(syncRepo.claim(anyCollection())).thenReturn(Set.of("new"));
+        when(syncRepo.existingEmployees(anyCollection())).thenReturn(Set.of(EMPLOYEE));
+        when(syncRepo.outcomes(List.of("old"))).thenReturn(Map.of("old",
+                new SyncEventResult("old", SyncEventStatus.REJECTED, null, "No clock-in recorded for that day")));
+        insertAs(42L);
+
+        List<SyncEventResult> results = service.sync(List.of(
+                event("new", ClockEventType.IN, 9),
+                event("old", ClockEventType.OUT, 7),
+                event("new", ClockEventType.IN, 9)));
+
+        assertEquals(List.of(
+                new SyncEventResult("new", SyncEventStatus.ACCEPTED, 42L, null),
+                new SyncEventResult("old", SyncEventStatus.DUPLICATE, null, "No clock-in recorded for that day",
+                        SyncEventStatus.REJECTED),
+                new SyncEventResult("new", SyncEventStatus.DUPLICATE, 42L, null, SyncEventStatus.ACCEPTED)), results);
+        verify(syncRepo).saveOutcomes(List.of(new SyncEventResult("new", SyncEventStatus.ACCEPTED, 42L, null)));
+    }
+}
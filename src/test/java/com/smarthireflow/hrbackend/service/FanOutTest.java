@@ -0,0 +1,98 @@
+package com.smarthireflow.hrbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Scope semantics: results after a clean join, the first failure
+ * rethrown, its siblings interrupted, and the timeout enforced.
+ */
+class FanOutTest {
+
+    private static final Duration GUARD = Duration.ofSeconds(10);
+
+    private final FanOut fanOut = new FanOut(new TransactionTemplate(mock(PlatformTransactionManager.class)), 10_000);
+
+    @Test
+    void joinsBranchResults() {
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Integer> a = scope.fork(() -> 1);
+            Supplier<String> b = scope.fork(() -> "two");
+            assertThrows(IllegalStateException.class, a::get);
+            scope.join();
+            assertEquals(1, a.get());
+            assertEquals("two", b.get());
+        }
+    }
+
+    @Test
+    void firstFailureIsRethrown() {
+        IllegalArgumentException boom = new IllegalArgumentException("boom");
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Integer> ok = scope.fork(() -> 1);
+            scope.fork(() -> {
+                throw boom;
+            });
+            assertSame(boom, assertThrows(IllegalArgumentException.class, scope::join));
+            assertThrows(IllegalStateException.class, ok::get);
+        }
+    }
+
+    @Test
+    void failureInterruptsSiblings() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        assertTimeoutPreemptively(GUARD, () -> {
+            try (FanOut.Scope scope = fanOut.open()) {
+                scope.fork(() -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(GUARD.toMillis());
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return null;
+                });
+                scope.fork(() -> {
+                    started.await();
+                    throw new IllegalStateException("failed");
+                });
+                assertThrows(IllegalStateException.class, scope::join);
+            }
+            assertTrue(interrupted.await(0, TimeUnit.SECONDS), "sibling was not interrupted");
+        });
+    }
+
+    @Test
+    void joinGivesUpAtTheScopeTimeout() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        assertTimeoutPreemptively(GUARD, () -> {
+            try (FanOut.Scope scope = fanOut.open(50)) {
+                scope.fork(() -> {
+                    try {
+                        Thread.sleep(GUARD.toMillis());
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return null;
+                });
+                IllegalStateException e = assertThrows(IllegalStateException.class, scope::join);
+                assertEquals("Timed out after 50 ms", e.getMessage());
+            }
+            assertTrue(interrupted.await(0, TimeUnit.SECONDS), "branch outlived the scope");
+        });
+    }
+}
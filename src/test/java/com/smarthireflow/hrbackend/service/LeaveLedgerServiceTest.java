@@ -0,0 +1,238 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.LeaveBalanceView;
+import com.smarthireflow.hrbackend.dto.LeaveLedgerEntry;
+import com.smarthireflow.hrbackend.model.Employee;
+import com.smarthireflow.hrbackend.model.LeaveLedgerEntryType;
+import com.smarthireflow.hrbackend.model.LeaveRequest;
+import com.smarthireflow.hrbackend.model.LeaveType;
+import com.smarthireflow.hrbackend.model.Role;
+import com.smarthireflow.hrbackend.repository.AdvisoryLocks;
+import com.smarthireflow.hrbackend.repository.LeaveLedgerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Balance arithmetic of the ledger service against an in-memory ledger
+ * that follows the repository's SQL: debits and reversals of approved
+ * requests, manual adjustments, and monthly accrual that credits each
+ * employee once per month however often it runs.
+ */
+class LeaveLedgerServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 3, 7);
+
+    private final WorkingDayCalendar calendar = mock(WorkingDayCalendar.class);
+    private final AdvisoryLocks locks = mock(AdvisoryLocks.class);
+    private final InMemoryLedger ledger = new InMemoryLedger(1L, 2L, 3L, 4L, 5L);
+    private final LeaveLedgerService service = new LeaveLedgerService(ledger, calendar, locks,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new BigDecimal("1.75"), BigDecimal.ONE, new BigDecimal("0.25"), 2);
+
+    private LeaveRequest request(long id, LeaveType type) {
+        Employee employee = new Employee("Ledger Test", "ledger@hr.local", "Operations", Role.EMPLOYEE);
+        employee.setId(1L);
+        LeaveRequest request = new LeaveRequest(employee, type, MONDAY, FRIDAY, null);
+        ReflectionTestUtils.setField(request, "id", id);
+        return request;
+    }
+
+    private void workingDays(int days) {
+        when(calendar.workingDays(any(), any(LocalDate.class), any(LocalDate.class))).thenReturn(days);
+    }
+
+    private void lockAvailable() {
+        when(locks.tryAcquire(anyInt(), anyInt())).thenAnswer(inv -> Optional.of(mock(AdvisoryLocks.Lock.class)));
+    }
+
+    private static void assertDays(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    @Test
+    void debitAndReversalMoveBalanceAndUsed() {
+        lockAvailable();
+        service.accrue(YearMonth.of(2025, 3));
+        workingDays(4); // Monday to Friday with one holiday
+
+        LeaveBalanceView debited = service.debit(request(11L, LeaveType.VACATION));
+        assertDays("-2.25", debited.balance());
+        assertDays("1.75", debited.accrued());
+        assertDays("4", debited.used());
+
+        LeaveBalanceView reversed = service.reverse(request(11L, LeaveType.VACATION)).orElseThrow();
+        assertDays("1.75", reversed.balance());
+        assertDays("0", reversed.used());
+
+        LeaveBalanceView adjusted = service.adjust(1L, LeaveType.VACATION, new BigDecimal("0.5"), "carry-over");
+        assertDays("2.25", adjusted.balance());
+        assertDays("1.75", adjusted.accrued());
+    }
+
+    @Test
+    void reversalGivesBackWhatWasDebitedOnce() {
+        workingDays(4);
+        service.debit(request(11L, LeaveType.SICK));
+        workingDays(5); // the holiday was removed after approval
+
+        LeaveBalanceView reversed = service.reverse(request(11L, LeaveType.SICK)).orElseThrow();
+        assertDays("0", reversed.balance());
+        assertDays("0", reversed.used());
+        assertDays("4", ledger.entries.get(1).days());
+        assertTrue(service.reverse(request(11L, LeaveType.SICK)).isEmpty());
+        assertEquals(2, ledger.entries.size());
+    }
+
+    @Test
+    void requestsThatWereNeverDebitedAreNotReversed() {
+        assertTrue(service.reverse(request(12L, LeaveType.VACATION)).isEmpty());
+        assertTrue(ledger.entries.isEmpty());
+    }
+
+    @Test
+    void accrualCreditsEachEmployeeOncePerMonth() {
+        lockAvailable();
+
+        LeaveLedgerService.AccrualResult first = service.accrue(YearMonth.of(2025, 3));
+        assertFalse(first.skipped());
+        assertEquals(15, first.entries()); // 5 employees x 3 types
+        assertEquals(3, first.batches());
+
+        LeaveLedgerService.AccrualResult again = service.accrue(YearMonth.of(2025, 3));
+        assertEquals(0, again.entries());
+        assertDays("1.75", service.balance(4L, LeaveType.VACATION).orElseThrow().balance());
+
+        assertEquals(15, service.accrue(YearMonth.of(2025, 4)).entries());
+        assertDays("3.5", service.balance(4L, LeaveType.VACATION).orElseThrow().balance());
+        assertDays("0.5", service.balance(4L, LeaveType.PERSONAL).orElseThrow().accrued());
+    }
+
+    @Test
+    void accrualIsSkippedWhileAnotherRunHoldsTheLock() {
+        when(locks.tryAcquire(anyInt(), anyInt())).thenReturn(Optional.empty());
+
+        LeaveLedgerService.AccrualResult result = service.accrue(YearMonth.of(2025, 3));
+
+        assertTrue(result.skipped());
+        assertTrue(ledger.entries.isEmpty());
+    }
+
+    @Test
+    void balancesListEveryTypeAndAdjustmentsAreValidated() {
+        service.adjust(1L, LeaveType.PERSONAL, new BigDecimal("-1"), null);
+
+        List<LeaveBalanceView> balances = service.balances(1L);
+        assertEquals(LeaveType.values().length, balances.size());
+        for (LeaveBalanceView b : balances) {
+            assertDays(b.type() == LeaveType.PERSONAL ? "-1" : "0", b.balance());
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.adjust(1L, LeaveType.SICK, BigDecimal.ZERO, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.adjust(1L, LeaveType.SICK, new BigDecimal("0.125"), null));
+    }
+
+    /**
+     * Ledger kept in a list, with balances folded the way
+     * leave_balances is and accruals unique per (employee, type, month)
+     * like the accrual index.
+     */
+    private static final class InMemoryLedger extends LeaveLedgerRepository {
+
+        final List<Long> employees;
+        final List<LeaveLedgerEntry> entries = new ArrayList<>();
+
+        InMemoryLedger(Long... employees) {
+            super(null);
+            this.employees = List.of(employees);
+        }
+
+        @Override
+        public LeaveBalanceView append(Long employeeId, LeaveType type, LeaveLedgerEntryType entryType,
+                                       BigDecimal days, Long leaveRequestId, String note) {
+            add(employeeId, type, entryType, days, leaveRequestId, null, note);
+            return findBalance(employeeId, type).orElseThrow();
+        }
+
+        @Override
+        public BigDecimal outstandingDebit(Long leaveRequestId) {
+            return entries.stream()
+                    .filter(e -> leaveRequestId.equals(e.leaveRequestId()))
+                    .filter(e -> e.entryType() == LeaveLedgerEntryType.DEBIT || e.entryType() == LeaveLedgerEntryType.REVERSAL)
+                    .map(LeaveLedgerEntry::days)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        @Override
+        public int accrue(LocalDate period, Map<LeaveType, BigDecimal> daysPerType, long afterId, long uptoId, String note) {
+            int written = 0;
+            for (Long employeeId : employees) {
+                if (employeeId <= afterId || employeeId > uptoId) continue;
+                for (Map.Entry<LeaveType, BigDecimal> rate : daysPerType.entrySet()) {
+                    boolean credited = entries.stream().anyMatch(e -> e.entryType() == LeaveLedgerEntryType.ACCRUAL
+                            && e.employeeId().equals(employeeId) && e.type() == rate.getKey()
+                            && period.equals(e.accrualPeriod()));
+                    if (credited) continue;
+                    add(employeeId, rate.getKey(), LeaveLedgerEntryType.ACCRUAL, rate.getValue(), null, period, note);
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public Optional<Long> nextEmployeeBatchEnd(long afterId, int limit) {
+            return employees.stream().filter(id -> id > afterId).sorted().limit(limit).max(Long::compare);
+        }
+
+        @Override
+        public List<LeaveBalanceView> findBalances(Long employeeId) {
+            List<LeaveBalanceView> balances = new ArrayList<>();
+            for (LeaveType type : LeaveType.values()) findBalance(employeeId, type).ifPresent(balances::add);
+            return balances;
+        }
+
+        @Override
+        public Optional<LeaveBalanceView> findBalance(Long employeeId, LeaveType type) {
+            BigDecimal balance = BigDecimal.ZERO;
+            BigDecimal accrued = BigDecimal.ZERO;
+            BigDecimal used = BigDecimal.ZERO;
+            boolean any = false;
+            for (LeaveLedgerEntry e : entries) {
+                if (!e.employeeId().equals(employeeId) || e.type() != type) continue;
+                any = true;
+                balance = balance.add(e.days());
+                if (e.entryType() == LeaveLedgerEntryType.ACCRUAL) accrued = accrued.add(e.days());
+                if (e.entryType() == LeaveLedgerEntryType.DEBIT || e.entryType() == LeaveLedgerEntryType.REVERSAL) {
+                    used = used.subtract(e.days());
+                }
+            }
+            return any ? Optional.of(new LeaveBalanceView(employeeId, type, balance, accrued, used, null)) : Optional.empty();
+        }
+
+        private void add(Long employeeId, LeaveType type, LeaveLedgerEntryType entryType, BigDecimal days,
+                         Long leaveRequestId, LocalDate period, String note) {
+            entries.add(new LeaveLedgerEntry(entries.size() + 1L, employeeId, type, entryType, days, leaveRequestId,
+                    period, note, null));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.smarthireflow.hrbackend.service;
+
+import com.smarthireflow.hrbackend.dto.LeaveDecisionResult;
+import com.smarthireflow.hrbackend.model.Employee;
+import com.smarthireflow.hrbackend.model.LeaveDecisionOutcome;
+import com.smarthireflow.hrbackend.model.LeaveRequest;
+import com.smarthireflow.hrbackend.model.LeaveStatus;
+import com.smarthireflow.hrbackend.model.Role;
+import com.smarthireflow.hrbackend.repository.LeaveRequestJdbcRepository;
+import com.smarthireflow.hrbackend.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Approval of leave requests that have no leave type: nothing may be
+ * debited, and a bulk decision must report them instead of failing.
+ */
+class LeaveServiceTest {
+
+    private final LeaveRequestRepository requests = mock(LeaveRequestRepository.class);
+    private final LeaveRequestJdbcRepository leaveJdbc = mock(LeaveRequestJdbcRepository.class);
+    private final LeaveLedgerService ledger = mock(LeaveLedgerService.class);
+    private final LeaveService service = new LeaveService(requests, leaveJdbc, mock(EmployeeService.class), ledger,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void approvingRequestWithoutTypeIsRefusedBeforeDebiting() {
+        Employee employee = new Employee("No Type", "no-type@hr.local", "Operations", Role.EMPLOYEE);
+        LeaveRequest request = new LeaveRequest(employee, null, LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 4), null);
+        when(requests.findByIdForUpdate(7L)).thenReturn(Optional.of(request));
+
+        assertThrows(IllegalArgumentException.class, () -> service.approveRequest(7L));
+        assertEquals(LeaveStatus.PENDING, request.getStatus());
+        verify(ledger, never()).debit(any());
+        verify(requests, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void bulkApprovalReportsRequestsWithoutType() {
+        when(leaveJdbc.decidePending(anyMap(), any())).thenReturn(List.of());
+        when(leaveJdbc.findStatusVersions(anyList()))
+                .thenReturn(Map.of(7L, new LeaveRequestJdbcRepository.StatusVersion(LeaveStatus.PENDING, 3, null)));
+
+        List<LeaveDecisionResult> results = service.decideAll(List.of(7L), null, LeaveStatus.APPROVED);
+
+        assertEquals(List.of(new LeaveDecisionResult(7L, LeaveDecisionOutcome.MISSING_TYPE, LeaveStatus.PENDING, 3L)), results);
+    }
+}
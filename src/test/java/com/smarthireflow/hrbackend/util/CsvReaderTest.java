@@ -0,0 +1,70 @@
+package com.smarthireflow.hrbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv), 100);
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) records.add(record);
+        return records;
+    }
+
+    @Test
+    void plainFields() throws IOException {
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("1", "", "3")), readAll("a,b,c\n1,,3\n"));
+    }
+
+    @Test
+    void lastLineWithoutNewlineAndCrLf() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "")), readAll("a,b\r\nc,"));
+    }
+
+    @Test
+    void quotedFields() throws IOException {
+        assertEquals(List.of(List.of("x, y", "say \"hi\"", "two\nlines", "")),
+                readAll("\"x, y\",\"say \"\"hi\"\"\",\"two\nlines\",\"\"\n"));
+    }
+
+    @Test
+    void skipsBlankLinesAndTracksRecordLine() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a\n\n\"b\nb\"\n\r\nc\n"), 100);
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("b\nb"), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertEquals(List.of("c"), reader.next());
+        assertEquals(6, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsUnterminatedQuoteAndLongFields() {
+        assertThrows(IllegalArgumentException.class, () -> readAll("\"abc\n"));
+        CsvReader reader = new CsvReader(new StringReader("abcdef\n"), 5);
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void carriesOnAfterLongField() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,abcdef\n\"x\ny,z\",b\nc,d\n"), 3);
+        assertThrows(CsvReader.FieldTooLongException.class, reader::next);
+        assertEquals(1, reader.recordLine());
+        assertThrows(CsvReader.FieldTooLongException.class, reader::next);
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertEquals(4, reader.recordLine());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,68 @@
+package com.smarthireflow.hrbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks overlap queries against a linear scan over random intervals,
+ * including the closed-bound edge cases.
+ */
+class IntervalTreeTest {
+
+    @Test
+    void emptyTreeFindsNothing() {
+        IntervalTree<String> tree = new IntervalTree<>(List.of());
+        assertEquals(0, tree.size());
+        assertTrue(tree.overlapping(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void boundsAreInclusive() {
+        IntervalTree<String> tree = new IntervalTree<>(List.of(
+                new IntervalTree.Interval<>(10, 20, "a"),
+                new IntervalTree.Interval<>(21, 21, "b")));
+        assertEquals(List.of("a"), tree.overlapping(20, 20));
+        assertEquals(List.of("a"), tree.overlapping(0, 10));
+        assertEquals(List.of("a", "b"), tree.overlapping(20, 21));
+        assertTrue(tree.overlapping(22, 30).isEmpty());
+        assertTrue(tree.overlapping(0, 9).isEmpty());
+    }
+
+    @Test
+    void rejectsReversedInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new IntervalTree<>(List.of(new IntervalTree.Interval<>(5, 4, "x"))));
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+            int n = random.nextInt(300);
+            for (int i = 0; i < n; i++) {
+                long start = random.nextInt(1000);
+                intervals.add(new IntervalTree.Interval<>(start, start + random.nextInt(60), i));
+            }
+            IntervalTree<Integer> tree = new IntervalTree<>(intervals);
+            for (int q = 0; q < 100; q++) {
+                long from = random.nextInt(1100) - 50;
+                long to = from + random.nextInt(80);
+                List<Integer> expected = intervals.stream()
+                        .filter(iv -> iv.start() <= to && iv.end() >= from)
+                        .map(IntervalTree.Interval::value)
+                        .sorted()
+                        .toList();
+                List<Integer> actual = tree.overlapping(from, to).stream().sorted().toList();
+                assertEquals(expected, actual, "query [" + from + ", " + to + "]");
+            }
+        }
+    }
+}
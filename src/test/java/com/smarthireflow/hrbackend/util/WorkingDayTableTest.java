@@ -0,0 +1,73 @@
+package com.smarthireflow.hrbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the prefix-sum counts against counting day by day.
+ */
+class WorkingDayTableTest {
+
+    private static final List<LocalDate> HOLIDAYS = List.of(
+            LocalDate.of(2024, 1, 1),    // Monday
+            LocalDate.of(2024, 2, 29),   // Thursday, leap day
+            LocalDate.of(2024, 12, 25),  // Wednesday
+            LocalDate.of(2024, 12, 28),  // Saturday, already not a working day
+            LocalDate.of(2025, 1, 1));   // other year, ignored
+
+    private final WorkingDayTable table = new WorkingDayTable(2024, HOLIDAYS);
+
+    @Test
+    void wholeYear() {
+        // 2024 has 262 weekdays; three holidays fall on one
+        assertEquals(259, table.total());
+        assertEquals(259, table.count(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void singleDays() {
+        assertFalse(table.isWorkingDay(LocalDate.of(2024, 1, 1)));
+        assertTrue(table.isWorkingDay(LocalDate.of(2024, 1, 2)));
+        assertFalse(table.isWorkingDay(LocalDate.of(2024, 1, 6)));
+        assertEquals(0, table.count(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29)));
+        assertEquals(1, table.count(LocalDate.of(2024, 12, 31), LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void reversedRangeIsEmpty() {
+        assertEquals(0, table.count(LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void rejectsDatesOutsideTheYear() {
+        assertThrows(IllegalArgumentException.class,
+                () -> table.count(LocalDate.of(2023, 12, 31), LocalDate.of(2024, 1, 5)));
+    }
+
+    @Test
+    void matchesDayByDayCount() {
+        Set<LocalDate> holidays = Set.copyOf(HOLIDAYS);
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        for (int start = 0; start < 366; start += 7) {
+            for (int end = start; end < 366; end += 11) {
+                LocalDate from = first.plusDays(start);
+                LocalDate to = first.plusDays(end);
+                int expected = 0;
+                for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                    DayOfWeek dow = d.getDayOfWeek();
+                    if (dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY && !holidays.contains(d)) expected++;
+                }
+                assertEquals(expected, table.count(from, to), from + ".." + to);
+            }
+        }
+    }
+}